@@ -0,0 +1,52 @@
+package org.bsc.cloudsimulations.benchmarks;
+
+import org.bsc.cloudsimulations.comparison.HeterogeneousSystemComparison;
+import org.bsc.cloudsimulations.comparison.HomogeneousSystemComparison;
+import org.bsc.cloudsimulations.comparison.SystemComparisonBase;
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.bsc.cloudsimulations.configurations.PolicyAndSchedulerShortCodes;
+import org.bsc.cloudsimulations.results.ResultSink;
+import org.cloudsimplus.util.Log;
+
+import com.google.gson.JsonObject;
+
+/*
+ * Shared setup of the benchmarks: resolves a system type, topology scale and policy triple (short codes)
+ * into a configuration the same way Main does, and runs one simulation with it
+ * */
+public final class BenchmarkConfigurations {
+    public static final String CONFIG_PATH = "org/bsc/cloudsimulations/configurations/config.json";
+
+    private BenchmarkConfigurations() {
+    }
+
+    public static ConfigLoader forCombination(String system, String topologyScale,
+            String vmAllocationPolicy, String vmScheduler, String cloudletScheduler) {
+        Log.setLevel(ch.qos.logback.classic.Level.OFF); //simulation logging would dominate the measurements
+
+        ConfigLoader configLoader = new ConfigLoader(CONFIG_PATH);
+        JsonObject userConfig = new JsonObject();
+        userConfig.addProperty("vmAllocationPolicy", PolicyAndSchedulerShortCodes.VM_ALLOCATION_POLICIES.get(vmAllocationPolicy));
+        userConfig.addProperty("vmScheduler", PolicyAndSchedulerShortCodes.VM_SCHEDULERS.get(vmScheduler));
+        userConfig.addProperty("cloudletScheduler", PolicyAndSchedulerShortCodes.CLOUDLET_SCHEDULERS.get(cloudletScheduler));
+        userConfig.addProperty("topologyProfile", system + "-" + topologyScale);
+        configLoader.updateSection(system, userConfig);
+        configLoader.validateClasses(system, "vmAllocationPolicy", "vmScheduler", "cloudletScheduler");
+        return configLoader;
+    }
+
+    //one complete run (setup, simulation, oversubscription check, detailed table and metrics) on a copy of the configuration
+    public static SystemComparisonBase run(String system, ConfigLoader configLoader,
+            String vmAllocationPolicy, String vmScheduler, String cloudletScheduler, ResultSink resultSink) {
+        String vmAllocationPolicyClass = PolicyAndSchedulerShortCodes.VM_ALLOCATION_POLICIES.get(vmAllocationPolicy);
+        String vmSchedulerClass = PolicyAndSchedulerShortCodes.VM_SCHEDULERS.get(vmScheduler);
+        String cloudletSchedulerClass = PolicyAndSchedulerShortCodes.CLOUDLET_SCHEDULERS.get(cloudletScheduler);
+        ConfigLoader runConfig = configLoader.copy();
+        if (system.equals("homogeneous")) {
+            return new HomogeneousSystemComparison(1, runConfig, false,
+                    vmAllocationPolicyClass, vmSchedulerClass, cloudletSchedulerClass, resultSink);
+        }
+        return new HeterogeneousSystemComparison(1, runConfig, false,
+                vmAllocationPolicyClass, vmSchedulerClass, cloudletSchedulerClass, resultSink);
+    }
+}
@@ -0,0 +1,41 @@
+package org.bsc.cloudsimulations.benchmarks;
+
+import org.bsc.cloudsimulations.results.CloudletHistogramRecord;
+import org.bsc.cloudsimulations.results.CloudletRecordBatch;
+import org.bsc.cloudsimulations.results.MetricsRecord;
+import org.bsc.cloudsimulations.results.ResultSink;
+import org.bsc.cloudsimulations.results.UtilizationSeriesRecord;
+
+/*
+ * Sink that drops every record, so benchmarks measure the simulation and metrics code and not the disk
+ * The last records are kept in volatile fields, which keeps the JIT from eliminating the work that produced them
+ * */
+public class DiscardingResultSink implements ResultSink {
+    private volatile CloudletRecordBatch lastBatch;
+    private volatile MetricsRecord lastMetrics;
+    private volatile CloudletHistogramRecord lastHistograms;
+    private volatile UtilizationSeriesRecord lastUtilization;
+
+    @Override
+    public void writeCloudlets(CloudletRecordBatch batch) {
+        lastBatch = batch;
+    }
+
+    @Override
+    public void writeMetrics(MetricsRecord record) {
+        lastMetrics = record;
+    }
+
+    @Override
+    public void writeHistograms(CloudletHistogramRecord record) {
+        lastHistograms = record;
+    }
+
+    @Override
+    public void writeUtilization(UtilizationSeriesRecord record) {
+        lastUtilization = record;
+    }
+
+    public CloudletRecordBatch getLastBatch() { return lastBatch; }
+    public MetricsRecord getLastMetrics() { return lastMetrics; }
+}
@@ -0,0 +1,58 @@
+package org.bsc.cloudsimulations.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * End-to-end benchmark: one complete SystemComparisonBase run per system type, policy triple and topology scale
+ * Only the default scale runs unless asked for, large runs take over a minute each:
+ * java -jar target/benchmarks.jar SimulationRunBenchmark -p topologyScale=large -bm ss -i 3
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationRunBenchmark {
+    @Param({"homogeneous", "heterogeneous"})
+    public String system;
+
+    @Param({"default"})
+    public String topologyScale;
+
+    @Param({"S", "FF", "BF", "IFF", "IBF", "P2", "SD"})
+    public String vmAllocationPolicy;
+
+    @Param({"TS", "SS"})
+    public String vmScheduler;
+
+    @Param({"TS", "SS"})
+    public String cloudletScheduler;
+
+    private ConfigLoader configLoader;
+    private final DiscardingResultSink resultSink = new DiscardingResultSink();
+
+    @Setup
+    public void setup() {
+        configLoader = BenchmarkConfigurations.forCombination(system, topologyScale, vmAllocationPolicy, vmScheduler, cloudletScheduler);
+    }
+
+    @Benchmark
+    public Object run() {
+        BenchmarkConfigurations.run(system, configLoader, vmAllocationPolicy, vmScheduler, cloudletScheduler, resultSink);
+        return resultSink.getLastMetrics();
+    }
+}
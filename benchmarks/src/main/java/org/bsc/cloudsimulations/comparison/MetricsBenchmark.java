@@ -0,0 +1,87 @@
+package org.bsc.cloudsimulations.comparison;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bsc.cloudsimulations.benchmarks.BenchmarkConfigurations;
+import org.bsc.cloudsimulations.benchmarks.DiscardingResultSink;
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Micro-benchmarks of the metrics calculation, on the state left behind by one finished run
+ * Lives in the comparison package so it can reach the protected helpers of SystemComparisonBase
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    @Param({"homogeneous", "heterogeneous"})
+    public String system;
+
+    @Param({"default"})
+    public String topologyScale;
+
+    private final DiscardingResultSink resultSink = new DiscardingResultSink();
+    private SystemComparisonBase finishedRun;
+    private List<Cloudlet> finishedCloudlets;
+    private RunMetricsCollector collectedRun;
+
+    @Setup
+    public void setup() {
+        ConfigLoader configLoader = BenchmarkConfigurations.forCombination(system, topologyScale, "BF", "TS", "TS");
+        finishedRun = BenchmarkConfigurations.run(system, configLoader, "BF", "TS", "TS", resultSink);
+        finishedCloudlets = finishedRun.broker.getCloudletFinishedList();
+        collectedRun = finishedRun.metricsCollector;
+    }
+
+    private RunMetricsCollector newCollector() {
+        return new RunMetricsCollector(finishedRun.datacenter.getHostList().size(),
+                finishedRun.vmList.size(), finishedRun.cloudletList.size());
+    }
+
+    //whole post-run processing: oversubscription pass, detailed rows + loads pass, metrics record
+    @Benchmark
+    public Object postRunProcessing() {
+        finishedRun.metricsCollector = newCollector();
+        finishedRun.calculateAndDisplayOversubscribedCloudlets(false);
+        finishedRun.demonstrateCloudletTable(finishedCloudlets);
+        finishedRun.calculateAndWriteMetrics(finishedCloudlets);
+        return resultSink.getLastMetrics();
+    }
+
+    //metrics without the detailed rows (makespan, loads, deviations, oversubscription)
+    @Benchmark
+    public Object calculateAndWriteMetrics() {
+        finishedRun.metricsCollector = newCollector();
+        finishedRun.calculateAndDisplayOversubscribedCloudlets(false);
+        finishedRun.calculateAndWriteMetrics(finishedCloudlets);
+        return resultSink.getLastMetrics();
+    }
+
+    @Benchmark
+    public Object calculateOversubscriptionMetrics() {
+        RunMetricsCollector collector = newCollector();
+        collector.collectOversubscriptions(finishedRun.vmList, null);
+        return collector.getAvgPercentageIncrease();
+    }
+
+    @Benchmark
+    public double calculateStandardDeviation() {
+        return collectedRun.getHostLoadStdDev() + collectedRun.getVmLoadStdDev();
+    }
+}
@@ -0,0 +1,104 @@
+package org.bsc.cloudsimulations.results;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.bsc.cloudsimulations.benchmarks.BenchmarkConfigurations;
+import org.bsc.cloudsimulations.benchmarks.DiscardingResultSink;
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Benchmarks of the CSV writers with the records of one real run
+ * Everything is written to the null device, so the numbers show formatting and sink overhead, not disk speed
+ * Lives in the results package so the row formatting (CsvRecordFormat) can be measured on its own
+ * asyncCsvResultSink only measures the producer side (hand-off to the writer thread), as the runs see it
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvWriterBenchmark {
+    private static final String NULL_DEVICE = System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null";
+
+    @Param({"homogeneous", "heterogeneous"})
+    public String system;
+
+    private CloudletRecordBatch batch;
+    private MetricsRecord metrics;
+    private CsvFileWriter writer;
+    private CsvResultSink csvResultSink;
+    private AsyncCsvResultSink asyncCsvResultSink;
+
+    @Setup
+    public void setup() throws IOException {
+        ConfigLoader configLoader = BenchmarkConfigurations.forCombination(system, "default", "BF", "TS", "TS");
+        DiscardingResultSink recorded = new DiscardingResultSink();
+        BenchmarkConfigurations.run(system, configLoader, "BF", "TS", "TS", recorded);
+
+        //same rows, redirected to the null device
+        CloudletRecordBatch source = recorded.getLastBatch();
+        batch = new CloudletRecordBatch(NULL_DEVICE, source.getRunId(), source.getVmAllocationPolicy(),
+                source.getVmScheduler(), source.getCloudletScheduler(), source.size());
+        for (int row = 0; row < source.size(); row++) {
+            batch.add(source.getCloudletId(row), source.getHostId(row), source.getHostPes(row), source.getVmId(row),
+                    source.getVmPes(row), source.getStatus(row), source.getExecTime(row), source.getStartTime(row),
+                    source.getFinishTime(row), source.getStartWaitTime(row), source.getExpectedFinishTime(row));
+        }
+        MetricsRecord m = recorded.getLastMetrics();
+        metrics = new MetricsRecord(NULL_DEVICE, m.getRunId(), m.getVmAllocationPolicy(), m.getVmScheduler(),
+                m.getCloudletScheduler(), m.getMakespan(), m.getThroughput(), m.getHostLoadStdDev(), m.getVmLoadStdDev(),
+                m.getOversubscribedCount(), m.getAvgPercentageIncrease(), m.getTotalCompletedTasks(),
+                m.getMeanResponseTime(), m.getSteadyStateThroughput(), m.getSteadyStateMeanResponseTime(),
+                m.getEnergyWh(), m.getEnergyPerTaskWh(), m.getIdleHostTime(),
+                m.getSetupTimeMs(), m.getSimulationTimeMs(), m.getPostProcessingTimeMs(),
+                m.getSimulationEvents(), m.getAllocatedBytes(), m.getGcPauseMs());
+
+        writer = new CsvFileWriter(NULL_DEVICE, true);
+        csvResultSink = new CsvResultSink();
+        asyncCsvResultSink = new AsyncCsvResultSink();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        writer.close();
+        asyncCsvResultSink.close();
+    }
+
+    //row formatting into an already open writer
+    @Benchmark
+    public void formatCloudletRows() throws IOException {
+        CsvRecordFormat.writeCloudlets(writer, batch);
+    }
+
+    @Benchmark
+    public void formatMetricsRow() throws IOException {
+        CsvRecordFormat.writeMetrics(writer, metrics);
+    }
+
+    //synchronous sink: opens, writes and closes the file per batch
+    @Benchmark
+    public void csvResultSink() {
+        csvResultSink.writeCloudlets(batch);
+        csvResultSink.writeMetrics(metrics);
+    }
+
+    @Benchmark
+    public void asyncCsvResultSink() {
+        asyncCsvResultSink.writeCloudlets(batch);
+        asyncCsvResultSink.writeMetrics(metrics);
+    }
+}
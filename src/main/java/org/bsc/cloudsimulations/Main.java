@@ -2,24 +2,97 @@ package org.bsc.cloudsimulations;
 
 import org.bsc.cloudsimulations.comparison.HeterogeneousSystemComparison;  
 import org.bsc.cloudsimulations.comparison.HomogeneousSystemComparison;
+import org.bsc.cloudsimulations.comparison.SystemComparisonBase;
 import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.bsc.cloudsimulations.configurations.ExperimentManifest;
 import org.bsc.cloudsimulations.configurations.PolicyAndSchedulerShortCodes;
+import org.bsc.cloudsimulations.daemon.DaemonClient;
+import org.bsc.cloudsimulations.daemon.SimulationDaemon;
+import org.bsc.cloudsimulations.execution.AdaptiveRunScheduler;
+import org.bsc.cloudsimulations.execution.BatchProgress;
+import org.bsc.cloudsimulations.execution.ParallelRunExecutor;
+import org.bsc.cloudsimulations.execution.ResultCache;
+import org.bsc.cloudsimulations.execution.RunTask;
+import org.bsc.cloudsimulations.execution.Shard;
+import org.bsc.cloudsimulations.results.AsyncCsvResultSink;
+import org.bsc.cloudsimulations.results.DetailLevelResultSink;
+import org.bsc.cloudsimulations.results.RelocatingResultSink;
+import org.bsc.cloudsimulations.results.ResultSink;
+import org.bsc.cloudsimulations.results.ShardMerger;
+import org.bsc.cloudsimulations.results.StreamingAggregator;
+import org.bsc.cloudsimulations.monitoring.MetricsEndpoint;
+import org.bsc.cloudsimulations.results.columnar.ColumnarResultSink;
 import org.cloudsimplus.util.Log;
 
 import com.google.gson.JsonObject;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 /*
  * Main class for running the simulations
  * Capture user inputs to customize the simulation (configuration type, allocation polices, scheduler, and etc.)
  * Loads JSON file for configuration of policies
+ * Runs are independent, so they can be spread over a pool of worker threads
+ * Sweep mode expands every allocation policy / scheduler combination for both system types in one invocation
+ * Adaptive mode stops each combination once its makespan and throughput have converged, the number of runs becoming a budget
+ * A load-aware cloudlet mapping runs next to the broker's default one, so its makespan gain is reported with the summary
+ * Headless mode takes the answers from an experiment manifest, and can run one shard of it:
+ * Main --manifest <file> [--shard i/n], then Main --merge <file> once every shard is done
+ * Daemon mode keeps a warm JVM serving jobs on a local socket: Main --daemon [--config <file>],
+ * and Main --submit <jobs.json> [--port <port>] sends jobs to it, printing the metrics rows it streams back
  * */
 
 public class Main {
     public static void main(String[] args) {
+        // Headless batch (experiment manifest, optionally one shard of it) or merge of the shard outputs
+        String manifestPath = getOption(args, "--manifest");
+        String mergePath = getOption(args, "--merge");
+        String shard = getOption(args, "--shard");
+        String submitPath = getOption(args, "--submit");
+        if (submitPath != null) {
+            String port = getOption(args, "--port");
+            try (Reader jobs = Files.newBufferedReader(Path.of(submitPath))) {
+                int failed = DaemonClient.submit(port != null ? Integer.parseInt(port) : SimulationDaemon.DEFAULT_PORT, jobs, System.out, System.err);
+                if (failed > 0) {
+                    System.exit(1);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read jobs file: " + submitPath, e);
+            }
+            return;
+        }
+        if (List.of(args).contains("--daemon")) {
+            String config = getOption(args, "--config");
+            runDaemon(new ConfigLoader(config != null ? config : "org/bsc/cloudsimulations/configurations/config.json"));
+            return;
+        }
+        if (mergePath != null) {
+            ExperimentManifest manifest = ExperimentManifest.fromFile(Path.of(mergePath));
+            ShardMerger.merge(Path.of(manifest.getOutputDirectory()), SystemComparisonBase::withDefaultCloudletMapping);
+            return;
+        }
+        if (manifestPath != null) {
+            runHeadless(ExperimentManifest.fromFile(Path.of(manifestPath)), shard != null ? Shard.parse(shard) : Shard.ALL);
+            return;
+        }
+        if (shard != null) {
+            throw new IllegalArgumentException("--shard needs an experiment manifest (--manifest <file>)");
+        }
+
         int totalRuns = 100;
+        int workers = 1;
         
         String configPath = args.length > 0 ? args[0] : "org/bsc/cloudsimulations/configurations/config.json";
         ConfigLoader configLoader = new ConfigLoader(configPath);
@@ -45,8 +118,13 @@ public class Main {
                 }
             }
 
+            // Mode
+            System.out.println("Select Mode: [1] Single configuration [2] Full policy sweep");
+            boolean sweep = getValidatedInputInt(scanner, "1|2", 1) == 2;
+
             // Number of Runs
-            System.out.println("Enter the number of simulation runs (default: 100):");
+            System.out.println(sweep ? "Enter the number of simulation runs per combination (default: 100):"
+                    : "Enter the number of simulation runs (default: 100):");
             while (true) {
                 String input = scanner.nextLine().trim();
                 if (input.isEmpty()) {
@@ -65,46 +143,374 @@ public class Main {
                 }
             }
 
-            // Configuration Type
-            System.out.println("Select Configuration Type: [1] Homogeneous [2] Heterogeneous");
-            int configType = getValidatedInputInt(scanner, "1|2", 2);
+            // Adaptive Run Count (stop once the confidence intervals are narrow enough, "adaptiveRuns" in config.json)
+            System.out.println("Stop early once makespan and throughput have converged? [yes/no] (default: no, the runs above become the average budget per combination)");
+            boolean adaptive = getValidatedInputString(scanner, "yes|no", "no").equals("yes");
+
+            // Number of Worker Threads
+            // sweeps default to all cores, a single configuration keeps the sequential default
+            int availableCores = Runtime.getRuntime().availableProcessors();
+            if (sweep) {
+                workers = availableCores;
+            }
+            System.out.println("Enter the number of worker threads (default: " + workers + ", available cores: " + availableCores + "):");
+            while (true) {
+                String input = scanner.nextLine().trim();
+                if (input.isEmpty()) {
+                    break;
+                }
+                try {
+                    workers = Integer.parseInt(input);
+                    if (workers > 0) {
+                        break;
+                    } else {
+                        System.out.println("Please enter a positive integer.");
+                    }
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid input! Please enter a positive integer.");
+                }
+            }
+
+            // Topology Scale (profiles "<system>-<scale>" in config.json)
+            System.out.println("Select topology scale: [default, large, xlarge] (default: default)");
+            String topologyScale = getValidatedInputString(scanner, "default|large|xlarge", "default");
 
-            // VM Allocation Policy
-            System.out.println("Enter VM Allocation Policy: [S, FF, BF]");
-            String vmAllocationPolicy = getValidatedPolicy(scanner, PolicyAndSchedulerShortCodes.VM_ALLOCATION_POLICIES);
+            // Workload (synthetic cloudlets of the topology profile, or a trace replayed while the simulation runs)
+            System.out.println("Enter a workload trace file (SWF or cluster CSV), empty for the synthetic cloudlets of the topology profile:");
+            JsonObject workloadConfig = new JsonObject();
+            while (true) {
+                String tracePath = scanner.nextLine().trim();
+                if (tracePath.isEmpty()) {
+                    break;
+                }
+                if (Files.isReadable(Path.of(tracePath))) {
+                    List<String> formats = new ArrayList<>(configLoader.getWorkloadFormatNames());
+                    System.out.println("Select trace format: " + formats + " (default: " + formats.get(0) + ")");
+                    String format = getValidatedInputString(scanner, String.join("|", formats), formats.get(0));
+                    workloadConfig.addProperty("workloadTrace", tracePath);
+                    workloadConfig.addProperty("workloadFormat", format);
+                    break;
+                }
+                System.out.println("File not found or not readable, please try again (empty for synthetic cloudlets).");
+            }
+            // Arrival process (synthetic cloudlets arriving over simulated time instead of all at start)
+            if (!workloadConfig.has("workloadTrace")) {
+                List<String> processes = new ArrayList<>(configLoader.getArrivalProcessNames());
+                processes.add(0, "none");
+                System.out.println("Select arrival process: " + processes + " (default: none)");
+                String process = getValidatedInputString(scanner, String.join("|", processes), "none");
+                if (!process.equals("none")) {
+                    workloadConfig.addProperty("arrivalProcess", process);
+                }
+            }
+
+            // Result Cache (runs are seeded, so a run already simulated with the same configuration is replayed from disk)
+            System.out.println("Use result cache? [on, off, invalidate] (default: on)");
+            String cacheMode = getValidatedInputString(scanner, "on|off|invalidate", "on");
+            ResultCache resultCache = openResultCache(configLoader, cacheMode);
 
-            // VM Scheduler
-            System.out.println("Enter VM Scheduler: [TS, SS]");
-            String vmScheduler = getValidatedPolicy(scanner, PolicyAndSchedulerShortCodes.VM_SCHEDULERS);
+            // Cloudlet to VM Mapping (the broker's default one is run as well, as the baseline of the makespan gain)
+            System.out.println("Select cloudlet to VM mapping: [S, ECT, MIN, MAX] (default: S, the broker's own; ECT: earliest estimated completion, MIN/MAX: min-min/max-min batch)");
+            String mapperCode = getValidatedInputString(scanner, "s|ect|min|max", "s").toUpperCase();
+            List<String> cloudletMappers = cloudletMappersFor(mapperCode);
 
-            // Cloudlet Scheduler
-            System.out.println("Enter Cloudlet Scheduler: [TS, SS]");
-            String cloudletScheduler = getValidatedPolicy(scanner, PolicyAndSchedulerShortCodes.CLOUDLET_SCHEDULERS);
+            //runs of every combination by run id, in run order
+            Map<String, IntFunction<RunTask>> combinations = new LinkedHashMap<>();
+            if (sweep) {
+                // Display Oversubscription Table
+                System.out.println("Display oversubscription table? [yes/no]");
+                boolean displayOversubTable = getValidatedInputString(scanner, "yes|no", "no").equalsIgnoreCase("yes");
 
-            // Display Oversubscription Table
-            System.out.println("Display oversubscription table? [yes/no]");
-            boolean displayOversubTable = getValidatedInputString(scanner, "yes|no", "no").equalsIgnoreCase("yes");
+                addSweep(combinations, configLoader, resultCache, displayOversubTable, topologyScale, workloadConfig, cloudletMappers);
+                System.out.println("Sweeping " + combinations.size() + " combinations, " + (adaptive ? "at most " : "")
+                        + combinations.size() * totalRuns + " runs in total");
+            } else {
+                // Configuration Type
+                System.out.println("Select Configuration Type: [1] Homogeneous [2] Heterogeneous");
+                int configType = getValidatedInputInt(scanner, "1|2", 2);
 
-            // Update ConfigLoader
-            JsonObject userConfig = new JsonObject();
-            userConfig.addProperty("vmAllocationPolicy", vmAllocationPolicy);
-            userConfig.addProperty("vmScheduler", vmScheduler);
-            userConfig.addProperty("cloudletScheduler", cloudletScheduler);
-            configLoader.updateSection(configType == 1 ? "homogeneous" : "heterogeneous", userConfig);
+                // VM Allocation Policy
+                System.out.println("Enter VM Allocation Policy: [S, FF, BF, IFF, IBF, P2, SD] (IFF/IBF: indexed first/best fit for large host counts, P2/SD: least loaded of 2 / allocationSampleSize random hosts)");
+                String vmAllocationPolicy = getValidatedPolicy(scanner, PolicyAndSchedulerShortCodes.VM_ALLOCATION_POLICIES);
 
-            // Run Simulation
-            for (int i = 1; i <= totalRuns; i++) {
-                if (configType == 1) {
-                    System.out.println("Running Homogeneous System - Run " + i);
-                    new HomogeneousSystemComparison(i, configLoader, displayOversubTable, vmAllocationPolicy, vmScheduler, cloudletScheduler);
-                } else {
-                    System.out.println("Running Heterogeneous System - Run " + i);
-                    new HeterogeneousSystemComparison(i, configLoader, displayOversubTable, vmAllocationPolicy, vmScheduler, cloudletScheduler);
+                // VM Scheduler
+                System.out.println("Enter VM Scheduler: [TS, SS]");
+                String vmScheduler = getValidatedPolicy(scanner, PolicyAndSchedulerShortCodes.VM_SCHEDULERS);
+
+                // Cloudlet Scheduler
+                System.out.println("Enter Cloudlet Scheduler: [TS, SS]");
+                String cloudletScheduler = getValidatedPolicy(scanner, PolicyAndSchedulerShortCodes.CLOUDLET_SCHEDULERS);
+
+                // Display Oversubscription Table
+                System.out.println("Display oversubscription table? [yes/no]");
+                boolean displayOversubTable = getValidatedInputString(scanner, "yes|no", "no").equalsIgnoreCase("yes");
+
+                for (String cloudletMapper : cloudletMappers) {
+                    addCombination(combinations, configLoader, resultCache, configType, displayOversubTable, topologyScale, workloadConfig,
+                            vmAllocationPolicy, vmScheduler, cloudletScheduler, cloudletMapper, "");
+                }
+            }
+
+            // Detailed Table Format
+            System.out.println("Select detailed table format: [csv, bin, both] (default: csv)");
+            String detailedFormat = getValidatedInputString(scanner, "csv|bin|both", "csv");
+
+            // Detailed Table Level (large sweeps keep a sample or only the per-run histograms, "detailLevels" in config.json)
+            System.out.println("Select detailed table level: [full, reservoir, oversubscribed, summary] (default: full; reservoir: sampled rows per run, summary: histograms only)");
+            String detailLevel = getValidatedInputString(scanner, DetailLevelResultSink.LEVELS, "full");
+
+            runBatch(configLoader, combinations, totalRuns, workers, adaptive, detailedFormat, detailLevel, resultCache, Shard.ALL, null);
+        }
+    }
+
+    /*
+     * Headless batch: the answers of the prompts come from the experiment manifest
+     * With a shard i/n, only that slice of the run space is run and the outputs go to <outputDirectory>/shard-i-of-n,
+     * which must not hold results yet (a rerun would otherwise append duplicate rows); "Main --merge <manifest>" combines the shards
+     * */
+    private static void runHeadless(ExperimentManifest manifest, Shard shard) {
+        if (!setLogLevel(manifest.getLogLevel())) {
+            throw new RuntimeException("Experiment manifest " + manifest.getPath() + ": invalid logLevel " + manifest.getLogLevel());
+        }
+        if (manifest.isAdaptive() && !shard.isAll()) {
+            throw new RuntimeException("Adaptive run counts decide on the results of every run, they cannot be sharded");
+        }
+        ConfigLoader configLoader = new ConfigLoader(manifest.getConfig());
+
+        JsonObject workloadConfig = new JsonObject();
+        if (manifest.getWorkloadTrace() != null) {
+            if (!Files.isReadable(Path.of(manifest.getWorkloadTrace()))) {
+                throw new RuntimeException("Workload trace not found or not readable: " + manifest.getWorkloadTrace());
+            }
+            workloadConfig.addProperty("workloadTrace", manifest.getWorkloadTrace());
+            workloadConfig.addProperty("workloadFormat", manifest.getWorkloadFormat());
+        } else if (manifest.getArrivalProcess() != null) {
+            workloadConfig.addProperty("arrivalProcess", manifest.getArrivalProcess());
+        }
+        ResultCache resultCache = openResultCache(configLoader, manifest.getResultCache());
+        List<String> cloudletMappers = cloudletMappersFor(manifest.getCloudletMapper());
+
+        Map<String, IntFunction<RunTask>> combinations = new LinkedHashMap<>();
+        if (manifest.isSweep()) {
+            addSweep(combinations, configLoader, resultCache, manifest.isDisplayOversubscriptionTable(), manifest.getTopologyScale(),
+                    workloadConfig, cloudletMappers);
+        } else {
+            for (ExperimentManifest.Combination combination : manifest.getCombinations()) {
+                for (String cloudletMapper : cloudletMappers) {
+                    addCombination(combinations, configLoader, resultCache, combination.getSystem().equals("homogeneous") ? 1 : 2,
+                            manifest.isDisplayOversubscriptionTable(), manifest.getTopologyScale(), workloadConfig,
+                            PolicyAndSchedulerShortCodes.VM_ALLOCATION_POLICIES.get(combination.getVmAllocationPolicy()),
+                            PolicyAndSchedulerShortCodes.VM_SCHEDULERS.get(combination.getVmScheduler()),
+                            PolicyAndSchedulerShortCodes.CLOUDLET_SCHEDULERS.get(combination.getCloudletScheduler()), cloudletMapper,
+                            " [" + combination.getVmAllocationPolicy() + "-" + combination.getVmScheduler() + "-" + combination.getCloudletScheduler() + "]");
+                }
+            }
+        }
+
+        Path outputDirectory = Path.of(manifest.getOutputDirectory());
+        if (!shard.isAll()) {
+            outputDirectory = outputDirectory.resolve(shard.getDirectoryName());
+        }
+        try {
+            if (!shard.isAll() && Files.isDirectory(outputDirectory)) {
+                try (Stream<Path> entries = Files.list(outputDirectory)) {
+                    if (entries.findAny().isPresent()) {
+                        throw new RuntimeException("Shard output directory is not empty: " + outputDirectory);
+                    }
+                }
+            }
+            Files.createDirectories(outputDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create output directory: " + outputDirectory, e);
+        }
+        System.out.println("Experiment " + manifest.getPath() + (shard.isAll() ? "" : ", shard " + shard) + ": "
+                + combinations.size() + " combinations, output in " + outputDirectory);
+        runBatch(configLoader, combinations, manifest.getRuns(), manifest.getWorkers(), manifest.isAdaptive(),
+                manifest.getDetailedFormat(), manifest.getDetailLevel(), resultCache, shard, outputDirectory);
+    }
+
+    /*
+     * Simulation daemon: each job becomes one combination, built as in a batch, whose runs share the daemon's worker pool
+     * Logging is off, the daemon's console only reports the jobs and runs
+     * */
+    private static void runDaemon(ConfigLoader configLoader) {
+        setLogLevel("OFF");
+        try (SimulationDaemon daemon = SimulationDaemon.fromConfig(configLoader, job -> {
+            Map<String, IntFunction<RunTask>> combinations = new LinkedHashMap<>();
+            addCombination(combinations, configLoader, null, job.isHomogeneous() ? 1 : 2, false, job.getTopologyScale(), new JsonObject(),
+                    PolicyAndSchedulerShortCodes.VM_ALLOCATION_POLICIES.get(job.getVmAllocationPolicy()),
+                    PolicyAndSchedulerShortCodes.VM_SCHEDULERS.get(job.getVmScheduler()),
+                    PolicyAndSchedulerShortCodes.CLOUDLET_SCHEDULERS.get(job.getCloudletScheduler()),
+                    PolicyAndSchedulerShortCodes.CLOUDLET_MAPPERS.get(job.getCloudletMapper()),
+                    " [" + job.getVmAllocationPolicy() + "-" + job.getVmScheduler() + "-" + job.getCloudletScheduler() + "]");
+            return combinations.values().iterator().next();
+        })) {
+            daemon.serve();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start the simulation daemon", e);
+        }
+    }
+
+    /*
+     * Run Simulation
+     * a single writer thread owns the CSV files, runs only queue their records
+     * the binary columnar sink (if selected) takes the detailed table and forwards the rest
+     * below the full detail level, the detailed rows are sampled or filtered (or dropped) and per-run histograms written before they reach the writers
+     * the aggregator sees every metrics row first and prints/writes the cross-run summary when the batch is done
+     * with "metricsEndpoint" enabled in config.json, progress and the running aggregates are served to Prometheus while the batch runs
+     * the run space is every combination's runs 1..totalRuns in order, of which only the shard's slice is built and run
+     * with an output directory, every record is moved there before it reaches the aggregator
+     * */
+    private static void runBatch(ConfigLoader configLoader, Map<String, IntFunction<RunTask>> combinations, int totalRuns, int workers,
+            boolean adaptive, String detailedFormat, String detailLevel, ResultCache resultCache, Shard shard, Path outputDirectory) {
+        BatchProgress progress = new BatchProgress();
+        try (ParallelRunExecutor executor = new ParallelRunExecutor(workers);
+             AsyncCsvResultSink csvSink = new AsyncCsvResultSink();
+             ColumnarResultSink columnarSink = new ColumnarResultSink(csvSink, detailedFormat.equals("both"));
+             StreamingAggregator aggregator = new StreamingAggregator(detailedFormat.equals("csv") ? csvSink : columnarSink);
+             MetricsEndpoint metricsEndpoint = MetricsEndpoint.fromConfig(configLoader, progress, aggregator)) {
+            if (metricsEndpoint != null) {
+                System.out.println("Serving metrics on http://127.0.0.1:" + metricsEndpoint.getPort() + "/metrics");
+            }
+            aggregator.setBaselinePaths(SystemComparisonBase::withDefaultCloudletMapping);
+            ResultSink sink = DetailLevelResultSink.fromConfig(configLoader, detailLevel, aggregator);
+            if (outputDirectory != null) {
+                sink = new RelocatingResultSink(sink, outputDirectory);
+            }
+            if (adaptive) {
+                AdaptiveRunScheduler scheduler = AdaptiveRunScheduler.fromConfig(configLoader, (long) combinations.size() * totalRuns);
+                combinations.forEach(scheduler::addCombination);
+                scheduler.runAll(executor, sink, progress);
+            } else {
+                int runSpace = combinations.size() * totalRuns;
+                int from = shard.from(runSpace);
+                int to = shard.to(runSpace);
+                List<RunTask> tasks = new ArrayList<>(to - from);
+                int index = 0;
+                for (IntFunction<RunTask> runs : combinations.values()) {
+                    for (int runId = 1; runId <= totalRuns; runId++, index++) {
+                        if (index >= from && index < to) {
+                            tasks.add(progress.track(runs.apply(runId)));
+                        }
+                    }
+                }
+                progress.addPlannedRuns(tasks.size());
+                executor.runAll(tasks, sink);
+            }
+        }
+        if (resultCache != null) {
+            System.out.println("Result cache: " + resultCache.getHits() + " runs replayed, " + resultCache.getMisses()
+                    + " simulated (" + resultCache.getSizeBytes() / (1024 * 1024) + " MB in " + resultCache.getDirectory() + ")");
+        }
+    }
+
+    // Every (system type, allocation policy, vm scheduler, cloudlet scheduler) combination
+    // short codes are sorted so the run order, and therefore the output order, is stable
+    // indexed variants of a policy are skipped, they would only repeat its runs
+    private static void addSweep(Map<String, IntFunction<RunTask>> combinations, ConfigLoader configLoader, ResultCache resultCache,
+            boolean displayOversubTable, String topologyScale, JsonObject workloadConfig, List<String> cloudletMappers) {
+        for (int configType = 1; configType <= 2; configType++) {
+            for (String allocationCode : new TreeSet<>(PolicyAndSchedulerShortCodes.VM_ALLOCATION_POLICIES.keySet())) {
+                if (PolicyAndSchedulerShortCodes.EQUIVALENT_VM_ALLOCATION_POLICIES.containsKey(allocationCode)) {
+                    continue;
+                }
+                for (String vmSchedulerCode : new TreeSet<>(PolicyAndSchedulerShortCodes.VM_SCHEDULERS.keySet())) {
+                    for (String cloudletSchedulerCode : new TreeSet<>(PolicyAndSchedulerShortCodes.CLOUDLET_SCHEDULERS.keySet())) {
+                        for (String cloudletMapper : cloudletMappers) {
+                            addCombination(combinations, configLoader, resultCache, configType, displayOversubTable, topologyScale, workloadConfig,
+                                    PolicyAndSchedulerShortCodes.VM_ALLOCATION_POLICIES.get(allocationCode),
+                                    PolicyAndSchedulerShortCodes.VM_SCHEDULERS.get(vmSchedulerCode),
+                                    PolicyAndSchedulerShortCodes.CLOUDLET_SCHEDULERS.get(cloudletSchedulerCode), cloudletMapper,
+                                    " [" + allocationCode + "-" + vmSchedulerCode + "-" + cloudletSchedulerCode + "]");
+                        }
+                    }
                 }
             }
         }
     }
 
+    //the broker's default mapping always runs, as the baseline of the makespan gain of another one
+    private static List<String> cloudletMappersFor(String mapperCode) {
+        List<String> cloudletMappers = new ArrayList<>();
+        cloudletMappers.add(PolicyAndSchedulerShortCodes.CLOUDLET_MAPPERS.get("S"));
+        if (!mapperCode.equals("S")) {
+            cloudletMappers.add(PolicyAndSchedulerShortCodes.CLOUDLET_MAPPERS.get(mapperCode));
+        }
+        return cloudletMappers;
+    }
+
+    //null when the cache is off
+    private static ResultCache openResultCache(ConfigLoader configLoader, String cacheMode) {
+        if (cacheMode.equals("off")) {
+            return null;
+        }
+        ResultCache resultCache = ResultCache.fromConfig(configLoader);
+        if (cacheMode.equals("invalidate")) {
+            resultCache.invalidate();
+            System.out.println("Result cache cleared: " + resultCache.getDirectory());
+        }
+        return resultCache;
+    }
+
+    //value following a "--name" argument, null if absent
+    private static String getOption(String[] args, String name) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(name)) {
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException(name + " needs a value");
+                }
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    //adds one configuration, as the function creating its run of a given run id
+    //the combination gets its own copy of the configuration, and every run a further copy of that one,
+    //so runs never share mutable state
+    //with a result cache, runs are replayed when their key is stored (not when the oversubscription table is shown,
+    //which only a real simulation prints)
+    private static void addCombination(Map<String, IntFunction<RunTask>> combinations, ConfigLoader configLoader, ResultCache resultCache, int configType,
+            boolean displayOversubTable, String topologyScale, JsonObject workloadConfig, String vmAllocationPolicy, String vmScheduler, String cloudletScheduler,
+            String cloudletMapper, String label) {
+        // Update ConfigLoader
+        String section = configType == 1 ? "homogeneous" : "heterogeneous";
+        ConfigLoader combinationConfig = configLoader.copy();
+        JsonObject userConfig = new JsonObject();
+        userConfig.addProperty("vmAllocationPolicy", vmAllocationPolicy);
+        userConfig.addProperty("vmScheduler", vmScheduler);
+        userConfig.addProperty("cloudletScheduler", cloudletScheduler);
+        userConfig.addProperty("cloudletMapper", cloudletMapper);
+        userConfig.addProperty("topologyProfile", section + "-" + topologyScale);
+        for (String key : workloadConfig.keySet()) {
+            userConfig.add(key, workloadConfig.get(key));
+        }
+        combinationConfig.updateSection(section, userConfig);
+        combinationConfig.validateClasses(section, "vmAllocationPolicy", "vmScheduler", "cloudletScheduler", "cloudletMapper");
+
+        String mapperCode = PolicyAndSchedulerShortCodes.getShortCodeForCloudletMapper(cloudletMapper);
+        final String combinationName = (configType == 1 ? "Homogeneous" : "Heterogeneous") + " System" + label
+                + (mapperCode.equals("S") ? "" : " (" + mapperCode + " mapping)");
+        combinations.put(combinationName, runId -> {
+            final ConfigLoader runConfig = combinationConfig.copy();
+            final String runName = combinationName + " - Run " + runId;
+            RunTask run;
+            if (configType == 1) {
+                run = sink -> new HomogeneousSystemComparison(runId, runConfig, displayOversubTable, vmAllocationPolicy, vmScheduler, cloudletScheduler, sink);
+            } else {
+                run = sink -> new HeterogeneousSystemComparison(runId, runConfig, displayOversubTable, vmAllocationPolicy, vmScheduler, cloudletScheduler, sink);
+            }
+            if (resultCache != null && !displayOversubTable) {
+                run = resultCache.cached(resultCache.keyFor(runConfig, section, runId), run);
+            }
+            final RunTask task = run;
+            return sink -> {
+                System.out.println("Running " + runName);
+                task.run(sink);
+            };
+        });
+    }
+
     private static boolean setLogLevel(String level) {
         try {
             switch (level) {
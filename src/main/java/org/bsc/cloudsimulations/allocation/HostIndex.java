@@ -0,0 +1,197 @@
+package org.bsc.cloudsimulations.allocation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.schedulers.vm.VmScheduler;
+import org.cloudsimplus.schedulers.vm.VmSchedulerSpaceShared;
+import org.cloudsimplus.schedulers.vm.VmSchedulerTimeShared;
+import org.cloudsimplus.vms.Vm;
+
+/*
+ * Segment tree over the positions of the host list, used by the indexed allocation policies
+ * Every node keeps, over the hosts below it:
+ * - the largest free RAM, BW and storage, PE count and available MIPS (a subtree is skipped when one of them is too small for the VM)
+ * - the smallest best-fit key: active hosts first, then fewest free PEs (the order of VmAllocationPolicyBestFit)
+ * The pruned figures are necessary conditions only, every host found is still confirmed with host.isSuitableForVm(),
+ * so the placement is the one the scanning policies would choose; the search just doesn't visit the hosts that can't take the VM
+ * PE count is the free PEs for space-shared hosts and the working PEs for time-shared ones (which share PEs but not MIPS),
+ * other schedulers are never pruned on PEs/MIPS
+ * Leaves are refreshed by the policy whenever a VM is placed on or removed from a host, in O(log hosts)
+ * */
+class HostIndex {
+    //inactive hosts sort after every active one
+    private static final long INACTIVE = 1L << 40;
+
+    private final List<Host> hosts;
+    private final Map<Host, Integer> positions;
+    private final int size;
+    private final long[] maxPes;
+    private final double[] maxMips;
+    private final long[] maxRam;
+    private final long[] maxBw;
+    private final long[] maxStorage;
+    private final long[] minKey;
+
+    //requirements of the VM being placed, set by the searches
+    private long pes;
+    private double mips;
+    private long ram;
+    private long bw;
+    private long storage;
+
+    //best host of the running best-fit search
+    private int best;
+    private long bestKey;
+
+    HostIndex(List<Host> hosts) {
+        this.hosts = hosts;
+        this.positions = new HashMap<>(hosts.size() * 2);
+        int capacity = 1;
+        while (capacity < hosts.size()) {
+            capacity <<= 1;
+        }
+        this.size = capacity;
+        this.maxPes = new long[2 * size];
+        this.maxMips = new double[2 * size];
+        this.maxRam = new long[2 * size];
+        this.maxBw = new long[2 * size];
+        this.maxStorage = new long[2 * size];
+        this.minKey = new long[2 * size];
+        for (int i = 0; i < size; i++) {
+            if (i < hosts.size()) {
+                positions.put(hosts.get(i), i);
+                setLeaf(i, hosts.get(i));
+            } else {
+                clearLeaf(i);
+            }
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            pull(node);
+        }
+    }
+
+    int size() {
+        return hosts.size();
+    }
+
+    //re-reads the free resources of a host after a VM was placed on or removed from it
+    void refresh(Host host) {
+        Integer position = positions.get(host);
+        if (position == null) {
+            return;
+        }
+        setLeaf(position, host);
+        for (int node = (position + size) >> 1; node >= 1; node >>= 1) {
+            pull(node);
+        }
+    }
+
+    private void setLeaf(int position, Host host) {
+        int leaf = position + size;
+        VmScheduler scheduler = host.getVmScheduler();
+        if (scheduler instanceof VmSchedulerSpaceShared) {
+            maxPes[leaf] = host.getFreePesNumber();
+            maxMips[leaf] = Double.POSITIVE_INFINITY;
+        } else if (scheduler instanceof VmSchedulerTimeShared) {
+            maxPes[leaf] = host.getWorkingPesNumber();
+            maxMips[leaf] = scheduler.getTotalAvailableMips();
+        } else {
+            maxPes[leaf] = Long.MAX_VALUE;
+            maxMips[leaf] = Double.POSITIVE_INFINITY;
+        }
+        maxRam[leaf] = host.getRam().getAvailableResource();
+        maxBw[leaf] = host.getBw().getAvailableResource();
+        maxStorage[leaf] = host.getStorage().getAvailableResource();
+        minKey[leaf] = keyOf(host);
+    }
+
+    private void clearLeaf(int position) {
+        int leaf = position + size;
+        maxPes[leaf] = -1;
+        maxMips[leaf] = -1;
+        maxRam[leaf] = -1;
+        maxBw[leaf] = -1;
+        maxStorage[leaf] = -1;
+        minKey[leaf] = Long.MAX_VALUE;
+    }
+
+    private void pull(int node) {
+        int left = 2 * node;
+        int right = left + 1;
+        maxPes[node] = Math.max(maxPes[left], maxPes[right]);
+        maxMips[node] = Math.max(maxMips[left], maxMips[right]);
+        maxRam[node] = Math.max(maxRam[left], maxRam[right]);
+        maxBw[node] = Math.max(maxBw[left], maxBw[right]);
+        maxStorage[node] = Math.max(maxStorage[left], maxStorage[right]);
+        minKey[node] = Math.min(minKey[left], minKey[right]);
+    }
+
+    private static long keyOf(Host host) {
+        return (host.isActive() ? 0 : INACTIVE) + host.getFreePesNumber();
+    }
+
+    private void require(Vm vm) {
+        pes = vm.getCurrentRequestedMips().pes();
+        mips = vm.getCurrentRequestedMips().totalMips();
+        ram = vm.getRam().getCapacity();
+        bw = vm.getBw().getCapacity();
+        storage = vm.getStorage().getCapacity();
+    }
+
+    //false if no host below the node can take the VM
+    private boolean mayFit(int node) {
+        return maxPes[node] >= pes && maxMips[node] >= mips && maxRam[node] >= ram
+                && maxBw[node] >= bw && maxStorage[node] >= storage;
+    }
+
+    //first suitable host in positions [from, to), -1 if none
+    int firstFit(Vm vm, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        require(vm);
+        return firstFit(vm, 1, 0, size, from, to);
+    }
+
+    private int firstFit(Vm vm, int node, int lo, int hi, int from, int to) {
+        if (hi <= from || lo >= to || !mayFit(node)) {
+            return -1;
+        }
+        if (hi - lo == 1) {
+            return hosts.get(lo).isSuitableForVm(vm) ? lo : -1;
+        }
+        int mid = (lo + hi) >>> 1;
+        int found = firstFit(vm, 2 * node, lo, mid, from, to);
+        return found >= 0 ? found : firstFit(vm, 2 * node + 1, mid, hi, from, to);
+    }
+
+    //suitable host with the smallest best-fit key, the first one in list order among equal keys, -1 if none
+    int bestFit(Vm vm) {
+        require(vm);
+        best = -1;
+        bestKey = Long.MAX_VALUE;
+        bestFit(vm, 1, 0, size);
+        return best;
+    }
+
+    //branch and bound, left to right: a subtree is skipped when it can't fit the VM or can't beat the best host so far
+    //(equal keys further right lose the tie, as they come later in the list)
+    private void bestFit(Vm vm, int node, int lo, int hi) {
+        if (!mayFit(node) || minKey[node] > bestKey || (minKey[node] == bestKey && best >= 0)) {
+            return;
+        }
+        if (hi - lo == 1) {
+            if (hosts.get(lo).isSuitableForVm(vm)) {
+                best = lo;
+                bestKey = minKey[node];
+            }
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        bestFit(vm, 2 * node, lo, mid);
+        bestFit(vm, 2 * node + 1, mid, hi);
+    }
+}
@@ -0,0 +1,39 @@
+package org.bsc.cloudsimulations.allocation;
+
+import java.util.List;
+
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyAbstract;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSuitability;
+import org.cloudsimplus.vms.Vm;
+
+/*
+ * Base of the allocation policies that find hosts through a HostIndex instead of scanning the host list
+ * The index is built on the first placement (and rebuilt if the host list changes size),
+ * then the host of every VM placed or removed through the policy is refreshed in it
+ * */
+public abstract class IndexedVmAllocationPolicy extends VmAllocationPolicyAbstract {
+    private HostIndex index;
+
+    HostIndex getIndex() {
+        List<Host> hosts = getHostList();
+        if (index == null || index.size() != hosts.size()) {
+            index = new HostIndex(hosts);
+        }
+        return index;
+    }
+
+    @Override
+    public HostSuitability allocateHostForVm(Vm vm, Host host) {
+        HostSuitability suitability = super.allocateHostForVm(vm, host);
+        getIndex().refresh(host);
+        return suitability;
+    }
+
+    @Override
+    public void deallocateHostForVm(Vm vm) {
+        Host host = vm.getHost();
+        super.deallocateHostForVm(vm);
+        getIndex().refresh(host);
+    }
+}
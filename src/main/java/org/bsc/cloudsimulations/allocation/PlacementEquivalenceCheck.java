@@ -0,0 +1,126 @@
+package org.bsc.cloudsimulations.allocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicy;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyBestFit;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyFirstFit;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.DatacenterSimple;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSimple;
+import org.cloudsimplus.resources.Pe;
+import org.cloudsimplus.resources.PeSimple;
+import org.cloudsimplus.schedulers.vm.VmScheduler;
+import org.cloudsimplus.schedulers.vm.VmSchedulerSpaceShared;
+import org.cloudsimplus.schedulers.vm.VmSchedulerTimeShared;
+import org.cloudsimplus.util.Log;
+import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
+
+/*
+ * Checks that the indexed policies place VMs exactly like the scanning ones they replace (IFF vs FF, IBF vs BF)
+ * Every seed generates a random datacenter and a stream of VMs with random specs, submission delays and lifetimes
+ * (idle time until the broker destroys them), so hosts fill up, VMs that don't fit fail and expired VMs free their hosts
+ * again while others are still arriving
+ * The same workload is simulated under both policies of a pair with time-shared and space-shared hosts,
+ * and the sequence of placements (VM -> host, in the order they happened) and failures must be identical
+ * Usage: PlacementEquivalenceCheck [seeds (default 50)] [first seed (default 1)]; exits with 1 on the first difference
+ * */
+public class PlacementEquivalenceCheck {
+    private static final int[] HOST_PES = {4, 8, 16, 32};
+    private static final double[] HOST_MIPS = {1000, 2000, 3000};
+    private static final long[] HOST_RAM = {8192, 16384, 32768, 65536};
+    private static final int[] VM_PES = {1, 1, 2, 2, 4, 8};
+    private static final double[] VM_MIPS = {500, 1000, 2000};
+    private static final long[] VM_RAM = {512, 1024, 2048, 4096, 8192};
+    //failed VMs are retried by the broker until the end, so the simulation is cut off once every VM has had its chance
+    private static final double HORIZON = 2000;
+
+    public static void main(String[] args) {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        long firstSeed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        Log.setLevel(ch.qos.logback.classic.Level.OFF);
+
+        int placements = 0;
+        for (long seed = firstSeed; seed < firstSeed + seeds; seed++) {
+            for (boolean spaceShared : new boolean[] {false, true}) {
+                placements += compare("FF", VmAllocationPolicyFirstFit::new, "IFF", VmAllocationPolicyIndexedFirstFit::new, seed, spaceShared);
+                placements += compare("BF", VmAllocationPolicyBestFit::new, "IBF", VmAllocationPolicyIndexedBestFit::new, seed, spaceShared);
+            }
+        }
+        System.out.println("Indexed policies matched the scanning ones on " + seeds + " seeds (" + placements + " placements compared)");
+    }
+
+    private static int compare(String scanningName, Supplier<VmAllocationPolicy> scanning, String indexedName,
+            Supplier<VmAllocationPolicy> indexed, long seed, boolean spaceShared) {
+        List<String> expected = simulate(scanning.get(), seed, spaceShared);
+        List<String> actual = simulate(indexed.get(), seed, spaceShared);
+        for (int i = 0; i < Math.max(expected.size(), actual.size()); i++) {
+            String scanningEvent = i < expected.size() ? expected.get(i) : "nothing";
+            String indexedEvent = i < actual.size() ? actual.get(i) : "nothing";
+            if (!scanningEvent.equals(indexedEvent)) {
+                System.err.println(indexedName + " differs from " + scanningName + " (seed " + seed + ", "
+                        + (spaceShared ? "space" : "time") + "-shared hosts) at placement " + i + ": "
+                        + scanningName + " " + scanningEvent + ", " + indexedName + " " + indexedEvent);
+                System.exit(1);
+            }
+        }
+        return expected.size();
+    }
+
+    //placements ("vm -> host") and failures ("vm failed") in the order they happened
+    private static List<String> simulate(VmAllocationPolicy policy, long seed, boolean spaceShared) {
+        Random random = new Random(seed);
+        CloudSimPlus simulation = new CloudSimPlus();
+        int hostCount = 16 + random.nextInt(112);
+        List<Host> hosts = new ArrayList<>(hostCount);
+        for (int i = 0; i < hostCount; i++) {
+            List<Pe> pes = new ArrayList<>();
+            double mips = pick(random, HOST_MIPS);
+            for (int pe = pick(random, HOST_PES); pe > 0; pe--) {
+                pes.add(new PeSimple(mips));
+            }
+            VmScheduler scheduler = spaceShared ? new VmSchedulerSpaceShared() : new VmSchedulerTimeShared();
+            hosts.add(new HostSimple(pick(random, HOST_RAM), 100_000, 1_000_000, pes).setVmScheduler(scheduler));
+        }
+        new DatacenterSimple(simulation, hosts, policy);
+        DatacenterBrokerSimple broker = new DatacenterBrokerSimple(simulation);
+
+        List<String> events = new ArrayList<>();
+        int vmCount = hostCount * (2 + random.nextInt(4));
+        List<Vm> vms = new ArrayList<>(vmCount);
+        double[] lifetimes = new double[vmCount];
+        for (int i = 0; i < vmCount; i++) {
+            Vm vm = new VmSimple(i, pick(random, VM_MIPS), pick(random, VM_PES))
+                    .setRam(pick(random, VM_RAM)).setBw(1000).setSize(10_000);
+            vm.setSubmissionDelay(random.nextInt(200));
+            lifetimes[i] = 20 + random.nextInt(200);
+            vm.addOnHostAllocationListener(info -> events.add(info.getVm().getId() + " -> " + info.getHost().getId()));
+            vm.addOnCreationFailureListener(info -> events.add(info.getVm().getId() + " failed"));
+            vms.add(vm);
+        }
+        //the VMs run no cloudlets, the broker destroys each one once it has been idle for its lifetime
+        broker.setVmDestructionDelayFunction(vm -> lifetimes[(int) vm.getId()]);
+        broker.submitVmList(vms);
+        simulation.terminateAt(HORIZON);
+        simulation.start();
+        return events;
+    }
+
+    private static int pick(Random random, int[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static double pick(Random random, double[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static long pick(Random random, long[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
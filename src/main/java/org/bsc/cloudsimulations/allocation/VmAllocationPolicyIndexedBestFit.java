@@ -0,0 +1,18 @@
+package org.bsc.cloudsimulations.allocation;
+
+import java.util.Optional;
+
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.vms.Vm;
+
+/*
+ * Same placements as VmAllocationPolicyBestFit (active hosts first, then the fewest free PEs, ties to the first in the host list)
+ * in O(log hosts) per VM instead of a scan over all hosts
+ * */
+public class VmAllocationPolicyIndexedBestFit extends IndexedVmAllocationPolicy {
+    @Override
+    protected Optional<Host> defaultFindHostForVm(Vm vm) {
+        int position = getIndex().bestFit(vm);
+        return position >= 0 ? Optional.of(getHostList().get(position)) : Optional.empty();
+    }
+}
@@ -0,0 +1,30 @@
+package org.bsc.cloudsimulations.allocation;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.vms.Vm;
+
+/*
+ * Same placements as VmAllocationPolicyFirstFit: the search starts at the host of the last placement and wraps around the list,
+ * the first suitable host wins; found in O(log hosts) per VM instead of trying the hosts one by one
+ * */
+public class VmAllocationPolicyIndexedFirstFit extends IndexedVmAllocationPolicy {
+    private int lastHostIndex;
+
+    @Override
+    protected Optional<Host> defaultFindHostForVm(Vm vm) {
+        HostIndex index = getIndex();
+        List<Host> hosts = getHostList();
+        int position = index.firstFit(vm, lastHostIndex, hosts.size());
+        if (position < 0) {
+            position = index.firstFit(vm, 0, lastHostIndex);
+        }
+        if (position < 0) {
+            return Optional.empty();
+        }
+        lastHostIndex = position;
+        return Optional.of(hosts.get(position));
+    }
+}
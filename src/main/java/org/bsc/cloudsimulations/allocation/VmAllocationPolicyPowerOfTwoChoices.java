@@ -0,0 +1,15 @@
+package org.bsc.cloudsimulations.allocation;
+
+/*
+ * Power of two choices: VmAllocationPolicySampled with two hosts per placement, whatever the configured sample size
+ * */
+public class VmAllocationPolicyPowerOfTwoChoices extends VmAllocationPolicySampled {
+    public VmAllocationPolicyPowerOfTwoChoices() {
+        super.setSampleSize(2);
+    }
+
+    @Override
+    public void setSampleSize(int sampleSize) {
+        //always two
+    }
+}
@@ -0,0 +1,110 @@
+package org.bsc.cloudsimulations.allocation;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyAbstract;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.vms.Vm;
+
+/*
+ * Randomized load balancing: samples d distinct hosts and places the VM on the least loaded suitable one,
+ * so a placement costs O(d) host checks whatever the size of the datacenter
+ * Load is the share of the host's MIPS already given to VMs (comparable across host classes), ties go to the first sampled host
+ * If none of the sampled hosts can take the VM, a few more samples are drawn, then the least loaded suitable host
+ * of the whole list is used, so a VM is only rejected when no host at all can take it
+ * The sample size ("allocationSampleSize" of the section) and the random stream are set by the system before the first placement
+ * */
+public class VmAllocationPolicySampled extends VmAllocationPolicyAbstract {
+    //extra samples of d hosts drawn before falling back to a scan of every host
+    private static final int RETRIES = 3;
+
+    private int sampleSize = 2;
+    private Random random = new Random(0);
+    private int[] sampled = new int[0];
+
+    public void setSampleSize(int sampleSize) {
+        if (sampleSize < 1) {
+            throw new IllegalArgumentException("Sample size must be positive: " + sampleSize);
+        }
+        this.sampleSize = sampleSize;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    @Override
+    protected Optional<Host> defaultFindHostForVm(Vm vm) {
+        List<Host> hosts = getHostList();
+        if (hosts.size() <= sampleSize) {
+            return leastLoaded(vm, hosts);
+        }
+        for (int attempt = 0; attempt <= RETRIES; attempt++) {
+            Host best = null;
+            double bestLoad = Double.POSITIVE_INFINITY;
+            for (int position : sample(hosts.size())) {
+                Host host = hosts.get(position);
+                if (host.isSuitableForVm(vm)) {
+                    double load = loadOf(host);
+                    if (load < bestLoad) {
+                        best = host;
+                        bestLoad = load;
+                    }
+                }
+            }
+            if (best != null) {
+                return Optional.of(best);
+            }
+        }
+        return leastLoaded(vm, hosts);
+    }
+
+    //d distinct positions out of n (n > d), drawn by rejection since d is much smaller than n
+    private int[] sample(int n) {
+        if (sampled.length != sampleSize) {
+            sampled = new int[sampleSize];
+        }
+        for (int i = 0; i < sampleSize; i++) {
+            int candidate;
+            boolean repeated;
+            do {
+                candidate = random.nextInt(n);
+                repeated = false;
+                for (int j = 0; j < i; j++) {
+                    if (sampled[j] == candidate) {
+                        repeated = true;
+                        break;
+                    }
+                }
+            } while (repeated);
+            sampled[i] = candidate;
+        }
+        return sampled;
+    }
+
+    private static Optional<Host> leastLoaded(Vm vm, List<Host> hosts) {
+        Host best = null;
+        double bestLoad = Double.POSITIVE_INFINITY;
+        for (Host host : hosts) {
+            if (host.isSuitableForVm(vm)) {
+                double load = loadOf(host);
+                if (load < bestLoad) {
+                    best = host;
+                    bestLoad = load;
+                }
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static double loadOf(Host host) {
+        double capacity = host.getTotalMipsCapacity();
+        return capacity > 0 ? 1 - host.getVmScheduler().getTotalAvailableMips() / capacity : 1;
+    }
+}
@@ -0,0 +1,67 @@
+package org.bsc.cloudsimulations.brokers;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+/*
+ * Min-min / max-min batch mapping of the cloudlets submitted at start, on the completion time estimates of EarliestCompletionTimeMapper
+ * Each step takes every unmapped cloudlet's earliest completion time and maps the cloudlet with the smallest (min-min)
+ * or the largest (max-min) of them, then repeats with the updated ready times
+ * Cloudlets of the same length and PEs have the same completion times, so the steps compare one candidate per cloudlet shape
+ * (in submission order within a shape): O(cloudlets x shapes x VM classes) instead of O(cloudlets^2 x VMs)
+ * Cloudlets submitted later (workload feeders) are mapped one by one like EarliestCompletionTimeMapper does
+ * */
+public abstract class BatchCompletionTimeMapper extends EarliestCompletionTimeMapper {
+    private final boolean largestFirst;
+
+    protected BatchCompletionTimeMapper(boolean largestFirst) {
+        this.largestFirst = largestFirst;
+    }
+
+    @Override
+    protected void planBatch(List<Cloudlet> cloudlets, double now) {
+        Map<List<Long>, ArrayDeque<Cloudlet>> byShape = new LinkedHashMap<>();
+        for (Cloudlet cloudlet : cloudlets) {
+            byShape.computeIfAbsent(List.of(cloudlet.getLength(), cloudlet.getPesNumber()), shape -> new ArrayDeque<>()).add(cloudlet);
+        }
+        int shapes = byShape.size();
+        long[] lengths = new long[shapes];
+        long[] pes = new long[shapes];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ArrayDeque<Cloudlet>[] queues = new ArrayDeque[shapes];
+        int s = 0;
+        for (Map.Entry<List<Long>, ArrayDeque<Cloudlet>> entry : byShape.entrySet()) {
+            lengths[s] = entry.getKey().get(0);
+            pes[s] = entry.getKey().get(1);
+            queues[s++] = entry.getValue();
+        }
+
+        //shapes [0, active) still have cloudlets to map
+        int active = shapes;
+        while (active > 0) {
+            int chosen = -1;
+            int chosenClass = 0;
+            double chosenFinish = 0;
+            for (s = 0; s < active; s++) {
+                int vmClass = bestClass(lengths[s], pes[s], now);
+                double finish = getBestFinish();
+                if (chosen < 0 || (largestFirst ? finish > chosenFinish : finish < chosenFinish)) {
+                    chosen = s;
+                    chosenClass = vmClass;
+                    chosenFinish = finish;
+                }
+            }
+            plan(queues[chosen].poll(), assign(chosenClass, lengths[chosen], pes[chosen], now));
+            if (queues[chosen].isEmpty()) {
+                active--;
+                lengths[chosen] = lengths[active];
+                pes[chosen] = pes[active];
+                queues[chosen] = queues[active];
+            }
+        }
+    }
+}
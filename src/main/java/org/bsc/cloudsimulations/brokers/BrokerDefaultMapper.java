@@ -0,0 +1,16 @@
+package org.bsc.cloudsimulations.brokers;
+
+import java.util.List;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+/*
+ * Keeps the broker's own mapping (DatacenterBrokerSimple: next created VM in turn, whatever its MIPS or queued work)
+ * */
+public class BrokerDefaultMapper extends CloudletToVmMapper {
+    @Override
+    public void install(DatacenterBroker broker, List<Cloudlet> initialCloudlets) {
+        //nothing to change
+    }
+}
@@ -0,0 +1,15 @@
+package org.bsc.cloudsimulations.brokers;
+
+import java.util.List;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+/*
+ * Cloudlet to VM mapping of a run ("cloudletMapper" of the section, short codes in PolicyAndSchedulerShortCodes.CLOUDLET_MAPPERS)
+ * Created through the configured class's no-arg constructor like the policies and schedulers, then installed on the broker
+ * before the simulation starts; initialCloudlets are the cloudlets submitted at start (empty when a workload feeder submits them)
+ * */
+public abstract class CloudletToVmMapper {
+    public abstract void install(DatacenterBroker broker, List<Cloudlet> initialCloudlets);
+}
@@ -0,0 +1,135 @@
+package org.bsc.cloudsimulations.brokers;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+
+/*
+ * Load-aware mapping: every cloudlet goes to the created VM with the smallest estimated completion time
+ * - a cloudlet's service time on a VM is its length x PEs over MIPS x the PEs it can use there (min of both PE counts)
+ * - it finishes at max(VM ready time, now) + that service time, which then becomes the VM's ready time
+ * VMs of the same MIPS and PEs run a cloudlet equally fast, so only the one of each class that is ready first can win:
+ * VMs are kept in one VmReadyTimeHeap per class and a cloudlet costs O(classes + log VMs) instead of a scan over every VM
+ * Estimates are never corrected by the actual finish times, they only steer the mapping
+ * The VM list is taken from the broker when the first cloudlet is mapped, i.e. once the VM creation requests were answered
+ * */
+public class EarliestCompletionTimeMapper extends CloudletToVmMapper {
+    private DatacenterBroker broker;
+    private List<Cloudlet> initialCloudlets;
+    //created VMs, positions index readyTimes and the heaps
+    private List<Vm> vms;
+    private double[] readyTimes;
+    private double[] classMips;
+    private long[] classPes;
+    private VmReadyTimeHeap[] heaps;
+    //VMs chosen ahead by planBatch, taken out as the broker asks for them
+    private final Map<Cloudlet, Vm> planned = new IdentityHashMap<>();
+    //completion time of the class returned by the last bestClass call
+    private double bestFinish;
+
+    @Override
+    public void install(DatacenterBroker broker, List<Cloudlet> initialCloudlets) {
+        this.broker = broker;
+        this.initialCloudlets = initialCloudlets;
+        broker.setVmMapper(this::map);
+    }
+
+    private Vm map(Cloudlet cloudlet) {
+        if (cloudlet.isBoundToVm()) {
+            return cloudlet.getVm();
+        }
+        double now = broker.getSimulation().clock();
+        if (heaps == null) {
+            if (!buildClasses()) {
+                return Vm.NULL; //the broker postpones the cloudlet until a VM is created
+            }
+            planBatch(initialCloudlets, now);
+            initialCloudlets = null;
+        }
+        Vm vm = planned.remove(cloudlet);
+        if (vm != null) {
+            return vm;
+        }
+        int vmClass = bestClass(cloudlet.getLength(), cloudlet.getPesNumber(), now);
+        return assign(vmClass, cloudlet.getLength(), cloudlet.getPesNumber(), now);
+    }
+
+    //called once, before the first cloudlet is mapped; cloudlets left unplanned are mapped one by one in submission order
+    protected void planBatch(List<Cloudlet> cloudlets, double now) {
+        //greedy in submission order, nothing to plan ahead
+    }
+
+    protected void plan(Cloudlet cloudlet, Vm vm) {
+        planned.put(cloudlet, vm);
+    }
+
+    //class whose first ready VM would finish the cloudlet first (its completion time is left in bestFinish)
+    protected int bestClass(long length, long pes, double now) {
+        int best = 0;
+        bestFinish = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < heaps.length; c++) {
+            double finish = Math.max(heaps[c].topReadyTime(), now) + serviceTime(length, pes, c);
+            if (finish < bestFinish) {
+                best = c;
+                bestFinish = finish;
+            }
+        }
+        return best;
+    }
+
+    protected double getBestFinish() {
+        return bestFinish;
+    }
+
+    //maps the cloudlet to the first ready VM of the class and queues its work there
+    protected Vm assign(int vmClass, long length, long pes, double now) {
+        VmReadyTimeHeap heap = heaps[vmClass];
+        int position = heap.top();
+        heap.advanceTop(Math.max(heap.topReadyTime(), now) + serviceTime(length, pes, vmClass));
+        return vms.get(position);
+    }
+
+    //the same estimate for choosing a VM and for queueing the cloudlet on it
+    private double serviceTime(long length, long pes, int vmClass) {
+        return length * (double) pes / (classMips[vmClass] * Math.min(pes, classPes[vmClass]));
+    }
+
+    private boolean buildClasses() {
+        vms = new ArrayList<>(broker.getVmExecList());
+        if (vms.isEmpty()) {
+            return false;
+        }
+        readyTimes = new double[vms.size()];
+        List<double[]> specs = new ArrayList<>();
+        int[] classOf = new int[vms.size()];
+        for (int i = 0; i < vms.size(); i++) {
+            Vm vm = vms.get(i);
+            int c = 0;
+            while (c < specs.size() && (specs.get(c)[0] != vm.getMips() || specs.get(c)[1] != vm.getPesNumber())) {
+                c++;
+            }
+            if (c == specs.size()) {
+                specs.add(new double[]{vm.getMips(), vm.getPesNumber(), 0});
+            }
+            specs.get(c)[2]++;
+            classOf[i] = c;
+        }
+        classMips = new double[specs.size()];
+        classPes = new long[specs.size()];
+        heaps = new VmReadyTimeHeap[specs.size()];
+        for (int c = 0; c < specs.size(); c++) {
+            classMips[c] = specs.get(c)[0];
+            classPes[c] = (long) specs.get(c)[1];
+            heaps[c] = new VmReadyTimeHeap((int) specs.get(c)[2], readyTimes);
+        }
+        for (int i = 0; i < vms.size(); i++) {
+            heaps[classOf[i]].add(i);
+        }
+        return true;
+    }
+}
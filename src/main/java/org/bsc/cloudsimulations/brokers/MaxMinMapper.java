@@ -0,0 +1,10 @@
+package org.bsc.cloudsimulations.brokers;
+
+/*
+ * Max-min: the cloudlet whose earliest completion is latest is mapped first (long cloudlets get the fast VMs)
+ * */
+public class MaxMinMapper extends BatchCompletionTimeMapper {
+    public MaxMinMapper() {
+        super(true);
+    }
+}
@@ -0,0 +1,10 @@
+package org.bsc.cloudsimulations.brokers;
+
+/*
+ * Min-min: the cloudlet that can finish first is mapped first (short cloudlets get the fast VMs)
+ * */
+public class MinMinMapper extends BatchCompletionTimeMapper {
+    public MinMinMapper() {
+        super(false);
+    }
+}
@@ -0,0 +1,58 @@
+package org.bsc.cloudsimulations.brokers;
+
+/*
+ * Binary min-heap of the VMs of one capacity class (same MIPS and PEs), keyed by their estimated ready time
+ * Positions index the VM list of the mapper, ready times live in an array shared by every class
+ * Ready times only grow and only the top is ever advanced, so one sift-down per mapped cloudlet keeps the heap, in O(log VMs)
+ * */
+class VmReadyTimeHeap {
+    private final int[] heap;
+    private final double[] readyTimes;
+    private int size;
+
+    VmReadyTimeHeap(int capacity, double[] readyTimes) {
+        this.heap = new int[capacity];
+        this.readyTimes = readyTimes;
+    }
+
+    //all ready times are equal when VMs are added, so appending keeps the heap order
+    void add(int position) {
+        heap[size++] = position;
+    }
+
+    //VM that becomes free first
+    int top() {
+        return heap[0];
+    }
+
+    double topReadyTime() {
+        return readyTimes[heap[0]];
+    }
+
+    //sets the ready time of the top VM (never lower than before) and restores the heap
+    void advanceTop(double readyTime) {
+        int position = heap[0];
+        readyTimes[position] = readyTime;
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], position)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = position;
+    }
+
+    //ties go to the VM first in the list, so the mapping doesn't depend on the heap layout
+    private boolean less(int a, int b) {
+        return readyTimes[a] < readyTimes[b] || (readyTimes[a] == readyTimes[b] && a < b);
+    }
+}
@@ -0,0 +1,106 @@
+package org.bsc.cloudsimulations.comparison;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.bsc.cloudsimulations.results.CloudletHistogramRecord;
+import org.bsc.cloudsimulations.results.CloudletRecordBatch;
+import org.bsc.cloudsimulations.results.MetricsRecord;
+import org.bsc.cloudsimulations.results.ResultSink;
+import org.bsc.cloudsimulations.results.UtilizationSeriesRecord;
+import org.cloudsimplus.util.Log;
+
+import com.google.gson.JsonObject;
+
+/*
+ * Checks what "schedulingInterval" changes for the synthetic cloudlets submitted at start
+ * Runs the shipped homogeneous and heterogeneous sections as they are (DatacenterSimple) and with "schedulingInterval": 1
+ * (DrainingDatacenter), with the same run ids, so both see the same cloudlets
+ * Without draining, cloudlets stalled waiting for bandwidth are lost when the simulation runs out of events;
+ * with it, every run must finish all of its cloudlets, and the finished counts of both are printed
+ * Usage: DrainingCheck [runs per system (default 20)]; exits with 1 when a draining run leaves cloudlets unfinished
+ * */
+public class DrainingCheck {
+    private static final String CONFIG = "org/bsc/cloudsimulations/configurations/config.json";
+    private static final String[] SECTIONS = {"homogeneous", "heterogeneous"};
+
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        Log.setLevel(ch.qos.logback.classic.Level.OFF);
+        ConfigLoader configLoader = new ConfigLoader(CONFIG);
+
+        boolean drained = true;
+        for (String section : SECTIONS) {
+            ConfigLoader drainingConfig = configLoader.copy();
+            JsonObject interval = new JsonObject();
+            interval.addProperty("schedulingInterval", 1);
+            drainingConfig.updateSection(section, interval);
+
+            long submitted = 0;
+            long finished = 0;
+            long finishedDraining = 0;
+            for (int runId = 1; runId <= runs; runId++) {
+                MetricsCapture plain = new MetricsCapture();
+                SystemComparisonBase plainRun = run(section, runId, configLoader.copy(), plain);
+                MetricsCapture draining = new MetricsCapture();
+                SystemComparisonBase drainingRun = run(section, runId, drainingConfig.copy(), draining);
+                if (plainRun.datacenter instanceof DrainingDatacenter || !(drainingRun.datacenter instanceof DrainingDatacenter)) {
+                    throw new IllegalStateException("schedulingInterval did not select the datacenter of " + section + " runs");
+                }
+
+                int cloudlets = drainingRun.cloudletList.size();
+                int runFinishedDraining = draining.completedTasks();
+                if (runFinishedDraining != cloudlets) {
+                    System.err.println(section + " run " + runId + " finished " + runFinishedDraining + " of " + cloudlets
+                            + " cloudlets with schedulingInterval set");
+                    drained = false;
+                }
+                submitted += cloudlets;
+                finished += plain.completedTasks();
+                finishedDraining += runFinishedDraining;
+            }
+            System.out.println(section + ": " + finished + " of " + submitted + " cloudlets finished without draining, "
+                    + finishedDraining + " with schedulingInterval set (" + runs + " runs)");
+        }
+        if (!drained) {
+            System.exit(1);
+        }
+    }
+
+    private static SystemComparisonBase run(String section, int runId, ConfigLoader runConfig, ResultSink sink) {
+        JsonObject settings = runConfig.getSettings(section);
+        String vmAllocationPolicy = settings.get("vmAllocationPolicy").getAsString();
+        String vmScheduler = settings.get("vmScheduler").getAsString();
+        String cloudletScheduler = settings.get("cloudletScheduler").getAsString();
+        return section.equals("homogeneous")
+                ? new HomogeneousSystemComparison(runId, runConfig, false, vmAllocationPolicy, vmScheduler, cloudletScheduler, sink)
+                : new HeterogeneousSystemComparison(runId, runConfig, false, vmAllocationPolicy, vmScheduler, cloudletScheduler, sink);
+    }
+
+    //keeps the metrics rows of a run, drops everything else
+    private static class MetricsCapture implements ResultSink {
+        private final List<MetricsRecord> metrics = new ArrayList<>();
+
+        @Override
+        public void writeCloudlets(CloudletRecordBatch batch) {
+        }
+
+        @Override
+        public void writeMetrics(MetricsRecord record) {
+            metrics.add(record);
+        }
+
+        @Override
+        public void writeHistograms(CloudletHistogramRecord record) {
+        }
+
+        @Override
+        public void writeUtilization(UtilizationSeriesRecord record) {
+        }
+
+        int completedTasks() {
+            return metrics.stream().mapToInt(MetricsRecord::getTotalCompletedTasks).sum();
+        }
+    }
+}
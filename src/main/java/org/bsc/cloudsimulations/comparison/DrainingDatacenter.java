@@ -0,0 +1,68 @@
+package org.bsc.cloudsimulations.comparison;
+
+import java.util.List;
+
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicy;
+import org.cloudsimplus.cloudlets.CloudletExecution;
+import org.cloudsimplus.core.CloudSimTag;
+import org.cloudsimplus.core.Simulation;
+import org.cloudsimplus.datacenters.DatacenterSimple;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.vms.Vm;
+
+/*
+ * Datacenter that keeps processing cloudlets until every cloudlet placed on its VMs has finished
+ * A cloudlet asking for bandwidth while its VM has none left gets an infinite oversubscription delay from the cloudlet
+ * scheduler (requested / available - 1) and is never processed again; once the other cloudlets finish, nothing schedules
+ * another update, the simulation runs out of events and the broker destroys the VMs with those cloudlets still on them
+ * Before every update, such cloudlets have the time since they were last processed counted as their delay instead,
+ * so they ask for their resources again; whenever an update schedules nothing while cloudlets are left,
+ * one more update is scheduled a scheduling interval later
+ * Used for runs whose cloudlets are submitted during the simulation, so none of them go missing from the results,
+ * and for synthetic runs of a section that sets "schedulingInterval" (see DrainingCheck for what that changes)
+ * */
+public class DrainingDatacenter extends DatacenterSimple {
+    //time of the pending wake-up, so updates before it don't schedule more
+    private double wakeUpTime = -1;
+
+    public DrainingDatacenter(Simulation simulation, List<? extends Host> hostList, VmAllocationPolicy vmAllocationPolicy,
+            double schedulingInterval) {
+        super(simulation, hostList, vmAllocationPolicy);
+        setSchedulingInterval(schedulingInterval);
+    }
+
+    @Override
+    protected double updateCloudletProcessing() {
+        double now = getSimulation().clock();
+        retryStarvedCloudlets(now);
+        double nextUpdate = super.updateCloudletProcessing();
+        if (nextUpdate == Double.MAX_VALUE && wakeUpTime <= now && hasUnfinishedCloudlets()) {
+            wakeUpTime = now + getSchedulingInterval();
+            schedule(getSchedulingInterval(), CloudSimTag.VM_UPDATE_CLOUDLET_PROCESSING);
+        }
+        return nextUpdate;
+    }
+
+    private void retryStarvedCloudlets(double now) {
+        for (Host host : getHostList()) {
+            for (Vm vm : host.getVmList()) {
+                for (CloudletExecution cle : vm.getCloudletScheduler().getCloudletExecList()) {
+                    if (Double.isInfinite(cle.getLastOverSubscriptionDelay())) {
+                        cle.setLastOverSubscriptionDelay(now - cle.getLastProcessingTime());
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean hasUnfinishedCloudlets() {
+        for (Host host : getHostList()) {
+            for (Vm vm : host.getVmList()) {
+                if (!vm.getCloudletScheduler().isEmpty()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,77 @@
+package org.bsc.cloudsimulations.comparison;
+
+import java.util.List;
+
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.power.models.PowerModelHost;
+
+/*
+ * Energy drawn by the hosts of a run, from their power models (see TopologyTemplate), and the time they spend idle
+ * A host's CPU utilization only changes when it updates its processing, so the meter listens to those updates and
+ * integrates the power of the utilization since the previous one: exact for the power model, with nothing done between events
+ * Every host is powered for the whole run (hosts are never switched off), an idle host drawing its idle power
+ * Per-host state is kept in primitive arrays indexed by the host's position in the datacenter list
+ * */
+public class EnergyMeter {
+    private final List<Host> hosts;
+    private final double[] lastUpdateTimes;
+    private final double[] lastUtilizations;
+    private final double[] energyJoules;
+    private final double[] idleSeconds;
+
+    public EnergyMeter(List<Host> hosts) {
+        this.hosts = hosts;
+        this.lastUpdateTimes = new double[hosts.size()];
+        this.lastUtilizations = new double[hosts.size()];
+        this.energyJoules = new double[hosts.size()];
+        this.idleSeconds = new double[hosts.size()];
+        for (int i = 0; i < hosts.size(); i++) {
+            final int host = i;
+            hosts.get(i).addOnUpdateProcessingListener(info -> update(host, info.getTime()));
+        }
+    }
+
+    private void update(int host, double time) {
+        advance(host, time);
+        lastUtilizations[host] = Math.min(1, Math.max(0, hosts.get(host).getCpuPercentUtilization()));
+    }
+
+    private void advance(int host, double time) {
+        double elapsed = time - lastUpdateTimes[host];
+        if (elapsed <= 0) {
+            return;
+        }
+        PowerModelHost powerModel = hosts.get(host).getPowerModel();
+        if (powerModel != PowerModelHost.NULL) {
+            energyJoules[host] += powerModel.getPower(lastUtilizations[host]) * elapsed;
+        }
+        if (lastUtilizations[host] == 0) {
+            idleSeconds[host] += elapsed;
+        }
+        lastUpdateTimes[host] = time;
+    }
+
+    //closes every host's last interval at the end of the run
+    public void finish(double endTime) {
+        for (int host = 0; host < hosts.size(); host++) {
+            advance(host, endTime);
+        }
+    }
+
+    public double getTotalEnergyWh() {
+        double joules = 0;
+        for (double energy : energyJoules) {
+            joules += energy;
+        }
+        return joules / 3600;
+    }
+
+    //summed over the hosts, in host-seconds
+    public double getIdleHostTime() {
+        double seconds = 0;
+        for (double idle : idleSeconds) {
+            seconds += idle;
+        }
+        return seconds;
+    }
+}
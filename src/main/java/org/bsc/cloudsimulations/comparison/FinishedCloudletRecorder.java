@@ -0,0 +1,164 @@
+package org.bsc.cloudsimulations.comparison;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.bsc.cloudsimulations.results.CloudletRecordBatch;
+import org.bsc.cloudsimulations.results.ResultSink;
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.brokers.DatacenterBrokerAbstract;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletExecution;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.listeners.CloudletVmEventInfo;
+import org.cloudsimplus.listeners.EventListener;
+import org.cloudsimplus.schedulers.cloudlet.CloudletScheduler;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerAbstract;
+import org.cloudsimplus.vms.Vm;
+
+/*
+ * Records finished cloudlets while the simulation runs and then lets go of them, for workloads submitted during the run
+ * Every submitted cloudlet gets this recorder as finish listener, which only marks its VM; on the next clock tick
+ * the finished executions of the marked VMs are recorded into the metrics collector (oversubscription, loads,
+ * response times, detailed row) and removed from the scheduler and broker lists
+ * Detailed rows are handed to the sink every FLUSH_ROWS rows, so memory stays bounded by the cloudlets in flight
+ * CloudSim Plus keeps every finished cloudlet in two private collections (the broker's finished list and the
+ * scheduler's returned set) that nothing reads during the run, and its public API only hands out copies of them
+ * They are emptied by reflection, so this class depends on those CloudSim Plus internals (checked against 8.5.5):
+ * if either field is missing or inaccessible, the class fails to load instead of silently keeping every cloudlet
+ * */
+public class FinishedCloudletRecorder implements EventListener<CloudletVmEventInfo> {
+    private static final int FLUSH_ROWS = 4096;
+    //broker lists are pruned once this many cloudlets (or half the list) were released since the last pruning
+    private static final int MIN_PRUNE = 1024;
+    private static final Field BROKER_FINISHED_LIST = accessibleField(DatacenterBrokerAbstract.class, "cloudletFinishedList");
+    private static final Field SCHEDULER_RETURNED_LIST = accessibleField(CloudletSchedulerAbstract.class, "cloudletReturnedList");
+
+    private final RunMetricsCollector collector;
+    private final DatacenterBroker broker;
+    private final List<Vm> vms;
+    private final ResultSink resultSink;
+    private final Supplier<CloudletRecordBatch> batchFactory;
+    //oversubscription table, null when it is not displayed
+    private final StringBuilder table;
+
+    private final List<Vm> markedVms = new ArrayList<>();
+    private boolean[] marked;
+    private CloudletRecordBatch rows;
+    private long releasedSincePrune;
+
+    public FinishedCloudletRecorder(CloudSimPlus simulation, DatacenterBroker broker, List<Vm> vms, RunMetricsCollector collector,
+            ResultSink resultSink, Supplier<CloudletRecordBatch> batchFactory, StringBuilder table) {
+        this.collector = collector;
+        this.broker = broker;
+        this.vms = vms;
+        this.resultSink = resultSink;
+        this.batchFactory = batchFactory;
+        this.table = table;
+        this.marked = new boolean[Math.max(vms.size(), 1)];
+        simulation.addOnClockTickListener(info -> recordMarked());
+    }
+
+    private static Field accessibleField(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalStateException("Cannot release finished cloudlets: " + type.getSimpleName() + "." + name
+                    + " is missing or inaccessible in this CloudSim Plus version", e);
+        }
+    }
+
+    @Override
+    public void update(CloudletVmEventInfo info) {
+        Vm vm = info.getVm();
+        int index = (int) vm.getId();
+        if (index >= marked.length) {
+            marked = Arrays.copyOf(marked, Math.max(marked.length * 2, index + 1));
+        }
+        if (!marked[index]) {
+            marked[index] = true;
+            markedVms.add(vm);
+        }
+    }
+
+    private void recordMarked() {
+        if (markedVms.isEmpty()) {
+            return;
+        }
+        for (Vm vm : markedVms) {
+            marked[(int) vm.getId()] = false;
+            record(vm);
+        }
+        markedVms.clear();
+        release();
+    }
+
+    private void record(Vm vm) {
+        CloudletScheduler scheduler = vm.getCloudletScheduler();
+        List<CloudletExecution> finished = scheduler.getCloudletFinishedList();
+        if (finished.isEmpty()) {
+            return;
+        }
+        Collection<?> returned = fieldValue(SCHEDULER_RETURNED_LIST, scheduler);
+        for (CloudletExecution cle : finished) {
+            Cloudlet cloudlet = cle.getCloudlet();
+            if (rows == null) {
+                rows = batchFactory.get(); //created on first use, the policy short codes are only known once VMs are placed
+            }
+            collector.recordFinished(cloudlet, collector.recordExecution(cle, table), rows);
+            if (returned != null) {
+                returned.remove(cloudlet);
+            }
+        }
+        releasedSincePrune += finished.size();
+        finished.clear();
+        if (rows.size() >= FLUSH_ROWS) {
+            resultSink.writeCloudlets(rows);
+            rows = null;
+        }
+    }
+
+    //everything returned to the broker so far was finished, hence marked, before this tick and is recorded by now
+    private void release() {
+        Collection<?> brokerFinished = fieldValue(BROKER_FINISHED_LIST, broker);
+        if (brokerFinished != null) {
+            brokerFinished.clear();
+        }
+        List<Cloudlet> submitted = broker.getCloudletSubmittedList();
+        if (releasedSincePrune >= Math.max(MIN_PRUNE, submitted.size() / 2)) {
+            submitted.removeIf(Cloudlet::isFinished);
+            broker.getCloudletCreatedList().removeIf(Cloudlet::isFinished);
+            releasedSincePrune = 0;
+        }
+    }
+
+    //null for a broker or scheduler that does not extend the CloudSim Plus base class, it keeps its own lists
+    private static Collection<?> fieldValue(Field field, Object owner) {
+        if (!field.getDeclaringClass().isInstance(owner)) {
+            return null;
+        }
+        try {
+            return (Collection<?>) field.get(owner);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read " + field.getName() + " of " + owner.getClass().getSimpleName(), e);
+        }
+    }
+
+    //records what is left once the simulation is over (every VM, as the last completions come after the last tick) and writes the last rows
+    public void finish() {
+        markedVms.clear();
+        Arrays.fill(marked, false);
+        for (Vm vm : vms) {
+            record(vm);
+        }
+        release();
+        resultSink.writeCloudlets(rows != null ? rows : batchFactory.get());
+        rows = null;
+    }
+}
@@ -1,25 +1,13 @@
 package org.bsc.cloudsimulations.comparison;
 
-import java.util.ArrayList; 
 import java.util.List;
 
+import org.bsc.cloudsimulations.brokers.CloudletToVmMapper;
 import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.bsc.cloudsimulations.results.ResultSink;
 import org.cloudsimplus.datacenters.Datacenter;
-import org.cloudsimplus.datacenters.DatacenterSimple;
-import org.cloudsimplus.hosts.Host;
-import org.cloudsimplus.hosts.HostSimple;
 import org.cloudsimplus.vms.Vm;
-import org.cloudsimplus.vms.VmSimple;
 import org.cloudsimplus.cloudlets.Cloudlet;
-import org.cloudsimplus.cloudlets.CloudletSimple;
-import org.cloudsimplus.resources.Pe;
-import org.cloudsimplus.resources.PeSimple;
-import org.cloudsimplus.allocationpolicies.VmAllocationPolicy;
-import org.cloudsimplus.schedulers.vm.VmScheduler;
-import org.cloudsimplus.schedulers.cloudlet.CloudletScheduler;
-import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
-import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
-import org.cloudsimplus.utilizationmodels.UtilizationModelStochastic;
 
 /**
  * Homogeneous system comparison implementation of the abstract class.\
@@ -31,91 +19,45 @@ import org.cloudsimplus.utilizationmodels.UtilizationModelStochastic;
  * Simulation Execution
  * Oversubscription Detection
  * Metric Calculation
+ * 
+ * Sizes and specs come from the topology profile selected in the "homogeneous" section of config.json
+ * (homogeneous-default: 4 hosts, 8 VMs and 50 cloudlets, all identical; homogeneous-large for scale tests)
  */
 public class HomogeneousSystemComparison extends SystemComparisonBase {
+	private static final String SECTION = "homogeneous";
 	
     public HomogeneousSystemComparison(int runId, ConfigLoader configLoader, boolean displayOversubTable,
     		String vmAllocationPolicy, String vmScheduler, String cloudletScheduler) {
         super(runId, configLoader, displayOversubTable, vmAllocationPolicy, vmScheduler, cloudletScheduler);
     }
 
-    // Create 4 hosts in the datacenter, apply vmAllocationPolicy which is loaded dynamically from the config.json via configLoader
-    @Override
-    protected Datacenter createDatacenter() {
-        List<Host> hostList = new ArrayList<>();
-        for (int i = 0; i < 4; i++) {
-            hostList.add(createHost());
-        }
-        
-        VmAllocationPolicy allocationPolicy = (VmAllocationPolicy) configLoader.createInstance("homogeneous", "vmAllocationPolicy");
-        
-        return new DatacenterSimple(simulation, hostList, allocationPolicy);
+    public HomogeneousSystemComparison(int runId, ConfigLoader configLoader, boolean displayOversubTable,
+    		String vmAllocationPolicy, String vmScheduler, String cloudletScheduler, ResultSink resultSink) {
+        super(runId, configLoader, displayOversubTable, vmAllocationPolicy, vmScheduler, cloudletScheduler, resultSink);
     }
-    //host parameters with a dynamically configured vmScheduler
-    private Host createHost() {
-        List<Pe> peList = new ArrayList<>();
-        int hostPes = 8;
-        int hostMips = 2000;
-        int hostRam = 1024 * 12;
-        int hostBw = 8000;
-        int hostStorage = 1_000_000;
 
-        for (int i = 0; i < hostPes; i++) {
-            peList.add(new PeSimple(hostMips));
-        }
-        
-        VmScheduler vmScheduler = (VmScheduler) configLoader.createInstance("homogeneous", "vmScheduler");
-        
-        return new HostSimple(hostRam, hostBw, hostStorage, peList)
-                .setVmScheduler(vmScheduler);
+    // Hosts of the profile, vmAllocationPolicy and vmScheduler are loaded dynamically from the config.json via configLoader
+    @Override
+    protected Datacenter createDatacenter() {
+        return createDatacenter(SECTION);
     }
 
-    //vm parameters with a dynamically configured cloudletScheduler
+    //vms of the profile with a dynamically configured cloudletScheduler
     @Override
     protected List<Vm> createVms() {
-        List<Vm> vms = new ArrayList<>();
-        for (int i = 0; i < 8; i++) {
-            vms.add(createVm());
-        }
-        return vms;
+        return createVms(SECTION);
     }
 
-    private Vm createVm() {
-        int vmPes = 4;
-        int vmMips = 1500;
-        int vmRam = 4048;
-        int vmBw = 500;
-        int vmStorage = 100_000;
-
-        CloudletScheduler cloudletScheduler = (CloudletScheduler) configLoader.createInstance("homogeneous", "cloudletScheduler");
-        
-        return new VmSimple(vmMips, vmPes)
-                .setRam(vmRam).setBw(vmBw).setSize(vmStorage)
-                .setCloudletScheduler(cloudletScheduler);
-    }
-
-    //cloudlet parameters
+    //cloudlets of the profile
     @Override
     protected List<Cloudlet> createCloudlets() {
-        List<Cloudlet> cloudlets = new ArrayList<>();
-        for (int i = 0; i < 50; i++) {
-            cloudlets.add(createCloudlet());
-        }
-        return cloudlets;
+        return createCloudlets(SECTION);
     }
 
-    private Cloudlet createCloudlet() {
-        int cloudletPes = 2;
-        int cloudletLength = 10_000;
-        int fileSize = 100;
-        int outputSize = 50;
-
-        return new CloudletSimple(cloudletLength, cloudletPes)
-                .setFileSize(fileSize)
-                .setOutputSize(outputSize)
-                .setUtilizationModelCpu(new UtilizationModelFull())
-                .setUtilizationModelRam(new UtilizationModelDynamic(0.25)) //average
-                .setUtilizationModelBw(new UtilizationModelStochastic());
+    //cloudlet to VM mapping of the broker, loaded dynamically from the config.json
+    @Override
+    protected CloudletToVmMapper createCloudletMapper() {
+        return createCloudletMapper(SECTION);
     }
 
     //Csv specifications
@@ -0,0 +1,125 @@
+package org.bsc.cloudsimulations.comparison;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bsc.cloudsimulations.results.MetricsRecord;
+
+/*
+ * Host-side cost of one run, measured around the phases of SystemComparisonBase
+ * - wall-clock time of setup (datacenter, VMs, cloudlets, submission), simulation and post-processing (metrics, detailed rows)
+ * - simulation events: every event that went through the future queue, the simulation only ends once all of them were processed
+ * - bytes allocated by the thread running the simulation (com.sun.management.ThreadMXBean), -1 when the JVM can't tell
+ * - time spent in GC pauses while the run was going; this is JVM-wide, so runs on other workers share it
+ * The figures become columns of the metrics row, and each run is committed as a SimulationRunEvent for JFR recordings
+ * */
+public class RunInstrumentation {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationBean();
+    //collectors reporting pause time, concurrent cycles run alongside the application and are left out
+    private static final List<GarbageCollectorMXBean> PAUSE_COLLECTORS = pauseCollectors();
+
+    private final SimulationRunEvent event = new SimulationRunEvent();
+    private final long threadId = Thread.currentThread().getId();
+    private final long startNanos;
+    private final long startAllocatedBytes;
+    private final long startGcMillis;
+    private long setupEndNanos;
+    private long simulationEndNanos;
+    private long postProcessingEndNanos;
+    private long simulationEvents;
+    private long allocatedBytes = -1;
+    private long gcPauseMillis;
+
+    public RunInstrumentation() {
+        event.begin();
+        startAllocatedBytes = allocatedBytes();
+        startGcMillis = gcMillis();
+        startNanos = System.nanoTime();
+        setupEndNanos = startNanos;
+        simulationEndNanos = startNanos;
+        postProcessingEndNanos = startNanos;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) THREADS).isThreadAllocatedMemorySupported()) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREADS;
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return bean;
+        }
+        return null;
+    }
+
+    private static List<GarbageCollectorMXBean> pauseCollectors() {
+        List<GarbageCollectorMXBean> collectors = new ArrayList<>();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String name = collector.getName();
+            if (!name.contains("Concurrent") && !name.contains("Cycles")) {
+                collectors.add(collector);
+            }
+        }
+        return collectors;
+    }
+
+    private long allocatedBytes() {
+        return ALLOCATION != null ? ALLOCATION.getThreadAllocatedBytes(threadId) : -1;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : PAUSE_COLLECTORS) {
+            total += Math.max(collector.getCollectionTime(), 0);
+        }
+        return total;
+    }
+
+    public void endSetup() {
+        setupEndNanos = System.nanoTime();
+    }
+
+    public void endSimulation(long events) {
+        simulationEndNanos = System.nanoTime();
+        simulationEvents = events;
+    }
+
+    //closes the run: post-processing time, allocation and GC figures are taken here
+    public void endPostProcessing() {
+        postProcessingEndNanos = System.nanoTime();
+        long allocatedNow = allocatedBytes();
+        allocatedBytes = startAllocatedBytes >= 0 && allocatedNow >= 0 ? allocatedNow - startAllocatedBytes : -1;
+        gcPauseMillis = gcMillis() - startGcMillis;
+    }
+
+    //commits the JFR event of the run (a no-op unless a recording has it enabled)
+    public void commit(MetricsRecord record) {
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.metricsFile = record.getFilePath();
+        event.runId = record.getRunId();
+        event.vmAllocationPolicy = record.getVmAllocationPolicy();
+        event.vmScheduler = record.getVmScheduler();
+        event.cloudletScheduler = record.getCloudletScheduler();
+        event.setupTime = setupEndNanos - startNanos;
+        event.simulationTime = simulationEndNanos - setupEndNanos;
+        event.postProcessingTime = postProcessingEndNanos - simulationEndNanos;
+        event.simulationEvents = simulationEvents;
+        event.allocatedBytes = allocatedBytes;
+        event.gcPauseTime = gcPauseMillis;
+        event.completedTasks = record.getTotalCompletedTasks();
+        event.commit();
+    }
+
+    public double getSetupMillis() { return (setupEndNanos - startNanos) / 1e6; }
+    public double getSimulationMillis() { return (simulationEndNanos - setupEndNanos) / 1e6; }
+    public double getPostProcessingMillis() { return (postProcessingEndNanos - simulationEndNanos) / 1e6; }
+    public long getSimulationEvents() { return simulationEvents; }
+    public long getAllocatedBytes() { return allocatedBytes; }
+    public long getGcPauseMillis() { return gcPauseMillis; }
+}
@@ -0,0 +1,218 @@
+package org.bsc.cloudsimulations.comparison;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.bsc.cloudsimulations.results.CloudletRecordBatch;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletExecution;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.vms.Vm;
+
+/*
+ * Post-run metrics of one simulation, gathered in a single pass per source
+ * - collectOversubscriptions: one pass over the finished executions of every VM scheduler,
+ *   keeps the expected finish time of each oversubscribed cloudlet (by cloudlet id) plus count and increase sum
+ * - collectFinished: one pass over the broker's finished cloudlets, computes makespan, per-host and per-VM loads
+ *   (by host/VM id), response times, and fills the detailed rows at the same time
+ * recordExecution / recordFinished do the same for a single cloudlet, for runs that record cloudlets as they finish
+ * All state is kept in primitive arrays indexed by entity id (grown on demand), so nothing is boxed or hashed per cloudlet
+ * */
+public class RunMetricsCollector {
+    private static final int INITIAL_CAPACITY = 64;
+
+    //expected finish time per cloudlet id, NaN when the cloudlet was not oversubscribed
+    private double[] expectedFinishTimes;
+    private int oversubscribedCount;
+    private double percentageIncreaseSum;
+
+    //summed PEs per host/VM id, hosts/VMs without finished cloudlets are not part of the load deviation
+    private long[] hostLoads;
+    private boolean[] hostUsed;
+    private long[] vmLoads;
+    private boolean[] vmUsed;
+    private int maxHostId = -1;
+    private int maxVmId = -1;
+
+    private double makespan;
+    private int completedTasks;
+
+    //finish minus datacenter arrival time, over all completions and over those arriving in the steady-state window
+    private double responseTimeSum;
+    private int responseCount;
+    private double steadyStateStart = 0;
+    private double steadyStateEnd = Double.POSITIVE_INFINITY;
+    private double steadyStateResponseTimeSum;
+    private int steadyStateCount;
+
+    public RunMetricsCollector(int hostCount, int vmCount, int cloudletCount) {
+        expectedFinishTimes = new double[Math.max(cloudletCount, INITIAL_CAPACITY)];
+        Arrays.fill(expectedFinishTimes, Double.NaN);
+        hostLoads = new long[Math.max(hostCount, INITIAL_CAPACITY)];
+        hostUsed = new boolean[hostLoads.length];
+        vmLoads = new long[Math.max(vmCount, INITIAL_CAPACITY)];
+        vmUsed = new boolean[vmLoads.length];
+    }
+
+    //table (may be null) receives one line per oversubscribed cloudlet with a known expected finish time
+    public void collectOversubscriptions(List<Vm> vms, StringBuilder table) {
+        for (Vm vm : vms) {
+            for (CloudletExecution cle : vm.getCloudletScheduler().getCloudletFinishedList()) {
+                double expectedFinishTime = recordExecution(cle, table);
+                if (Double.isNaN(expectedFinishTime)) {
+                    continue;
+                }
+                int index = (int) cle.getCloudlet().getId();
+                if (index >= expectedFinishTimes.length) {
+                    int oldLength = expectedFinishTimes.length;
+                    expectedFinishTimes = Arrays.copyOf(expectedFinishTimes, grow(oldLength, index));
+                    Arrays.fill(expectedFinishTimes, oldLength, expectedFinishTimes.length, Double.NaN);
+                }
+                expectedFinishTimes[index] = expectedFinishTime;
+            }
+        }
+    }
+
+    //oversubscription of one finished execution, returns its expected finish time (NaN when it was not oversubscribed)
+    public double recordExecution(CloudletExecution cle, StringBuilder table) {
+        if (!cle.hasOverSubscription()) {
+            return Double.NaN;
+        }
+        Cloudlet cloudlet = cle.getCloudlet();
+        double expectedFinishTime = cle.getExpectedFinishTime();
+        double actualFinishTime = cloudlet.getFinishTime();
+        oversubscribedCount++;
+
+        if (expectedFinishTime > 0) {
+            double percentageIncrease = ((actualFinishTime - expectedFinishTime) / expectedFinishTime) * 100;
+            percentageIncreaseSum += percentageIncrease;
+            if (table != null) {
+                table.append(String.format("%-10d %-20.2f %-20.2f %-20.2f%n", cloudlet.getId(), expectedFinishTime, actualFinishTime, percentageIncrease));
+            }
+        }
+        return expectedFinishTime;
+    }
+
+    //rows (may be null) receives one detailed row per finished cloudlet, in list order
+    public void collectFinished(List<Cloudlet> finishedCloudlets, CloudletRecordBatch rows) {
+        for (Cloudlet cloudlet : finishedCloudlets) {
+            recordFinished(cloudlet, getExpectedFinishTime(cloudlet.getId()), rows);
+        }
+    }
+
+    //one finished cloudlet: makespan, host/VM loads, response time and (rows may be null) its detailed row
+    public void recordFinished(Cloudlet cloudlet, double expectedFinishTime, CloudletRecordBatch rows) {
+        Vm vm = cloudlet.getVm();
+        Host host = vm.getHost();
+        double finishTime = cloudlet.getFinishTime();
+        if (finishTime > makespan) {
+            makespan = finishTime;
+        }
+        addHostLoad((int) host.getId(), (int) vm.getPesNumber());
+        addVmLoad((int) vm.getId(), (int) cloudlet.getPesNumber());
+
+        //response time counts from the arrival at the datacenter, so queueing before the cloudlet starts is included
+        double arrivalTime = cloudlet.getDcArrivalTime();
+        if (arrivalTime >= 0) {
+            double responseTime = finishTime - arrivalTime;
+            responseTimeSum += responseTime;
+            responseCount++;
+            if (arrivalTime >= steadyStateStart && arrivalTime < steadyStateEnd) {
+                steadyStateResponseTimeSum += responseTime;
+                steadyStateCount++;
+            }
+        }
+
+        if (rows != null) {
+            rows.add(
+                cloudlet.getId(),
+                host.getId(),
+                host.getWorkingPesNumber(),
+                vm.getId(),
+                vm.getPesNumber(),
+                cloudlet.getStatus().name(),
+                cloudlet.getTotalExecutionTime(),
+                cloudlet.getStartTime(),
+                finishTime,
+                cloudlet.getStartWaitTime(),
+                expectedFinishTime
+            );
+        }
+        completedTasks++;
+    }
+
+    //cloudlets arriving within [start, end) make up the steady state (e.g. after a warm-up, until arrivals stop)
+    public void setSteadyStateWindow(double start, double end) {
+        steadyStateStart = start;
+        steadyStateEnd = end;
+    }
+
+    private void addHostLoad(int hostId, int pes) {
+        if (hostId >= hostLoads.length) {
+            int length = grow(hostLoads.length, hostId);
+            hostLoads = Arrays.copyOf(hostLoads, length);
+            hostUsed = Arrays.copyOf(hostUsed, length);
+        }
+        hostLoads[hostId] += pes;
+        hostUsed[hostId] = true;
+        maxHostId = Math.max(maxHostId, hostId);
+    }
+
+    private void addVmLoad(int vmId, int pes) {
+        if (vmId >= vmLoads.length) {
+            int length = grow(vmLoads.length, vmId);
+            vmLoads = Arrays.copyOf(vmLoads, length);
+            vmUsed = Arrays.copyOf(vmUsed, length);
+        }
+        vmLoads[vmId] += pes;
+        vmUsed[vmId] = true;
+        maxVmId = Math.max(maxVmId, vmId);
+    }
+
+    private static int grow(int length, int index) {
+        return Math.max(length * 2, index + 1);
+    }
+
+    //population standard deviation over the used entries only
+    static double standardDeviation(long[] values, boolean[] used, int maxIndex) {
+        long sum = 0;
+        int count = 0;
+        for (int i = 0; i <= maxIndex; i++) {
+            if (used[i]) {
+                sum += values[i];
+                count++;
+            }
+        }
+        if (count == 0) {
+            return Double.NaN; //same as the stream version over an empty map (0 / 0)
+        }
+        double mean = (double) sum / count;
+        double squares = 0;
+        for (int i = 0; i <= maxIndex; i++) {
+            if (used[i]) {
+                double deviation = values[i] - mean;
+                squares += deviation * deviation;
+            }
+        }
+        return Math.sqrt(squares / count);
+    }
+
+    public double getExpectedFinishTime(long cloudletId) {
+        return cloudletId < expectedFinishTimes.length ? expectedFinishTimes[(int) cloudletId] : Double.NaN;
+    }
+
+    public double getMakespan() { return makespan; }
+    public double getThroughput() { return completedTasks / makespan; }
+    public double getHostLoadStdDev() { return standardDeviation(hostLoads, hostUsed, maxHostId); }
+    public double getVmLoadStdDev() { return standardDeviation(vmLoads, vmUsed, maxVmId); }
+    public int getOversubscribedCount() { return oversubscribedCount; }
+    public double getAvgPercentageIncrease() { return oversubscribedCount == 0 ? 0 : percentageIncreaseSum / oversubscribedCount; }
+    public int getCompletedTasks() { return completedTasks; }
+    public double getMeanResponseTime() { return responseCount == 0 ? 0 : responseTimeSum / responseCount; }
+    //steady-state completions over the window length (the window ends at the makespan at the latest)
+    public double getSteadyStateThroughput() {
+        double windowEnd = Math.min(steadyStateEnd, makespan);
+        return windowEnd > steadyStateStart ? steadyStateCount / (windowEnd - steadyStateStart) : 0;
+    }
+    public double getSteadyStateMeanResponseTime() { return steadyStateCount == 0 ? 0 : steadyStateResponseTimeSum / steadyStateCount; }
+}
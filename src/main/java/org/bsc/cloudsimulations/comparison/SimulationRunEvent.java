@@ -0,0 +1,60 @@
+package org.bsc.cloudsimulations.comparison;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/*
+ * JFR event of one simulation run (its duration spans the whole run), filled by RunInstrumentation
+ * Record with e.g. java -XX:StartFlightRecording:filename=runs.jfr ... and inspect with
+ * jfr print --events org.bsc.cloudsimulations.SimulationRun runs.jfr
+ * */
+@Name("org.bsc.cloudsimulations.SimulationRun")
+@Label("Simulation Run")
+@Category({"Cloud Simulations"})
+@Description("Host-side cost of one simulation run")
+class SimulationRunEvent extends jdk.jfr.Event {
+    @Label("Metrics File")
+    String metricsFile;
+
+    @Label("Run ID")
+    int runId;
+
+    @Label("VM Allocation Policy")
+    String vmAllocationPolicy;
+
+    @Label("VM Scheduler")
+    String vmScheduler;
+
+    @Label("Cloudlet Scheduler")
+    String cloudletScheduler;
+
+    @Label("Setup Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long setupTime;
+
+    @Label("Simulation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long simulationTime;
+
+    @Label("Post-processing Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long postProcessingTime;
+
+    @Label("Simulation Events")
+    long simulationEvents;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("GC Pause Time")
+    @Timespan(Timespan.MILLISECONDS)
+    long gcPauseTime;
+
+    @Label("Completed Tasks")
+    int completedTasks;
+}
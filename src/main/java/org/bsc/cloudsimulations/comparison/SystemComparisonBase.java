@@ -1,25 +1,50 @@
 package org.bsc.cloudsimulations.comparison;
 
-import com.opencsv.CSVWriter;   
-
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Random;
+import java.util.function.Supplier;
 
+import org.bsc.cloudsimulations.allocation.VmAllocationPolicySampled;
+import org.bsc.cloudsimulations.brokers.CloudletToVmMapper;
+import org.bsc.cloudsimulations.configurations.ArrivalProfile;
 import org.bsc.cloudsimulations.configurations.ConfigLoader;
 import org.bsc.cloudsimulations.configurations.PolicyAndSchedulerShortCodes;
+import org.bsc.cloudsimulations.configurations.TopologyProfile;
+import org.bsc.cloudsimulations.configurations.TopologyProfile.CloudletClass;
+import org.bsc.cloudsimulations.configurations.TopologyTemplate;
+import org.bsc.cloudsimulations.configurations.WorkloadTrace;
+import org.bsc.cloudsimulations.results.CloudletRecordBatch;
+import org.bsc.cloudsimulations.results.CsvResultSink;
+import org.bsc.cloudsimulations.results.MetricsRecord;
+import org.bsc.cloudsimulations.results.ResultSink;
+import org.bsc.cloudsimulations.results.UtilizationSeriesRecord;
+import org.bsc.cloudsimulations.workload.ArrivalWorkloadFeeder;
+import org.bsc.cloudsimulations.workload.TraceWorkloadFeeder;
+import org.bsc.cloudsimulations.workload.UtilizationModelTrace;
+import org.bsc.cloudsimulations.workload.UtilizationTrace;
+import org.bsc.cloudsimulations.workload.WorkloadFeeder;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicy;
 import org.cloudsimplus.brokers.DatacenterBroker;
 import org.cloudsimplus.brokers.DatacenterBrokerSimple;
 import org.cloudsimplus.cloudlets.Cloudlet;
-import org.cloudsimplus.cloudlets.CloudletExecution;
+import org.cloudsimplus.cloudlets.CloudletSimple;
 import org.cloudsimplus.core.CloudSimPlus;
 import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.datacenters.DatacenterSimple;
 import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSimple;
+import org.cloudsimplus.power.models.PowerModelHostSimple;
+import org.cloudsimplus.resources.Pe;
+import org.cloudsimplus.resources.PeSimple;
+import org.cloudsimplus.schedulers.cloudlet.CloudletScheduler;
+import org.cloudsimplus.schedulers.vm.VmScheduler;
+import org.cloudsimplus.utilizationmodels.UtilizationModel;
+import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
+import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
+import org.cloudsimplus.utilizationmodels.UtilizationModelStochastic;
 import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
 
 /**
  * Abstract base class for system comparison (homogeneous or heterogeneous).
@@ -29,11 +54,19 @@ import org.cloudsimplus.vms.Vm;
  * Enables evaluation of oversubscription scenarios
  */
 public abstract class SystemComparisonBase {
+	//Shared sink for runs created without an explicit one (keeps the old write-as-you-go behaviour)
+	private static final ResultSink DEFAULT_RESULT_SINK = new CsvResultSink();
+	//mixed into the run seed for the stream of the sampled allocation policies
+	private static final long ALLOCATION_SEED_SALT = 0x5EED_A110CL;
+
 	//Load and Update json configurations
 	protected ConfigLoader configLoader;
+	//Receives the detailed and metrics rows of this run
+	protected ResultSink resultSink;
 	//Main Variables for handling the simulation
     protected CloudSimPlus simulation; //Simulation life-cycle
     protected DatacenterBroker broker; //VM and Cloudlets submissions
+    protected CloudletToVmMapper cloudletMapper; //Cloudlet to VM mapping installed on the broker
     protected List<Vm> vmList; //Store VMs
     protected List<Cloudlet> cloudletList; //Store Cloudlets
     protected Datacenter datacenter; //Simulation datacenter representation
@@ -41,10 +74,30 @@ public abstract class SystemComparisonBase {
     protected String vmAllocationPolicy;
     protected String vmScheduler;
     protected String cloudletScheduler;
-    //Maps cloudlet IDs to expected finishTimes
-    protected final Map<Long, Double> expectedFinishTimes = new HashMap<>();
+    //Topology (counts, class mixes and specs) of this run, compiled once per configuration and looked up on first use
+    protected TopologyTemplate topologyTemplate;
+    //Source of the seeds of every random generator of this run, derived from the configured seed and the run id
+    protected Random seedGenerator;
+    //Submits the cloudlets of a workload trace or arrival process while the simulation runs (null when all are submitted at start)
+    protected WorkloadFeeder workloadFeeder;
+    //Post-run metrics (expected finish times, loads, oversubscription), gathered in one pass over the results
+    protected RunMetricsCollector metricsCollector;
+    //Wall time, simulation events, allocation and GC of this run (metrics columns and JFR event)
+    protected RunInstrumentation instrumentation;
+    //Host/VM utilization time series while the run simulates ("utilizationSampler" enabled in config.json), null otherwise
+    protected UtilizationSampler utilizationSampler;
+    //Energy drawn by the hosts and their idle time, integrated while the run simulates
+    protected EnergyMeter energyMeter;
+
+    //CPU and RAM usage are the same for every cloudlet and the models stateless in effect, so a run shares one of each
+    private final UtilizationModel cpuUtilization = new UtilizationModelFull();
+    private final UtilizationModel ramUtilization = new UtilizationModelDynamic(0.25); //average
+    //shared trace the bandwidth usage is read from ("utilizationModel": "trace"), null for a stochastic model per cloudlet
+    private UtilizationTrace bwUtilizationTrace;
 
     protected int runId;
+    private String[] policyShortCodes;
+    private String cloudletMapperShortCode;
     
     /*Constructor
      * Initializes configuration values and simulation components
@@ -54,8 +107,15 @@ public abstract class SystemComparisonBase {
      * */
     public SystemComparisonBase(int runId, ConfigLoader configLoader, boolean displayOversubscriptionTable, 
     		String vmAllocationPolicy, String vmScheduler, String cloudletScheduler) {
+    	this(runId, configLoader, displayOversubscriptionTable, vmAllocationPolicy, vmScheduler, cloudletScheduler, DEFAULT_RESULT_SINK);
+    }
+
+    public SystemComparisonBase(int runId, ConfigLoader configLoader, boolean displayOversubscriptionTable, 
+    		String vmAllocationPolicy, String vmScheduler, String cloudletScheduler, ResultSink resultSink) {
     	
+    	this.instrumentation = new RunInstrumentation();
     	this.configLoader = configLoader;
+        this.resultSink = resultSink;
         this.runId = runId;
         this.vmAllocationPolicy = vmAllocationPolicy;
         this.vmScheduler = vmScheduler;
@@ -67,33 +127,250 @@ public abstract class SystemComparisonBase {
 
         vmList = createVms();
         cloudletList = createCloudlets();
+        cloudletMapper = createCloudletMapper();
+        cloudletMapper.install(broker, cloudletList);
 
         broker.submitVmList(vmList);
         broker.submitCloudletList(cloudletList);
 
+        energyMeter = new EnergyMeter(datacenter.getHostList());
+        utilizationSampler = UtilizationSampler.fromConfig(configLoader, datacenter.getHostList(), vmList);
+        if (utilizationSampler != null) {
+            utilizationSampler.attach(simulation);
+        }
+
+        if (workloadFeeder != null) {
+            runWithWorkloadFeeder(displayOversubscriptionTable);
+            return;
+        }
+        instrumentation.endSetup();
         simulation.start();
+        instrumentation.endSimulation(simulation.getGeneratedEventsNumber());
+        energyMeter.finish(simulation.clock());
+        writeUtilizationSeries();
 
         final var finishedCloudlets = broker.getCloudletFinishedList();
 
+        metricsCollector = new RunMetricsCollector(datacenter.getHostList().size(), vmList.size(), cloudletList.size());
         calculateAndDisplayOversubscribedCloudlets(displayOversubscriptionTable);
         demonstrateCloudletTable(finishedCloudlets);
         calculateAndWriteMetrics(finishedCloudlets);
+        warnUnfinished(cloudletList.size());
+    }
+
+    /*
+     * Cloudlets submitted during the run are recorded as they finish and then released,
+     * so only the cloudlets in flight are kept, however long the workload is
+     * */
+    private void runWithWorkloadFeeder(boolean displayOversubscriptionTable) {
+        metricsCollector = new RunMetricsCollector(datacenter.getHostList().size(), vmList.size(), 0);
+        metricsCollector.setSteadyStateWindow(workloadFeeder.getSteadyStateStart(), workloadFeeder.getSteadyStateEnd());
+        StringBuilder table = displayOversubscriptionTable ? new StringBuilder() : null;
+        FinishedCloudletRecorder recorder = new FinishedCloudletRecorder(simulation, broker, vmList, metricsCollector,
+                resultSink, this::createCloudletRecordBatch, table);
+
+        try (WorkloadFeeder feeder = workloadFeeder) {
+            feeder.setOnCloudletFinish(recorder);
+            feeder.start();
+            instrumentation.endSetup();
+            simulation.start();
+            instrumentation.endSimulation(simulation.getGeneratedEventsNumber());
+        }
+        energyMeter.finish(simulation.clock());
+        writeUtilizationSeries();
+        recorder.finish();
+
+        printOversubscriptionTable(table);
+        calculateAndWriteMetrics(List.of());
+        warnUnfinished(workloadFeeder.getSubmittedJobs());
+    }
+
+    //cloudlets left on the VMs when the simulation ends are missing from the metrics, so say how many
+    private void warnUnfinished(long submitted) {
+        long unfinished = submitted - metricsCollector.getCompletedTasks();
+        if (unfinished > 0) {
+            System.err.println("Run " + runId + " [" + String.join("-", getPolicyShortCodes()) + "]: " + unfinished + " of " + submitted
+                    + " submitted cloudlets did not finish and are not counted in the metrics");
+        }
     }
 
     protected abstract Datacenter createDatacenter();
     protected abstract List<Vm> createVms();
     protected abstract List<Cloudlet> createCloudlets();
+    protected abstract CloudletToVmMapper createCloudletMapper();
+
+    /*
+     * Generic builders driven by the topology template of a config.json section
+     * Entities are generated class by class from its primitive spec arrays directly into lists sized for the totals,
+     * no per-class or temporary lists are kept
+     * Allocation policy and schedulers come from the factories of the same section, resolved once per configuration
+     * */
+    protected TopologyTemplate getTopologyTemplate(String section) {
+        if (topologyTemplate == null) {
+            topologyTemplate = configLoader.getTopologyTemplate(section);
+        }
+        return topologyTemplate;
+    }
+
+    protected TopologyProfile getTopologyProfile(String section) {
+        return getTopologyTemplate(section).getProfile();
+    }
+
+    protected Random getSeedGenerator(String section) {
+        if (seedGenerator == null) {
+            seedGenerator = new Random(configLoader.getRunSeed(section, runId));
+        }
+        return seedGenerator;
+    }
+
+    protected Datacenter createDatacenter(String section) {
+        TopologyTemplate template = getTopologyTemplate(section);
+        Supplier<Object> vmSchedulers = configLoader.factoryFor(section, "vmScheduler");
+        List<Host> hostList = new ArrayList<>(template.getHostCount());
+        for (int hostClass = 0; hostClass < template.getHostClassCount(); hostClass++) {
+            for (int i = 0; i < template.getHostCount(hostClass); i++) {
+                hostList.add(createHost(template, hostClass, (VmScheduler) vmSchedulers.get()));
+            }
+        }
+        VmAllocationPolicy allocationPolicy = (VmAllocationPolicy) configLoader.createInstance(section, "vmAllocationPolicy");
+        //sampled policies get a stream of their own, so the seeds drawn for the cloudlets stay the same as under every other policy
+        if (allocationPolicy instanceof VmAllocationPolicySampled) {
+            VmAllocationPolicySampled sampled = (VmAllocationPolicySampled) allocationPolicy;
+            sampled.setSampleSize(configLoader.getAllocationSampleSize(section));
+            sampled.setRandom(new Random(configLoader.getRunSeed(section, runId) ^ ALLOCATION_SEED_SALT));
+        }
+
+        if (drainsCloudlets(section)) {
+            return new DrainingDatacenter(simulation, hostList, allocationPolicy, configLoader.getSchedulingInterval(section));
+        }
+        return new DatacenterSimple(simulation, hostList, allocationPolicy);
+    }
+
+    //cloudlets fed in while the simulation runs must all finish, otherwise jobs or arrivals go missing from the results
+    //cloudlets submitted at start only drain when the section opts in with "schedulingInterval", which changes their results
+    protected boolean drainsCloudlets(String section) {
+        return configLoader.getWorkloadTrace(section) != null || configLoader.getArrivalProfile(section) != null
+                || configLoader.hasSchedulingInterval(section);
+    }
+
+    //the broker's own mapping unless the section selects another one
+    protected CloudletToVmMapper createCloudletMapper(String section) {
+        CloudletToVmMapper mapper = (CloudletToVmMapper) configLoader.createInstance(section, "cloudletMapper");
+        cloudletMapperShortCode = PolicyAndSchedulerShortCodes.getShortCodeForCloudletMapper(mapper.getClass().getName());
+        return mapper;
+    }
+
+    protected Host createHost(TopologyTemplate template, int hostClass, VmScheduler vmScheduler) {
+        int pes = template.getHostPes(hostClass);
+        long mips = template.getHostMips(hostClass);
+        List<Pe> peList = new ArrayList<>(pes);
+        for (int i = 0; i < pes; i++) {
+            peList.add(new PeSimple(mips));
+        }
+        Host host = new HostSimple(template.getHostRam(hostClass), template.getHostBw(hostClass), template.getHostStorage(hostClass), peList)
+                .setVmScheduler(vmScheduler);
+        if (template.hasHostPowerModel(hostClass)) {
+            host.setPowerModel(new PowerModelHostSimple(template.getHostMaxPower(hostClass), template.getHostIdlePower(hostClass)));
+        }
+        return host;
+    }
+
+    protected List<Vm> createVms(String section) {
+        TopologyTemplate template = getTopologyTemplate(section);
+        Supplier<Object> cloudletSchedulers = configLoader.factoryFor(section, "cloudletScheduler");
+        List<Vm> vms = new ArrayList<>(template.getVmCount());
+        for (int vmClass = 0; vmClass < template.getVmClassCount(); vmClass++) {
+            for (int i = 0; i < template.getVmCount(vmClass); i++) {
+                vms.add(createVm(template, vmClass, (CloudletScheduler) cloudletSchedulers.get()));
+            }
+        }
+        return vms;
+    }
+
+    protected Vm createVm(TopologyTemplate template, int vmClass, CloudletScheduler cloudletScheduler) {
+        return new VmSimple(template.getVmMips(vmClass), template.getVmPes(vmClass))
+                .setRam(template.getVmRam(vmClass)).setBw(template.getVmBw(vmClass)).setSize(template.getVmStorage(vmClass))
+                .setCloudletScheduler(cloudletScheduler);
+    }
+
+    //with a workload trace or an arrival process configured, no cloudlet is created here: the feeder submits them during the simulation
+    protected List<Cloudlet> createCloudlets(String section) {
+        if (configLoader.getUtilizationModel(section).equals("trace")) {
+            bwUtilizationTrace = configLoader.getUtilizationTrace(section);
+        }
+        WorkloadTrace trace = configLoader.getWorkloadTrace(section);
+        if (trace != null) {
+            workloadFeeder = createWorkloadFeeder(section, trace);
+            return new ArrayList<>();
+        }
+        ArrivalProfile arrivalProfile = configLoader.getArrivalProfile(section);
+        if (arrivalProfile != null) {
+            workloadFeeder = createWorkloadFeeder(section, arrivalProfile);
+            return new ArrayList<>();
+        }
+        TopologyTemplate template = getTopologyTemplate(section);
+        Random seeds = getSeedGenerator(section);
+        List<Cloudlet> cloudlets = new ArrayList<>(template.getCloudletCount());
+        for (int cloudletClass = 0; cloudletClass < template.getCloudletClassCount(); cloudletClass++) {
+            long length = template.getCloudletLength(cloudletClass);
+            int pes = template.getCloudletPes(cloudletClass);
+            long fileSize = template.getCloudletFileSize(cloudletClass);
+            long outputSize = template.getCloudletOutputSize(cloudletClass);
+            for (int i = 0; i < template.getCloudletCount(cloudletClass); i++) {
+                cloudlets.add(createCloudlet(length, pes, fileSize, outputSize, seeds.nextLong() & Long.MAX_VALUE)); //CloudSim Plus only takes non-negative seeds
+            }
+        }
+        return cloudlets;
+    }
+
+    protected TraceWorkloadFeeder createWorkloadFeeder(String section, WorkloadTrace trace) {
+        Random seeds = getSeedGenerator(section);
+        double referenceMips = trace.getReferenceMips() > 0
+                ? trace.getReferenceMips() : getTopologyTemplate(section).getVmMips(0);
+        int maxPes = (int) vmList.stream().mapToLong(Vm::getPesNumber).max().orElse(1);
+        return new TraceWorkloadFeeder(simulation, broker, trace,
+                (length, pes) -> createCloudlet(length, pes, trace.getFileSize(), trace.getOutputSize(), seeds.nextLong() & Long.MAX_VALUE),
+                referenceMips, maxPes);
+    }
+
+    protected ArrivalWorkloadFeeder createWorkloadFeeder(String section, ArrivalProfile arrivalProfile) {
+        Random seeds = getSeedGenerator(section);
+        return new ArrivalWorkloadFeeder(simulation, broker, arrivalProfile, getTopologyProfile(section).getCloudletClasses(),
+                cloudletClass -> createCloudlet(cloudletClass, seeds.nextLong() & Long.MAX_VALUE), seeds);
+    }
+
+    protected Cloudlet createCloudlet(CloudletClass cloudletClass, long seed) {
+        return createCloudlet(cloudletClass.getLength(), cloudletClass.getPes(),
+                cloudletClass.getFileSize(), cloudletClass.getOutputSize(), seed);
+    }
+
+    //every cloudlet gets its own seeded stream, so the stochastic bandwidth usage is reproducible per run
+    //with the shared trace, the seed only picks the cloudlet's offset into it
+    protected Cloudlet createCloudlet(long length, int pes, long fileSize, long outputSize, long seed) {
+        return new CloudletSimple(length, pes)
+                .setFileSize(fileSize)
+                .setOutputSize(outputSize)
+                .setUtilizationModelCpu(cpuUtilization)
+                .setUtilizationModelRam(ramUtilization)
+                .setUtilizationModelBw(bwUtilizationTrace != null
+                        ? new UtilizationModelTrace(bwUtilizationTrace, bwUtilizationTrace.offsetFor(seed))
+                        : new UtilizationModelStochastic(seed));
+    }
     
     /*
      * Below are the Main methods and Helpers
-     * demonstrateCloudletTable - write detailed metrics of finished cloudlets to a csv file including described information and also maps policy/scheduler names to short codes
-     * calculateAndDisplayOversubscribedCloudlets - identify cloudlets with oversubscription issues, prints details (if enabled), and updates expectedFinishTimes map
-     * calculateAndWriteMetric - Calculates and writes aggregate performance metrics
-     * calculateStandardDeviation - compute Standard Deviation of load values (host and vms)
-     * CSV File handling - ensures headers are written once per file using headerWrittenFlags map, appends simulation results to CSV files
+     * calculateAndDisplayOversubscribedCloudlets - identify cloudlets with oversubscription issues, prints details (if enabled), and records their expected finish times
+     * demonstrateCloudletTable - single pass over the finished cloudlets: fills the detailed rows and, at the same time, makespan and host/VM loads
+     * calculateAndWriteMetric - writes the aggregate performance metrics gathered by the two passes above
+     * The work is done by metricsCollector (primitive arrays indexed by entity id), the policy short codes are resolved once per run
+     * CSV File handling - structured records are handed to the resultSink, which formats them, writes headers once per file and appends the results
      * */
     
+    //resolved on first use, every record of the run shares them
     private String[] getPolicyShortCodes() {
+        if (policyShortCodes != null) {
+            return policyShortCodes;
+        }
         // Get allocation policy class name from datacenter
         String allocationPolicyClassName = datacenter.getVmAllocationPolicy().getClass().getName();
 
@@ -107,195 +384,103 @@ public abstract class SystemComparisonBase {
         String vmSchedulerShortCode = PolicyAndSchedulerShortCodes.getShortCodeForVmScheduler(vmSchedulerClassName);
         String cloudletSchedulerShortCode = PolicyAndSchedulerShortCodes.getShortCodeForCloudletScheduler(cloudletSchedulerClassName);
 
-        return new String[]{allocationPolicyShortCode, vmSchedulerShortCode, cloudletSchedulerShortCode};
+        policyShortCodes = new String[]{allocationPolicyShortCode, vmSchedulerShortCode, cloudletSchedulerShortCode};
+        return policyShortCodes;
     }
 
     protected void demonstrateCloudletTable(List<Cloudlet> cloudletFinishedList) {
-        String filePath = getDetailedCsvFilePath();
-        //why try and catch besides error handling?
-        try (CSVWriter writer = new CSVWriter(new FileWriter(filePath, true))) {
-            writeHeaderIfNecessary(writer, filePath, new String[]{
-                "Run ID", "Vm Allocation Policy", "Vm Scheduler", "Cloudlet Scheduler", 
-                "Cloudlet ID", "Host Id", "Host PEs", "VM ID", "VM PEs",
-                "Status", "ExecTime", "StartTime", "FinishTime", "StartWaitTime", "ExpectedFinishTime"
-            });	
-
-            for (Cloudlet cloudlet : cloudletFinishedList) {
-            	Vm vm = cloudlet.getVm();
-                String allocationPolicyShortCode = PolicyAndSchedulerShortCodes.getShortCodeForVmAllocationPolicy(
-                        vm.getHost().getDatacenter().getVmAllocationPolicy().getClass().getName());
-                    String vmSchedulerShortCode = PolicyAndSchedulerShortCodes.getShortCodeForVmScheduler(
-                        vm.getHost().getVmScheduler().getClass().getName());
-                    String cloudletSchedulerShortCode = PolicyAndSchedulerShortCodes.getShortCodeForCloudletScheduler(
-                        vm.getCloudletScheduler().getClass().getName());
-                
-                double expectedFinishTime = expectedFinishTimes.getOrDefault(cloudlet.getId(), Double.NaN);
-                writer.writeNext(new String[]{
-                    String.valueOf(runId),
-                    allocationPolicyShortCode,
-                    vmSchedulerShortCode,
-                    cloudletSchedulerShortCode,
-                    String.valueOf(cloudlet.getId()),
-                    String.valueOf(cloudlet.getVm().getHost().getId()),
-                    String.valueOf(cloudlet.getVm().getHost().getWorkingPesNumber()),
-                    String.valueOf(cloudlet.getVm().getId()),
-                    String.valueOf(cloudlet.getVm().getPesNumber()),
-                    cloudlet.getStatus().name(),
-                    String.format("%.1f", cloudlet.getTotalExecutionTime()),
-                    String.format("%.1f", cloudlet.getStartTime()),
-                    String.format("%.1f", cloudlet.getFinishTime()),
-                    String.format("%.1f", cloudlet.getStartWaitTime()),
-                    String.format("%.1f", expectedFinishTime)
-                });
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        CloudletRecordBatch batch = createCloudletRecordBatch(cloudletFinishedList.size());
+
+        metricsCollector.collectFinished(cloudletFinishedList, batch);
+        resultSink.writeCloudlets(batch);
+    }
+
+    private CloudletRecordBatch createCloudletRecordBatch() {
+        return createCloudletRecordBatch(0);
+    }
+
+    private CloudletRecordBatch createCloudletRecordBatch(int expectedSize) {
+        String[] shortCodes = getPolicyShortCodes();
+        return new CloudletRecordBatch(withCloudletMapper(getDetailedCsvFilePath(), cloudletMapperShortCode), runId,
+                shortCodes[0], shortCodes[1], shortCodes[2], expectedSize);
     }
 
     protected void calculateAndDisplayOversubscribedCloudlets(boolean displayTable) {
-        List<CloudletExecution> oversubscribedExecutions = vmList.stream()
-            .flatMap(vm -> vm.getCloudletScheduler().getCloudletFinishedList().stream())
-            .filter(CloudletExecution::hasOverSubscription)
-            .collect(Collectors.toList());
-
-        if (displayTable && !oversubscribedExecutions.isEmpty()) {
-            System.out.println("Oversubscribed Cloudlets Details:");
-            System.out.printf("%-10s %-20s %-20s %-20s%n", "CloudletID", "ExpectedTimeToComplete", "ActualTime", "PercentageIncrease");
-            for (CloudletExecution cle : oversubscribedExecutions) {
-                double expectedFinishTime = cle.getExpectedFinishTime();
-                double actualFinishTime = cle.getCloudlet().getFinishTime();
-                long cloudletId = cle.getCloudlet().getId();
-
-                expectedFinishTimes.put(cloudletId, expectedFinishTime);
-
-                if (expectedFinishTime > 0) {
-                    double percentageIncrease = ((actualFinishTime - expectedFinishTime) / expectedFinishTime) * 100;
-                    System.out.printf("%-10d %-20.2f %-20.2f %-20.2f%n", cloudletId, expectedFinishTime, actualFinishTime, percentageIncrease);
-                }
-            }
-        } else {
-        	// Still update expectedFinishTimes map even if no display
-            for (CloudletExecution cle : oversubscribedExecutions) {
-                double expectedFinishTime = cle.getExpectedFinishTime();
-                long cloudletId = cle.getCloudlet().getId();
-                expectedFinishTimes.put(cloudletId, expectedFinishTime);
-            }
-        }
+        //table is built first and printed at once, so tables of concurrent runs don't interleave
+        StringBuilder table = displayTable ? new StringBuilder() : null;
+        metricsCollector.collectOversubscriptions(vmList, table);
+        printOversubscriptionTable(table);
     }
 
-    protected void calculateAndWriteMetrics(List<Cloudlet> finishedCloudlets) {
-        double makespan = finishedCloudlets.stream()
-            .mapToDouble(Cloudlet::getFinishTime)
-            .max()
-            .orElse(0);
-
-        double throughput = finishedCloudlets.size() / makespan;
-
-        Map<Host, Integer> hostLoadMap = finishedCloudlets.stream()
-            .collect(Collectors.groupingBy(
-                cl -> cl.getVm().getHost(),
-                Collectors.summingInt(cl -> (int) cl.getVm().getPesNumber())
-            ));
-        double hostLoadStdDev = calculateStandardDeviation(hostLoadMap.values());
-
-        Map<Vm, Integer> vmLoadMap = finishedCloudlets.stream()
-            .collect(Collectors.groupingBy(
-                Cloudlet::getVm,
-                Collectors.summingInt(cl -> (int) cl.getPesNumber())
-            ));
-        double vmLoadStdDev = calculateStandardDeviation(vmLoadMap.values());
-
-        OversubscriptionMetrics oversubMetrics = calculateOversubscriptionMetrics();
-
-        int oversubscribedCount = oversubMetrics.getOversubscribedCount();
-        double avgPercentageIncrease = oversubMetrics.getAvgPercentageIncrease();
-        
-        String[] policyShortCodes = getPolicyShortCodes();
-        String allocationPolicyShortCode = policyShortCodes[0];
-        String vmSchedulerShortCode = policyShortCodes[1];
-        String cloudletSchedulerShortCode = policyShortCodes[2];
-
-        String filePath = getMetricsCsvFilePath();
-
-        try (CSVWriter writer = new CSVWriter(new FileWriter(filePath, true))) {
-            writeHeaderIfNecessary(writer, filePath, new String[]{
-                "Run ID", "Vm Allocation Policy", "Vm Scheduler", "Cloudlet Scheduler", 
-                "Makespan", "Throughput", "HostLoadStdDev", "VMLoadStdDev", "OversubscribedCount",
-                "AvgPercentageIncreaseInCloudletExecTime", "TotalCompletedTasks"
-            });
-
-            writer.writeNext(new String[]{
-                String.valueOf(runId),
-                allocationPolicyShortCode,
-                vmSchedulerShortCode,
-                cloudletSchedulerShortCode,
-                String.format("%.2f", makespan),
-                String.format("%.2f", throughput),
-                String.format("%.2f", hostLoadStdDev),
-                String.format("%.2f", vmLoadStdDev),
-                String.valueOf(oversubscribedCount),
-                String.format("%.2f", avgPercentageIncrease),
-                String.valueOf(finishedCloudlets.size())
-            });
-        } catch (IOException e) {
-            e.printStackTrace();
+    private void printOversubscriptionTable(StringBuilder table) {
+        if (table != null && metricsCollector.getOversubscribedCount() > 0) {
+            System.out.print("Oversubscribed Cloudlets Details:" + System.lineSeparator()
+                    + String.format("%-10s %-20s %-20s %-20s%n", "CloudletID", "ExpectedTimeToComplete", "ActualTime", "PercentageIncrease")
+                    + table);
         }
     }
 
-    private double calculateStandardDeviation(Collection<Integer> values) {
-        double mean = values.stream().mapToInt(Integer::intValue).average().orElse(0);
-        return Math.sqrt(values.stream().mapToDouble(v -> Math.pow(v - mean, 2)).sum() / values.size());
+    //one file per run, named after the metrics table, the policies and the run
+    private void writeUtilizationSeries() {
+        if (utilizationSampler != null) {
+            String filePath = UtilizationSeriesRecord.pathFor(withCloudletMapper(getMetricsCsvFilePath(), cloudletMapperShortCode),
+                    String.join("-", getPolicyShortCodes()), runId);
+            resultSink.writeUtilization(utilizationSampler.toRecord(filePath, runId));
+        }
     }
 
-    private OversubscriptionMetrics calculateOversubscriptionMetrics() {
-        List<CloudletExecution> oversubscribedExecutions = vmList.stream()
-            .flatMap(vm -> vm.getCloudletScheduler().getCloudletFinishedList().stream())
-            .filter(CloudletExecution::hasOverSubscription)
-            .collect(Collectors.toList());
-
-        int count = oversubscribedExecutions.size();
-        double avgIncrease = oversubscribedExecutions.stream()
-            .mapToDouble(cle -> {
-                double expectedFinish = cle.getExpectedFinishTime();
-                double actualFinish = cle.getCloudlet().getFinishTime();
-                return (expectedFinish > 0) ? ((actualFinish - expectedFinish) / expectedFinish) * 100 : 0;
-            })
-            .average().orElse(0);
-
-        return new OversubscriptionMetrics(count, avgIncrease);
+    //loads and makespan are filled by demonstrateCloudletTable's pass, so the list is only read again if that pass was skipped
+    protected void calculateAndWriteMetrics(List<Cloudlet> finishedCloudlets) {
+        if (metricsCollector.getCompletedTasks() == 0 && !finishedCloudlets.isEmpty()) {
+            metricsCollector.collectFinished(finishedCloudlets, null);
+        }
+        String[] shortCodes = getPolicyShortCodes();
+        int completedTasks = metricsCollector.getCompletedTasks();
+        double energyPerTask = completedTasks > 0 ? energyMeter.getTotalEnergyWh() / completedTasks : 0;
+        instrumentation.endPostProcessing();
+
+        MetricsRecord record = new MetricsRecord(withCloudletMapper(getMetricsCsvFilePath(), cloudletMapperShortCode), runId,
+                shortCodes[0], shortCodes[1], shortCodes[2],
+                metricsCollector.getMakespan(), metricsCollector.getThroughput(),
+                metricsCollector.getHostLoadStdDev(), metricsCollector.getVmLoadStdDev(),
+                metricsCollector.getOversubscribedCount(), metricsCollector.getAvgPercentageIncrease(),
+                metricsCollector.getCompletedTasks(), metricsCollector.getMeanResponseTime(),
+                metricsCollector.getSteadyStateThroughput(), metricsCollector.getSteadyStateMeanResponseTime(),
+                energyMeter.getTotalEnergyWh(), energyPerTask, energyMeter.getIdleHostTime(),
+                instrumentation.getSetupMillis(), instrumentation.getSimulationMillis(), instrumentation.getPostProcessingMillis(),
+                instrumentation.getSimulationEvents(), instrumentation.getAllocatedBytes(), instrumentation.getGcPauseMillis());
+        resultSink.writeMetrics(record);
+        instrumentation.commit(record);
     }
     
     //Abstract methods that returns file paths for CSV output
     protected abstract String getDetailedCsvFilePath();
     protected abstract String getMetricsCsvFilePath();
 
-    public int getRunId() {
-        return runId;
+    /*
+     * Runs with a load-aware cloudlet mapping write to their own files, the mapper short code going before the table name
+     * (Showcase_Heterogeneous_ECT_Metrics.csv), so their rows and summaries sit next to the broker's default ones
+     * */
+    public static String withCloudletMapper(String filePath, String mapperShortCode) {
+        if (mapperShortCode == null || mapperShortCode.equals("S")) {
+            return filePath;
+        }
+        int tableName = filePath.lastIndexOf('_');
+        return tableName < 0 ? mapperShortCode + "_" + filePath
+                : filePath.substring(0, tableName) + "_" + mapperShortCode + filePath.substring(tableName);
     }
 
-    // Helper class for oversubscription metrics
-    protected static class OversubscriptionMetrics {
-        private final int oversubscribedCount;
-        private final double avgPercentageIncrease;
-
-        public OversubscriptionMetrics(int count, double avgIncrease) {
-            this.oversubscribedCount = count;
-            this.avgPercentageIncrease = avgIncrease;
+    //file of the same combination under the broker's default mapping, the path itself when it already is one
+    public static String withDefaultCloudletMapping(String filePath) {
+        int tableName = filePath.lastIndexOf('_');
+        int mapper = tableName > 0 ? filePath.lastIndexOf('_', tableName - 1) : -1;
+        if (mapper >= 0 && PolicyAndSchedulerShortCodes.CLOUDLET_MAPPERS.containsKey(filePath.substring(mapper + 1, tableName))) {
+            return filePath.substring(0, mapper) + filePath.substring(tableName);
         }
-
-        public int getOversubscribedCount() { return oversubscribedCount; }
-        public double getAvgPercentageIncrease() { return avgPercentageIncrease; }
+        return filePath;
     }
-    
-    private static final Map<String, Boolean> headerWrittenFlags = new HashMap<>();
-
-    protected void writeHeaderIfNecessary(CSVWriter writer, String filePath, String[] header) {
-        headerWrittenFlags.putIfAbsent(filePath, false);
 
-        if (!headerWrittenFlags.get(filePath)) {
-            writer.writeNext(header);
-            headerWrittenFlags.put(filePath, true);
-        }  
+    public int getRunId() {
+        return runId;
     }
 }
@@ -0,0 +1,170 @@
+package org.bsc.cloudsimulations.comparison;
+
+import java.util.List;
+
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.bsc.cloudsimulations.results.UtilizationSeriesRecord;
+import org.cloudsimplus.core.Simulation;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.resources.Resource;
+import org.cloudsimplus.vms.Vm;
+
+import com.google.gson.JsonObject;
+
+/*
+ * Optional time series of host and VM utilization while a run simulates, so contention can be located in time
+ * (not only detected after the run) without DEBUG logging
+ * Hooked on the clock-tick listener: at the first tick at or after every "interval" seconds of simulated time, the CPU,
+ * RAM and BW usage of every host and VM is read; "downsample" consecutive samples are averaged into one stored sample
+ * Hosts report the CPU use of their VMs and the RAM/BW their VMs' cloudlets use, VMs the use of their own capacity
+ * Stored samples go to preallocated float ring buffers of "capacity" samples per entity: the ring keeps the last ones
+ * when a run outlasts it (capacity x interval x downsample seconds), with nothing allocated per tick
+ * Settings ("utilizationSampler" in config.json): {"enabled": false, "interval": 10.0, "downsample": 1, "capacity": 1024}
+ * */
+public class UtilizationSampler {
+    private final List<Host> hosts;
+    private final List<Vm> vms;
+    private final int entityCount;
+    private final double interval;
+    private final int downsample;
+    private final int capacity;
+
+    //ring buffers, sample by sample (one slot of entityCount values per stored sample)
+    private final double[] times;
+    private final float[] cpu;
+    private final float[] ram;
+    private final float[] bw;
+    private long stored;
+
+    //samples of the current downsampling group, summed per entity
+    private final double[] cpuSums;
+    private final double[] ramSums;
+    private final double[] bwSums;
+    private int pending;
+    private double pendingTime;
+    private double nextSampleTime;
+
+    public UtilizationSampler(List<Host> hosts, List<Vm> vms, double interval, int downsample, int capacity) {
+        this.hosts = hosts;
+        this.vms = vms;
+        this.entityCount = hosts.size() + vms.size();
+        this.interval = interval;
+        this.downsample = downsample;
+        this.capacity = capacity;
+        this.times = new double[capacity];
+        this.cpu = new float[capacity * entityCount];
+        this.ram = new float[cpu.length];
+        this.bw = new float[cpu.length];
+        this.cpuSums = new double[entityCount];
+        this.ramSums = new double[entityCount];
+        this.bwSums = new double[entityCount];
+    }
+
+    //sampler of the "utilizationSampler" settings, null when it is not enabled
+    public static UtilizationSampler fromConfig(ConfigLoader configLoader, List<Host> hosts, List<Vm> vms) {
+        JsonObject settings = configLoader.getSettings("utilizationSampler");
+        if (settings == null || !settings.has("enabled") || !settings.get("enabled").getAsBoolean()) {
+            return null;
+        }
+        double interval = settings.has("interval") ? settings.get("interval").getAsDouble() : 10.0;
+        int downsample = settings.has("downsample") ? settings.get("downsample").getAsInt() : 1;
+        int capacity = settings.has("capacity") ? settings.get("capacity").getAsInt() : 1024;
+        if (!(interval > 0) || downsample < 1 || capacity < 1) {
+            throw new RuntimeException("utilizationSampler: interval must be positive, downsample and capacity at least 1");
+        }
+        if ((long) capacity * (hosts.size() + vms.size()) > Integer.MAX_VALUE) {
+            throw new RuntimeException("utilizationSampler: capacity too large for " + (hosts.size() + vms.size()) + " hosts and VMs");
+        }
+        return new UtilizationSampler(hosts, vms, interval, downsample, capacity);
+    }
+
+    public void attach(Simulation simulation) {
+        simulation.addOnClockTickListener(info -> onClockTick(info.getTime()));
+    }
+
+    private void onClockTick(double time) {
+        if (time < nextSampleTime) {
+            return;
+        }
+        sample(time);
+        nextSampleTime = (Math.floor(time / interval) + 1) * interval;
+    }
+
+    private void sample(double time) {
+        if (pending == 0) {
+            pendingTime = time;
+        }
+        int entity = 0;
+        for (Host host : hosts) {
+            long usedRam = 0;
+            long usedBw = 0;
+            for (Vm vm : host.getVmList()) {
+                usedRam += vm.getRam().getAllocatedResource();
+                usedBw += vm.getBw().getAllocatedResource();
+            }
+            cpuSums[entity] += host.getCpuPercentUtilization();
+            ramSums[entity] += fraction(usedRam, host.getRam());
+            bwSums[entity] += fraction(usedBw, host.getBw());
+            entity++;
+        }
+        for (Vm vm : vms) {
+            cpuSums[entity] += vm.getCpuPercentUtilization();
+            ramSums[entity] += vm.getRam().getPercentUtilization();
+            bwSums[entity] += vm.getBw().getPercentUtilization();
+            entity++;
+        }
+        if (++pending == downsample) {
+            store();
+        }
+    }
+
+    private static double fraction(long used, Resource resource) {
+        return resource.getCapacity() > 0 ? (double) used / resource.getCapacity() : 0;
+    }
+
+    //averages the pending group into the next ring slot, overwriting the oldest sample once the ring is full
+    private void store() {
+        int slot = (int) (stored % capacity);
+        int base = slot * entityCount;
+        times[slot] = pendingTime;
+        for (int entity = 0; entity < entityCount; entity++) {
+            cpu[base + entity] = (float) (cpuSums[entity] / pending);
+            ram[base + entity] = (float) (ramSums[entity] / pending);
+            bw[base + entity] = (float) (bwSums[entity] / pending);
+            cpuSums[entity] = 0;
+            ramSums[entity] = 0;
+            bwSums[entity] = 0;
+        }
+        pending = 0;
+        stored++;
+    }
+
+    //the samples kept, oldest first, with a last partial group stored as well
+    public UtilizationSeriesRecord toRecord(String filePath, int runId) {
+        if (pending > 0) {
+            store();
+        }
+        int count = (int) Math.min(stored, capacity);
+        int first = stored > capacity ? (int) (stored % capacity) : 0;
+        long[] entityIds = new long[entityCount];
+        int entity = 0;
+        for (Host host : hosts) {
+            entityIds[entity++] = host.getId();
+        }
+        for (Vm vm : vms) {
+            entityIds[entity++] = vm.getId();
+        }
+        double[] orderedTimes = new double[count];
+        float[] orderedCpu = new float[count * entityCount];
+        float[] orderedRam = new float[orderedCpu.length];
+        float[] orderedBw = new float[orderedCpu.length];
+        for (int i = 0; i < count; i++) {
+            int slot = (first + i) % capacity;
+            orderedTimes[i] = times[slot];
+            System.arraycopy(cpu, slot * entityCount, orderedCpu, i * entityCount, entityCount);
+            System.arraycopy(ram, slot * entityCount, orderedRam, i * entityCount, entityCount);
+            System.arraycopy(bw, slot * entityCount, orderedBw, i * entityCount, entityCount);
+        }
+        return new UtilizationSeriesRecord(filePath, runId, hosts.size(), entityIds, orderedTimes, orderedCpu, orderedRam, orderedBw);
+    }
+}
@@ -0,0 +1,114 @@
+package org.bsc.cloudsimulations.configurations;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/*
+ * Open-loop arrival process of a section ("arrivalProcess", an entry of "arrivalProcesses" in config.json)
+ * Cloudlets are created while the simulation runs, at the arrival times drawn from the process,
+ * their class is drawn from the cloudlet classes of the topology profile (weighted by the class counts)
+ * Three process types are understood:
+ * - "poisson": constant rate (arrivals per second)
+ * - "mmpp": Markov-modulated Poisson process, one rate per state and the mean time spent in each state
+ *   (states are visited in order and wrap around, e.g. a quiet and a burst state)
+ * - "diurnal": rate following a daily curve, baseRate * (1 + amplitude * cos(2*pi * (t - peakTime) / period))
+ * Arrivals stop after "duration" seconds or "maxArrivals" cloudlets, whichever comes first (at least one of them is required)
+ * Completions of cloudlets arriving before "warmup" seconds are left out of the steady-state metrics
+ *
+ * Example:
+ * "bursty": {"type": "mmpp", "rates": [0.5, 4.0], "meanDwell": [600, 60], "duration": 3600, "warmup": 300}
+ * */
+public class ArrivalProfile {
+    private final String name;
+    private final String type;
+    private final double rate;
+    private final double[] rates;
+    private final double[] meanDwell;
+    private final double baseRate;
+    private final double amplitude;
+    private final double period;
+    private final double peakTime;
+    private final double duration;
+    private final long maxArrivals;
+    private final double warmup;
+    private final double lookaheadSeconds;
+
+    private ArrivalProfile(String name, JsonObject json) {
+        this.name = name;
+        this.type = json.has("type") ? json.get("type").getAsString() : "poisson";
+        this.rate = doubleOr(json, "rate", 0);
+        this.rates = doubles(json, "rates");
+        this.meanDwell = doubles(json, "meanDwell");
+        this.baseRate = doubleOr(json, "baseRate", 0);
+        this.amplitude = doubleOr(json, "amplitude", 0);
+        this.period = doubleOr(json, "period", 86400);
+        this.peakTime = doubleOr(json, "peakTime", 0);
+        this.duration = doubleOr(json, "duration", 0);
+        this.maxArrivals = json.has("maxArrivals") ? json.get("maxArrivals").getAsLong() : 0;
+        this.warmup = doubleOr(json, "warmup", 0);
+        this.lookaheadSeconds = doubleOr(json, "lookaheadSeconds", 60);
+
+        if (type.equals("poisson")) {
+            require(rate > 0, "rate must be positive");
+        } else if (type.equals("mmpp")) {
+            require(rates.length > 0 && rates.length == meanDwell.length, "rates and meanDwell must have the same, non-zero length");
+            boolean anyArrivals = false;
+            for (int i = 0; i < rates.length; i++) {
+                require(rates[i] >= 0 && meanDwell[i] > 0, "rates must be non-negative and meanDwell positive");
+                anyArrivals |= rates[i] > 0;
+            }
+            //with every rate at 0 the process would cycle through its states forever without an arrival
+            require(anyArrivals, "at least one rate must be positive");
+        } else if (type.equals("diurnal")) {
+            require(baseRate > 0, "baseRate must be positive");
+            require(amplitude >= 0 && amplitude <= 1, "amplitude must be between 0 and 1");
+            require(period > 0, "period must be positive");
+        } else {
+            throw new RuntimeException("Arrival process " + name + ": unknown type " + type + " (poisson, mmpp or diurnal)");
+        }
+        require(duration > 0 || maxArrivals > 0, "duration or maxArrivals is required");
+    }
+
+    static ArrivalProfile fromJson(String name, JsonObject json) {
+        return new ArrivalProfile(name, json);
+    }
+
+    private void require(boolean condition, String message) {
+        if (!condition) {
+            throw new RuntimeException("Arrival process " + name + ": " + message);
+        }
+    }
+
+    private static double doubleOr(JsonObject json, String key, double defaultValue) {
+        return json.has(key) ? json.get(key).getAsDouble() : defaultValue;
+    }
+
+    private static double[] doubles(JsonObject json, String key) {
+        if (!json.has(key)) {
+            return new double[0];
+        }
+        JsonArray array = json.getAsJsonArray(key);
+        double[] values = new double[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.get(i).getAsDouble();
+        }
+        return values;
+    }
+
+    public String getName() { return name; }
+    public String getType() { return type; }
+    public double getRate() { return rate; }
+    public double[] getRates() { return rates.clone(); }
+    public double[] getMeanDwell() { return meanDwell.clone(); }
+    public double getBaseRate() { return baseRate; }
+    public double getAmplitude() { return amplitude; }
+    public double getPeriod() { return period; }
+    public double getPeakTime() { return peakTime; }
+    //0 = no time limit (maxArrivals then applies)
+    public double getDuration() { return duration; }
+    //0 = no count limit (duration then applies)
+    public long getMaxArrivals() { return maxArrivals; }
+    public double getWarmup() { return warmup; }
+    //cloudlets are handed to the broker this far ahead of their arrival
+    public double getLookaheadSeconds() { return lookaheadSeconds; }
+}
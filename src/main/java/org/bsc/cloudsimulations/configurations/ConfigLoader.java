@@ -3,14 +3,31 @@ package org.bsc.cloudsimulations.configurations;
 import com.google.gson.*; 
 import java.io.*;
 import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.bsc.cloudsimulations.workload.UtilizationTrace;
 
 /*
  * Utility methods loading, managing, and using configuration data from config.json
  * Dynamically create instances instances of classes based on the configuration
+ * Each configured class is resolved once into a cached factory, so creating one instance per host/VM stays cheap
+ * Topology profiles are compiled once into TopologyTemplates, utilization traces generated once; copies share the factories,
+ * templates and traces already built,
+ * so the copy made for every run starts with them (a copy whose section is updated gets its own again)
  * Validate class existence and update configuration sections at runtime
  * */
 public class ConfigLoader {
     private JsonObject config;
+    //factories already resolved by this loader, per section and key (dropped when the section is updated)
+    private Map<String, Map<String, Supplier<Object>>> factories = new ConcurrentHashMap<>();
+    //topology templates compiled by this loader, per section
+    private Map<String, TopologyTemplate> templates = new ConcurrentHashMap<>();
+    //utilization traces generated by this loader, per section
+    private Map<String, UtilizationTrace> traces = new ConcurrentHashMap<>();
 
     //constructor
     public ConfigLoader(String resourceFileName) {
@@ -24,15 +41,60 @@ public class ConfigLoader {
             throw new RuntimeException("Failed to read resource file: " + resourceFileName, e);
         }
     }
+
+    private ConfigLoader(JsonObject config, Map<String, Map<String, Supplier<Object>>> factories, Map<String, TopologyTemplate> templates,
+            Map<String, UtilizationTrace> traces) {
+        this.config = config;
+        this.factories = factories;
+        this.templates = templates;
+        this.traces = traces;
+    }
+    //returns an independent deep copy of the configuration
+    //every run gets its own copy, so concurrent runs never read a section while another thread updates it
+    //resolved factories, compiled templates and utilization traces are immutable and shared with the copy, until either side updates a section
+    public ConfigLoader copy() {
+        return new ConfigLoader(config.deepCopy(), factories, templates, traces);
+    }
     //retrieve a fully qualified class name from the json configuration based on the provided section and key
-    //dynamically create instance of the class using reflection
+    //dynamically create instance of the class through its cached factory
     //in other words, enables dynamic instantiation of policies or schedulers by specifying their class names in the json configuration 
     public Object createInstance(String section, String key) {
-        try {
-            String className = config.getAsJsonObject(section).get(key).getAsString();
-            return Class.forName(className).getDeclaredConstructor().newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to create instance for " + key + " in " + section, e); //the class cannot be found, and/or instance cannot be created due to refl error
+        return factoryFor(section, key).get();
+    }
+    //factory for the class configured under section/key, resolved on first use and cached afterwards
+    public Supplier<Object> factoryFor(String section, String key) {
+        Map<String, Supplier<Object>> sectionFactories = factories.get(section);
+        if (sectionFactories == null) {
+            sectionFactories = factories.computeIfAbsent(section, name -> new ConcurrentHashMap<>());
+        }
+        Supplier<Object> factory = sectionFactories.get(key);
+        if (factory == null) {
+            try {
+                String className = config.getAsJsonObject(section).get(key).getAsString();
+                factory = InstanceFactories.forClass(className);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to create instance for " + key + " in " + section, e); //the class cannot be found, or has no public no-arg constructor
+            }
+            sectionFactories.put(key, factory);
+        }
+        return factory;
+    }
+    //checks up front that every given key of a section names an existing class, and resolves its factory
+    //so a wrong class name fails before the batch starts instead of halfway through a run
+    public void validateClasses(String section, String... keys) {
+        JsonObject sectionConfig = config.getAsJsonObject(section);
+        if (sectionConfig == null) {
+            throw new RuntimeException("Configuration section not found: " + section);
+        }
+        for (String key : keys) {
+            if (!sectionConfig.has(key)) {
+                throw new RuntimeException("Missing " + key + " in " + section);
+            }
+            String className = sectionConfig.get(key).getAsString();
+            if (!isValidClass(className)) {
+                throw new RuntimeException("Invalid class configured for " + key + " in " + section + ": " + className);
+            }
+            factoryFor(section, key);
         }
     }
     //updates specified section of the configuration with new key-value pairs from the newConfig json object
@@ -43,6 +105,176 @@ public class ConfigLoader {
         for (String key : newConfig.keySet()) {
             sectionConfig.addProperty(key, newConfig.get(key).getAsString());
         }
+        //the maps may be shared with copies, which keep resolving against their own unchanged section
+        Map<String, Map<String, Supplier<Object>>> ownFactories = new ConcurrentHashMap<>(factories);
+        ownFactories.remove(section);
+        factories = ownFactories;
+        Map<String, TopologyTemplate> ownTemplates = new ConcurrentHashMap<>(templates);
+        ownTemplates.remove(section);
+        templates = ownTemplates;
+        Map<String, UtilizationTrace> ownTraces = new ConcurrentHashMap<>(traces);
+        ownTraces.remove(section);
+        traces = ownTraces;
+    }
+    //resolves the topology profile selected by a section ("topologyProfile": "<name>") from the "topologyProfiles" object
+    public TopologyProfile getTopologyProfile(String section) {
+        JsonObject sectionConfig = config.getAsJsonObject(section);
+        if (sectionConfig == null || !sectionConfig.has("topologyProfile")) {
+            throw new RuntimeException("No topologyProfile configured in " + section);
+        }
+        String profileName = sectionConfig.get("topologyProfile").getAsString();
+        if (!hasTopologyProfile(profileName)) {
+            throw new RuntimeException("Topology profile not found: " + profileName + " (selected in " + section + ")");
+        }
+        return TopologyProfile.fromJson(profileName, config.getAsJsonObject("topologyProfiles").getAsJsonObject(profileName));
+    }
+
+    //topology profile of a section (with the power models of its host classes) compiled into primitive spec arrays, once per configuration
+    public TopologyTemplate getTopologyTemplate(String section) {
+        TopologyTemplate template = templates.get(section);
+        return template != null ? template : templates.computeIfAbsent(section,
+                name -> TopologyTemplate.compile(getTopologyProfile(name), getSettings("powerModels")));
+    }
+
+    //utilization model of the cloudlets of a section ("utilizationModel"): "stochastic" (a model and random generator per cloudlet,
+    //the default) or "trace" (offsets into the shared UtilizationTrace)
+    public String getUtilizationModel(String section) {
+        JsonObject sectionConfig = config.getAsJsonObject(section);
+        String model = sectionConfig != null && sectionConfig.has("utilizationModel") ? sectionConfig.get("utilizationModel").getAsString() : "stochastic";
+        if (!model.equals("stochastic") && !model.equals("trace")) {
+            throw new RuntimeException("Unknown utilizationModel in " + section + ": " + model + " (stochastic or trace)");
+        }
+        return model;
+    }
+
+    //utilization trace of a section ("utilizationTrace" settings), generated once per configuration from the section's seed
+    public UtilizationTrace getUtilizationTrace(String section) {
+        UtilizationTrace trace = traces.get(section);
+        return trace != null ? trace : traces.computeIfAbsent(section,
+                name -> UtilizationTrace.fromJson(getSettings("utilizationTrace"), getRunSeed(name, 0))); //runs count from 1, so run 0 names the shared stream
+    }
+
+    //trace-driven workload of a section ("workloadTrace" + "workloadFormat"), null when the section uses synthetic cloudlets
+    public WorkloadTrace getWorkloadTrace(String section) {
+        JsonObject sectionConfig = config.getAsJsonObject(section);
+        if (sectionConfig == null || !sectionConfig.has("workloadTrace") || sectionConfig.get("workloadTrace").getAsString().isBlank()) {
+            return null;
+        }
+        String formatName = sectionConfig.has("workloadFormat") ? sectionConfig.get("workloadFormat").getAsString() : "swf";
+        JsonObject formats = config.getAsJsonObject("workloadFormats");
+        if (formats == null || !formats.has(formatName)) {
+            throw new RuntimeException("Workload format not found: " + formatName + " (selected in " + section + ")");
+        }
+        return WorkloadTrace.fromJson(sectionConfig.get("workloadTrace").getAsString(), formatName, formats.getAsJsonObject(formatName));
+    }
+
+    public Set<String> getWorkloadFormatNames() {
+        JsonObject formats = config.getAsJsonObject("workloadFormats");
+        return formats != null ? formats.keySet() : Collections.emptySet();
+    }
+
+    //open-loop arrival process of a section ("arrivalProcess", an entry of "arrivalProcesses"), null when the cloudlets are all submitted at start
+    public ArrivalProfile getArrivalProfile(String section) {
+        JsonObject sectionConfig = config.getAsJsonObject(section);
+        if (sectionConfig == null || !sectionConfig.has("arrivalProcess") || sectionConfig.get("arrivalProcess").getAsString().isBlank()) {
+            return null;
+        }
+        String processName = sectionConfig.get("arrivalProcess").getAsString();
+        JsonObject processes = config.getAsJsonObject("arrivalProcesses");
+        if (processes == null || !processes.has(processName)) {
+            throw new RuntimeException("Arrival process not found: " + processName + " (selected in " + section + ")");
+        }
+        return ArrivalProfile.fromJson(processName, processes.getAsJsonObject(processName));
+    }
+
+    //hosts sampled per placement by the sampled allocation policy ("allocationSampleSize" of the section, 2 if missing)
+    public int getAllocationSampleSize(String section) {
+        JsonObject sectionConfig = config.getAsJsonObject(section);
+        return sectionConfig != null && sectionConfig.has("allocationSampleSize") ? sectionConfig.get("allocationSampleSize").getAsInt() : 2;
+    }
+
+    public Set<String> getArrivalProcessNames() {
+        JsonObject processes = config.getAsJsonObject("arrivalProcesses");
+        return processes != null ? processes.keySet() : Collections.emptySet();
+    }
+
+    //seconds between cloudlet processing updates of a draining datacenter ("schedulingInterval" of the section, 1 if missing)
+    public double getSchedulingInterval(String section) {
+        JsonObject sectionConfig = config.getAsJsonObject(section);
+        double interval = sectionConfig != null && sectionConfig.has("schedulingInterval") ? sectionConfig.get("schedulingInterval").getAsDouble() : 1.0;
+        if (!(interval > 0)) {
+            throw new RuntimeException("schedulingInterval in " + section + " must be positive");
+        }
+        return interval;
+    }
+
+    //whether the section sets "schedulingInterval" itself, which makes its synthetic runs drain too
+    public boolean hasSchedulingInterval(String section) {
+        JsonObject sectionConfig = config.getAsJsonObject(section);
+        return sectionConfig != null && sectionConfig.has("schedulingInterval");
+    }
+
+    //section with its topology profile (and power models, workload format, arrival process, utilization trace and sampler) resolved in place, i.e. everything a run of that section depends on
+    //used to key cached results, so editing a profile or a class name never replays stale results
+    public JsonObject resolveSection(String section) {
+        JsonObject resolved = config.getAsJsonObject(section).deepCopy();
+        if (resolved.has("topologyProfile")) {
+            String profileName = resolved.get("topologyProfile").getAsString();
+            if (hasTopologyProfile(profileName)) {
+                JsonObject profile = config.getAsJsonObject("topologyProfiles").getAsJsonObject(profileName).deepCopy();
+                profile.addProperty("name", profileName);
+                if (config.has("powerModels")) {
+                    profile.add("powerModels", config.getAsJsonObject("powerModels").deepCopy());
+                }
+                resolved.add("topologyProfile", profile);
+            }
+        }
+        if (resolved.has("workloadFormat") && config.has("workloadFormats")
+                && config.getAsJsonObject("workloadFormats").has(resolved.get("workloadFormat").getAsString())) {
+            resolved.add("workloadFormat", config.getAsJsonObject("workloadFormats")
+                    .getAsJsonObject(resolved.get("workloadFormat").getAsString()).deepCopy());
+        }
+        if (resolved.has("arrivalProcess") && config.has("arrivalProcesses")
+                && config.getAsJsonObject("arrivalProcesses").has(resolved.get("arrivalProcess").getAsString())) {
+            resolved.add("arrivalProcess", config.getAsJsonObject("arrivalProcesses")
+                    .getAsJsonObject(resolved.get("arrivalProcess").getAsString()).deepCopy());
+        }
+        if (resolved.has("utilizationModel") && resolved.get("utilizationModel").getAsString().equals("trace") && config.has("utilizationTrace")) {
+            JsonObject model = config.getAsJsonObject("utilizationTrace").deepCopy();
+            model.addProperty("type", "trace");
+            resolved.add("utilizationModel", model);
+        }
+        //sampled runs store their utilization series, so they are cached apart from unsampled ones
+        JsonObject sampler = getSettings("utilizationSampler");
+        if (sampler != null && sampler.has("enabled") && sampler.get("enabled").getAsBoolean()) {
+            resolved.add("utilizationSampler", sampler.deepCopy());
+        }
+        return resolved;
+    }
+    //seed of one run: the "seed" of the section (or the top-level one, 0 if none) mixed with the run id
+    //runs with the same id get the same random streams in every policy combination, so the policies are compared on equal inputs
+    public long getRunSeed(String section, int runId) {
+        JsonObject sectionConfig = config.getAsJsonObject(section);
+        long baseSeed = 0;
+        if (sectionConfig != null && sectionConfig.has("seed")) {
+            baseSeed = sectionConfig.get("seed").getAsLong();
+        } else if (config.has("seed")) {
+            baseSeed = config.get("seed").getAsLong();
+        }
+        //SplitMix64 finalizer, spreads consecutive run ids over the whole seed space
+        long z = baseSeed + runId * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    //top-level json object of the given name (e.g. "resultCache"), null if it is not configured
+    public JsonObject getSettings(String name) {
+        return config.has(name) ? config.getAsJsonObject(name) : null;
+    }
+
+    public boolean hasTopologyProfile(String profileName) {
+        JsonObject profiles = config.getAsJsonObject("topologyProfiles");
+        return profiles != null && profiles.has(profileName);
     }
     //checks if class with the given name exists in the classpath
     public boolean isValidClass(String className) {
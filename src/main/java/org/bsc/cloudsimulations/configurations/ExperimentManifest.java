@@ -0,0 +1,155 @@
+package org.bsc.cloudsimulations.configurations;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/*
+ * Experiment manifest of a headless batch (Main --manifest <file>): every answer of the interactive prompts, in one JSON file
+ * Missing keys take the interactive defaults, except the worker count (all cores) and the result cache (off,
+ * since compute nodes rarely share a cache directory)
+ * "combinations" is either "sweep" (every policy combination of both systems, as the sweep mode)
+ * or a list of {"system", "vmAllocationPolicy", "vmScheduler", "cloudletScheduler"} in short codes
+ *
+ * Example:
+ * {"runs": 200, "topologyScale": "large", "cloudletMapper": "ECT", "detailLevel": "summary", "outputDirectory": "results/large-ect",
+ *  "combinations": [{"system": "heterogeneous", "vmAllocationPolicy": "BF", "vmScheduler": "SS", "cloudletScheduler": "TS"}]}
+ * */
+public class ExperimentManifest {
+    private final Path path;
+    private final String config;
+    private final String logLevel;
+    private final int runs;
+    private final boolean adaptive;
+    private final int workers;
+    private final String topologyScale;
+    private final String workloadTrace;
+    private final String workloadFormat;
+    private final String arrivalProcess;
+    private final String resultCache;
+    private final String cloudletMapper;
+    private final boolean displayOversubscriptionTable;
+    private final String detailedFormat;
+    private final String detailLevel;
+    private final String outputDirectory;
+    private final boolean sweep;
+    private final List<Combination> combinations = new ArrayList<>();
+
+    //one policy combination of a system, in short codes
+    public static class Combination {
+        private final String system;
+        private final String vmAllocationPolicy;
+        private final String vmScheduler;
+        private final String cloudletScheduler;
+
+        private Combination(String system, String vmAllocationPolicy, String vmScheduler, String cloudletScheduler) {
+            this.system = system;
+            this.vmAllocationPolicy = vmAllocationPolicy;
+            this.vmScheduler = vmScheduler;
+            this.cloudletScheduler = cloudletScheduler;
+        }
+
+        public String getSystem() { return system; }
+        public String getVmAllocationPolicy() { return vmAllocationPolicy; }
+        public String getVmScheduler() { return vmScheduler; }
+        public String getCloudletScheduler() { return cloudletScheduler; }
+    }
+
+    private ExperimentManifest(Path path, JsonObject json) {
+        this.path = path;
+        this.config = stringOr(json, "config", "org/bsc/cloudsimulations/configurations/config.json");
+        this.logLevel = stringOr(json, "logLevel", "OFF").toUpperCase();
+        this.runs = json.has("runs") ? json.get("runs").getAsInt() : 100;
+        this.adaptive = json.has("adaptive") && json.get("adaptive").getAsBoolean();
+        this.workers = json.has("workers") ? json.get("workers").getAsInt() : Runtime.getRuntime().availableProcessors();
+        this.topologyScale = stringOr(json, "topologyScale", "default");
+        this.workloadTrace = stringOr(json, "workloadTrace", null);
+        this.workloadFormat = stringOr(json, "workloadFormat", "swf");
+        this.arrivalProcess = stringOr(json, "arrivalProcess", null);
+        this.resultCache = stringOr(json, "resultCache", "off");
+        this.cloudletMapper = stringOr(json, "cloudletMapper", "S").toUpperCase();
+        this.displayOversubscriptionTable = json.has("displayOversubscriptionTable") && json.get("displayOversubscriptionTable").getAsBoolean();
+        this.detailedFormat = stringOr(json, "detailedFormat", "csv");
+        this.detailLevel = stringOr(json, "detailLevel", "full");
+        this.outputDirectory = stringOr(json, "outputDirectory", ".");
+
+        require(runs > 0, "runs must be positive");
+        require(workers > 0, "workers must be positive");
+        require(topologyScale.matches("default|large|xlarge"), "topologyScale must be default, large or xlarge");
+        require(resultCache.matches("on|off|invalidate"), "resultCache must be on, off or invalidate");
+        require(detailedFormat.matches("csv|bin|both"), "detailedFormat must be csv, bin or both");
+        require(detailLevel.matches("full|reservoir|oversubscribed|summary"), "detailLevel must be full, reservoir, oversubscribed or summary");
+        require(PolicyAndSchedulerShortCodes.CLOUDLET_MAPPERS.containsKey(cloudletMapper),
+                "unknown cloudletMapper " + cloudletMapper + " " + PolicyAndSchedulerShortCodes.CLOUDLET_MAPPERS.keySet());
+
+        JsonElement combinationsJson = json.get("combinations");
+        require(combinationsJson != null, "combinations is required (\"sweep\" or a list)");
+        if (combinationsJson.isJsonPrimitive()) {
+            require(combinationsJson.getAsString().equals("sweep"), "combinations must be \"sweep\" or a list");
+            this.sweep = true;
+        } else {
+            this.sweep = false;
+            for (JsonElement element : combinationsJson.getAsJsonArray()) {
+                JsonObject combination = element.getAsJsonObject();
+                String system = stringOr(combination, "system", "heterogeneous");
+                String vmAllocationPolicy = stringOr(combination, "vmAllocationPolicy", "");
+                String vmScheduler = stringOr(combination, "vmScheduler", "");
+                String cloudletScheduler = stringOr(combination, "cloudletScheduler", "");
+                require(system.matches("homogeneous|heterogeneous"), "system must be homogeneous or heterogeneous");
+                require(PolicyAndSchedulerShortCodes.VM_ALLOCATION_POLICIES.containsKey(vmAllocationPolicy), "unknown vmAllocationPolicy " + vmAllocationPolicy);
+                require(PolicyAndSchedulerShortCodes.VM_SCHEDULERS.containsKey(vmScheduler), "unknown vmScheduler " + vmScheduler);
+                require(PolicyAndSchedulerShortCodes.CLOUDLET_SCHEDULERS.containsKey(cloudletScheduler), "unknown cloudletScheduler " + cloudletScheduler);
+                combinations.add(new Combination(system, vmAllocationPolicy, vmScheduler, cloudletScheduler));
+            }
+            require(!combinations.isEmpty(), "combinations must not be empty");
+        }
+    }
+
+    public static ExperimentManifest fromFile(Path path) {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return new ExperimentManifest(path, JsonParser.parseReader(reader).getAsJsonObject());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read experiment manifest: " + path, e);
+        }
+    }
+
+    private void require(boolean condition, String message) {
+        if (!condition) {
+            throw new RuntimeException("Experiment manifest " + path + ": " + message);
+        }
+    }
+
+    private static String stringOr(JsonObject json, String key, String defaultValue) {
+        return json.has(key) && !json.get(key).isJsonNull() ? json.get(key).getAsString() : defaultValue;
+    }
+
+    public Path getPath() { return path; }
+    public String getConfig() { return config; }
+    public String getLogLevel() { return logLevel; }
+    public int getRuns() { return runs; }
+    public boolean isAdaptive() { return adaptive; }
+    public int getWorkers() { return workers; }
+    public String getTopologyScale() { return topologyScale; }
+    //null for the synthetic cloudlets of the topology profile
+    public String getWorkloadTrace() { return workloadTrace; }
+    public String getWorkloadFormat() { return workloadFormat; }
+    //null for cloudlets all submitted at start
+    public String getArrivalProcess() { return arrivalProcess; }
+    public String getResultCache() { return resultCache; }
+    public String getCloudletMapper() { return cloudletMapper; }
+    public boolean isDisplayOversubscriptionTable() { return displayOversubscriptionTable; }
+    public String getDetailedFormat() { return detailedFormat; }
+    public String getDetailLevel() { return detailLevel; }
+    public String getOutputDirectory() { return outputDirectory; }
+    public boolean isSweep() { return sweep; }
+    public List<Combination> getCombinations() { return Collections.unmodifiableList(combinations); }
+}
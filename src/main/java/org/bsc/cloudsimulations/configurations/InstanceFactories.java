@@ -0,0 +1,56 @@
+package org.bsc.cloudsimulations.configurations;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*
+ * Process-wide cache of factories for the configured policy/scheduler classes
+ * Each class name is resolved once: its public no-arg constructor is looked up and turned into a Supplier
+ * through LambdaMetafactory, so every later instantiation is a plain interface call to "new"
+ * (no Class.forName, no reflective constructor lookup, no newInstance)
+ * */
+final class InstanceFactories {
+    private static final Map<String, Supplier<Object>> FACTORIES = new ConcurrentHashMap<>();
+
+    private InstanceFactories() {
+    }
+
+    static Supplier<Object> forClass(String className) {
+        Supplier<Object> factory = FACTORIES.get(className);
+        return factory != null ? factory : FACTORIES.computeIfAbsent(className, InstanceFactories::resolve);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> resolve(String className) {
+        MethodHandle constructor;
+        Class<?> type;
+        try {
+            type = Class.forName(className);
+            constructor = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class));
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("No public no-arg constructor found for " + className, e);
+        }
+
+        try {
+            CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), "get",
+                    MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                    constructor, MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            //class cannot be linked into a lambda (e.g. not accessible), invoking the cached handle is the next best thing
+            return () -> {
+                try {
+                    return constructor.invoke();
+                } catch (Throwable t) {
+                    throw new RuntimeException("Failed to create instance of " + className, t);
+                }
+            };
+        }
+    }
+}
@@ -10,7 +10,17 @@ public class PolicyAndSchedulerShortCodes {
     public static final Map<String, String> VM_ALLOCATION_POLICIES = Map.of(
             "S", "org.cloudsimplus.allocationpolicies.VmAllocationPolicySimple",
             "FF", "org.cloudsimplus.allocationpolicies.VmAllocationPolicyFirstFit",
-            "BF", "org.cloudsimplus.allocationpolicies.VmAllocationPolicyBestFit"
+            "BF", "org.cloudsimplus.allocationpolicies.VmAllocationPolicyBestFit",
+            "IFF", "org.bsc.cloudsimulations.allocation.VmAllocationPolicyIndexedFirstFit",
+            "IBF", "org.bsc.cloudsimulations.allocation.VmAllocationPolicyIndexedBestFit",
+            "P2", "org.bsc.cloudsimulations.allocation.VmAllocationPolicyPowerOfTwoChoices",
+            "SD", "org.bsc.cloudsimulations.allocation.VmAllocationPolicySampled"
+        );
+
+        //indexed policies place VMs exactly like the policy they map to, so sweeps leave them out
+        public static final Map<String, String> EQUIVALENT_VM_ALLOCATION_POLICIES = Map.of(
+            "IFF", "FF",
+            "IBF", "BF"
         );
 
         public static final Map<String, String> VM_SCHEDULERS = Map.of(
@@ -22,12 +32,21 @@ public class PolicyAndSchedulerShortCodes {
             "TS", "org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerTimeShared",
             "SS", "org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared"
         );
+
+        //cloudlet to VM mapping of the broker: S keeps DatacenterBrokerSimple's own, ECT earliest estimated completion, MIN/MAX min-min/max-min batches
+        public static final Map<String, String> CLOUDLET_MAPPERS = Map.of(
+            "S", "org.bsc.cloudsimulations.brokers.BrokerDefaultMapper",
+            "ECT", "org.bsc.cloudsimulations.brokers.EarliestCompletionTimeMapper",
+            "MIN", "org.bsc.cloudsimulations.brokers.MinMinMapper",
+            "MAX", "org.bsc.cloudsimulations.brokers.MaxMinMapper"
+        );
         
         // Reverse mappings for short code retrieval
         //reverseMap() helper method iterates over forward mappings and swaps keys and values
         private static final Map<String, String> REVERSE_VM_ALLOCATION_POLICIES = reverseMap(VM_ALLOCATION_POLICIES);
         private static final Map<String, String> REVERSE_VM_SCHEDULERS = reverseMap(VM_SCHEDULERS);
         private static final Map<String, String> REVERSE_CLOUDLET_SCHEDULERS = reverseMap(CLOUDLET_SCHEDULERS);
+        private static final Map<String, String> REVERSE_CLOUDLET_MAPPERS = reverseMap(CLOUDLET_MAPPERS);
 
         private static Map<String, String> reverseMap(Map<String, String> map) {
             Map<String, String> reversed = new HashMap<>();
@@ -50,4 +69,8 @@ public class PolicyAndSchedulerShortCodes {
         public static String getShortCodeForCloudletScheduler(String className) {
             return REVERSE_CLOUDLET_SCHEDULERS.getOrDefault(className, "UNKNOWN");
         }
+
+        public static String getShortCodeForCloudletMapper(String className) {
+            return REVERSE_CLOUDLET_MAPPERS.getOrDefault(className, "UNKNOWN");
+        }
 }
@@ -0,0 +1,177 @@
+package org.bsc.cloudsimulations.configurations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/*
+ * Size and composition of a simulated system, read from a "topologyProfiles" entry of config.json
+ * A profile is a list of host, VM and cloudlet classes; each class has a count and the specs shared by all its members
+ * Entities are created class by class in the order they are listed (so profiles reproduce the old hard-coded order)
+ *
+ * Example:
+ * "hosts":     [{"name": "light", "count": 4, "pes": 4, "mips": 1000, "ram": 4096, "bw": 1000, "storage": 1000000}]
+ * "vms":       [{"name": "light", "count": 3, "pes": 1, "mips": 500, "ram": 1024, "bw": 200, "storage": 40000}]
+ * "cloudlets": [{"name": "light", "count": 15, "pes": 1, "length": 1000, "fileSize": 10, "outputSize": 1}]
+ * */
+public class TopologyProfile {
+    private final String name;
+    private final List<HostClass> hostClasses;
+    private final List<VmClass> vmClasses;
+    private final List<CloudletClass> cloudletClasses;
+
+    private TopologyProfile(String name, List<HostClass> hostClasses, List<VmClass> vmClasses, List<CloudletClass> cloudletClasses) {
+        this.name = name;
+        this.hostClasses = Collections.unmodifiableList(hostClasses);
+        this.vmClasses = Collections.unmodifiableList(vmClasses);
+        this.cloudletClasses = Collections.unmodifiableList(cloudletClasses);
+    }
+
+    static TopologyProfile fromJson(String name, JsonObject json) {
+        List<HostClass> hosts = new ArrayList<>();
+        for (JsonObject entry : entries(name, json, "hosts")) {
+            hosts.add(new HostClass(text(entry, "name"), positive(name, entry, "count"), positive(name, entry, "pes"),
+                    positive(name, entry, "mips"), positive(name, entry, "ram"), positive(name, entry, "bw"), positive(name, entry, "storage")));
+        }
+        List<VmClass> vms = new ArrayList<>();
+        for (JsonObject entry : entries(name, json, "vms")) {
+            vms.add(new VmClass(text(entry, "name"), positive(name, entry, "count"), positive(name, entry, "pes"),
+                    positive(name, entry, "mips"), positive(name, entry, "ram"), positive(name, entry, "bw"), positive(name, entry, "storage")));
+        }
+        List<CloudletClass> cloudlets = new ArrayList<>();
+        for (JsonObject entry : entries(name, json, "cloudlets")) {
+            cloudlets.add(new CloudletClass(text(entry, "name"), positive(name, entry, "count"), positive(name, entry, "pes"),
+                    positive(name, entry, "length"), positive(name, entry, "fileSize"), positive(name, entry, "outputSize")));
+        }
+        return new TopologyProfile(name, hosts, vms, cloudlets);
+    }
+
+    private static List<JsonObject> entries(String profile, JsonObject json, String key) {
+        JsonArray array = json.getAsJsonArray(key);
+        if (array == null || array.isEmpty()) {
+            throw new RuntimeException("Topology profile " + profile + " has no " + key);
+        }
+        List<JsonObject> entries = new ArrayList<>(array.size());
+        for (JsonElement element : array) {
+            entries.add(element.getAsJsonObject());
+        }
+        return entries;
+    }
+
+    private static String text(JsonObject entry, String key) {
+        return entry.has(key) ? entry.get(key).getAsString() : "";
+    }
+
+    private static long positive(String profile, JsonObject entry, String key) {
+        if (!entry.has(key)) {
+            throw new RuntimeException("Topology profile " + profile + ": missing " + key + " in " + entry);
+        }
+        long value = entry.get(key).getAsLong();
+        if (value <= 0) {
+            throw new RuntimeException("Topology profile " + profile + ": " + key + " must be positive in " + entry);
+        }
+        return value;
+    }
+
+    public String getName() { return name; }
+    public List<HostClass> getHostClasses() { return hostClasses; }
+    public List<VmClass> getVmClasses() { return vmClasses; }
+    public List<CloudletClass> getCloudletClasses() { return cloudletClasses; }
+
+    //totals are used to size the entity lists up front, so they never grow (and copy) while being filled
+    public int getHostCount() { return total(hostClasses); }
+    public int getVmCount() { return total(vmClasses); }
+    public int getCloudletCount() { return total(cloudletClasses); }
+
+    private static int total(List<? extends EntityClass> classes) {
+        long total = 0;
+        for (EntityClass entityClass : classes) {
+            total += entityClass.getCount();
+        }
+        return Math.toIntExact(total);
+    }
+
+    //common part of every class: a name (for readability of config.json) and how many entities to create
+    public abstract static class EntityClass {
+        private final String name;
+        private final int count;
+
+        EntityClass(String name, long count) {
+            this.name = name;
+            this.count = Math.toIntExact(count);
+        }
+
+        public String getName() { return name; }
+        public int getCount() { return count; }
+    }
+
+    public static class HostClass extends EntityClass {
+        private final int pes;
+        private final long mips;
+        private final long ram;
+        private final long bw;
+        private final long storage;
+
+        HostClass(String name, long count, long pes, long mips, long ram, long bw, long storage) {
+            super(name, count);
+            this.pes = Math.toIntExact(pes);
+            this.mips = mips;
+            this.ram = ram;
+            this.bw = bw;
+            this.storage = storage;
+        }
+
+        public int getPes() { return pes; }
+        public long getMips() { return mips; }
+        public long getRam() { return ram; }
+        public long getBw() { return bw; }
+        public long getStorage() { return storage; }
+    }
+
+    public static class VmClass extends EntityClass {
+        private final int pes;
+        private final long mips;
+        private final long ram;
+        private final long bw;
+        private final long storage;
+
+        VmClass(String name, long count, long pes, long mips, long ram, long bw, long storage) {
+            super(name, count);
+            this.pes = Math.toIntExact(pes);
+            this.mips = mips;
+            this.ram = ram;
+            this.bw = bw;
+            this.storage = storage;
+        }
+
+        public int getPes() { return pes; }
+        public long getMips() { return mips; }
+        public long getRam() { return ram; }
+        public long getBw() { return bw; }
+        public long getStorage() { return storage; }
+    }
+
+    public static class CloudletClass extends EntityClass {
+        private final int pes;
+        private final long length;
+        private final long fileSize;
+        private final long outputSize;
+
+        CloudletClass(String name, long count, long pes, long length, long fileSize, long outputSize) {
+            super(name, count);
+            this.pes = Math.toIntExact(pes);
+            this.length = length;
+            this.fileSize = fileSize;
+            this.outputSize = outputSize;
+        }
+
+        public int getPes() { return pes; }
+        public long getLength() { return length; }
+        public long getFileSize() { return fileSize; }
+        public long getOutputSize() { return outputSize; }
+    }
+}
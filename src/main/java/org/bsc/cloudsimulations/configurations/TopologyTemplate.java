@@ -0,0 +1,154 @@
+package org.bsc.cloudsimulations.configurations;
+
+import java.util.List;
+
+import org.bsc.cloudsimulations.configurations.TopologyProfile.CloudletClass;
+import org.bsc.cloudsimulations.configurations.TopologyProfile.HostClass;
+import org.bsc.cloudsimulations.configurations.TopologyProfile.VmClass;
+
+import com.google.gson.JsonObject;
+
+/*
+ * Compiled, immutable form of a topology profile: the specs of every host, VM and cloudlet class in primitive arrays
+ * (one entry per class, in profile order), plus the entity totals
+ * Compiled once per configuration and shared read-only by all of its runs (copies of a ConfigLoader keep the compiled
+ * templates until a section is updated), so a run neither parses the profile again nor walks class objects;
+ * it only creates its own CloudSim Plus entities, which are bound to its simulation and cannot be shared
+ * Host classes also get the idle and full-load power of their entry in "powerModels" (by class name, in watts);
+ * a class without one draws no power
+ * */
+public final class TopologyTemplate {
+    private final TopologyProfile profile;
+
+    private final int[] hostCounts;
+    private final int[] hostPes;
+    private final long[] hostMips;
+    private final long[] hostRam;
+    private final long[] hostBw;
+    private final long[] hostStorage;
+    private final double[] hostIdlePower;
+    private final double[] hostMaxPower;
+
+    private final int[] vmCounts;
+    private final int[] vmPes;
+    private final long[] vmMips;
+    private final long[] vmRam;
+    private final long[] vmBw;
+    private final long[] vmStorage;
+
+    private final int[] cloudletCounts;
+    private final int[] cloudletPes;
+    private final long[] cloudletLengths;
+    private final long[] cloudletFileSizes;
+    private final long[] cloudletOutputSizes;
+
+    private final int hostCount;
+    private final int vmCount;
+    private final int cloudletCount;
+
+    private TopologyTemplate(TopologyProfile profile, JsonObject powerModels) {
+        this.profile = profile;
+
+        List<HostClass> hosts = profile.getHostClasses();
+        hostCounts = new int[hosts.size()];
+        hostPes = new int[hosts.size()];
+        hostMips = new long[hosts.size()];
+        hostRam = new long[hosts.size()];
+        hostBw = new long[hosts.size()];
+        hostStorage = new long[hosts.size()];
+        hostIdlePower = new double[hosts.size()];
+        hostMaxPower = new double[hosts.size()];
+        for (int i = 0; i < hosts.size(); i++) {
+            HostClass host = hosts.get(i);
+            hostCounts[i] = host.getCount();
+            hostPes[i] = host.getPes();
+            hostMips[i] = host.getMips();
+            hostRam[i] = host.getRam();
+            hostBw[i] = host.getBw();
+            hostStorage[i] = host.getStorage();
+            if (powerModels != null && powerModels.has(host.getName())) {
+                JsonObject power = powerModels.getAsJsonObject(host.getName());
+                hostIdlePower[i] = power.has("idle") ? power.get("idle").getAsDouble() : 0;
+                hostMaxPower[i] = power.has("max") ? power.get("max").getAsDouble() : 0;
+                if (hostIdlePower[i] < 1 || hostMaxPower[i] < hostIdlePower[i]) {
+                    throw new RuntimeException("Power model of host class " + host.getName()
+                            + ": idle must be at least 1 W and max at least idle");
+                }
+            }
+        }
+
+        List<VmClass> vms = profile.getVmClasses();
+        vmCounts = new int[vms.size()];
+        vmPes = new int[vms.size()];
+        vmMips = new long[vms.size()];
+        vmRam = new long[vms.size()];
+        vmBw = new long[vms.size()];
+        vmStorage = new long[vms.size()];
+        for (int i = 0; i < vms.size(); i++) {
+            VmClass vm = vms.get(i);
+            vmCounts[i] = vm.getCount();
+            vmPes[i] = vm.getPes();
+            vmMips[i] = vm.getMips();
+            vmRam[i] = vm.getRam();
+            vmBw[i] = vm.getBw();
+            vmStorage[i] = vm.getStorage();
+        }
+
+        List<CloudletClass> cloudlets = profile.getCloudletClasses();
+        cloudletCounts = new int[cloudlets.size()];
+        cloudletPes = new int[cloudlets.size()];
+        cloudletLengths = new long[cloudlets.size()];
+        cloudletFileSizes = new long[cloudlets.size()];
+        cloudletOutputSizes = new long[cloudlets.size()];
+        for (int i = 0; i < cloudlets.size(); i++) {
+            CloudletClass cloudlet = cloudlets.get(i);
+            cloudletCounts[i] = cloudlet.getCount();
+            cloudletPes[i] = cloudlet.getPes();
+            cloudletLengths[i] = cloudlet.getLength();
+            cloudletFileSizes[i] = cloudlet.getFileSize();
+            cloudletOutputSizes[i] = cloudlet.getOutputSize();
+        }
+
+        hostCount = profile.getHostCount();
+        vmCount = profile.getVmCount();
+        cloudletCount = profile.getCloudletCount();
+    }
+
+    static TopologyTemplate compile(TopologyProfile profile, JsonObject powerModels) {
+        return new TopologyTemplate(profile, powerModels);
+    }
+
+    //the profile it was compiled from (class names, and the class lists the arrival processes draw from)
+    public TopologyProfile getProfile() { return profile; }
+    public String getName() { return profile.getName(); }
+
+    public int getHostCount() { return hostCount; }
+    public int getVmCount() { return vmCount; }
+    public int getCloudletCount() { return cloudletCount; }
+
+    public int getHostClassCount() { return hostCounts.length; }
+    public int getHostCount(int hostClass) { return hostCounts[hostClass]; }
+    public int getHostPes(int hostClass) { return hostPes[hostClass]; }
+    public long getHostMips(int hostClass) { return hostMips[hostClass]; }
+    public long getHostRam(int hostClass) { return hostRam[hostClass]; }
+    public long getHostBw(int hostClass) { return hostBw[hostClass]; }
+    public long getHostStorage(int hostClass) { return hostStorage[hostClass]; }
+    public boolean hasHostPowerModel(int hostClass) { return hostMaxPower[hostClass] > 0; }
+    public double getHostIdlePower(int hostClass) { return hostIdlePower[hostClass]; }
+    public double getHostMaxPower(int hostClass) { return hostMaxPower[hostClass]; }
+
+    public int getVmClassCount() { return vmCounts.length; }
+    public int getVmCount(int vmClass) { return vmCounts[vmClass]; }
+    public int getVmPes(int vmClass) { return vmPes[vmClass]; }
+    public long getVmMips(int vmClass) { return vmMips[vmClass]; }
+    public long getVmRam(int vmClass) { return vmRam[vmClass]; }
+    public long getVmBw(int vmClass) { return vmBw[vmClass]; }
+    public long getVmStorage(int vmClass) { return vmStorage[vmClass]; }
+
+    public int getCloudletClassCount() { return cloudletCounts.length; }
+    public int getCloudletCount(int cloudletClass) { return cloudletCounts[cloudletClass]; }
+    public int getCloudletPes(int cloudletClass) { return cloudletPes[cloudletClass]; }
+    public long getCloudletLength(int cloudletClass) { return cloudletLengths[cloudletClass]; }
+    public long getCloudletFileSize(int cloudletClass) { return cloudletFileSizes[cloudletClass]; }
+    public long getCloudletOutputSize(int cloudletClass) { return cloudletOutputSizes[cloudletClass]; }
+}
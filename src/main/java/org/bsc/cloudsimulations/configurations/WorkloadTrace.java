@@ -0,0 +1,97 @@
+package org.bsc.cloudsimulations.configurations;
+
+import com.google.gson.JsonObject;
+
+/*
+ * Trace-driven workload of a section: the trace file ("workloadTrace") and how to read it ("workloadFormat",
+ * an entry of "workloadFormats" in config.json)
+ * Two format types are understood:
+ * - "swf": Standard Workload Format, whitespace separated, ';' comment lines
+ *   (submit time, run time and allocated/requested processors are taken from their fixed SWF fields)
+ * - "csv": cluster task tables (Google, Alibaba...), columns given by index (0-based);
+ *   run time comes from runTimeColumn, or from endTimeColumn - submitTimeColumn
+ * Times are multiplied by timeScale to get seconds, CPUs by cpusScale to get PEs (e.g. Alibaba plan_cpu 100 = 1 core)
+ * Run times are turned into cloudlet lengths with referenceMips (0: MIPS of the first VM class of the topology)
+ *
+ * Example:
+ * "alibaba-batch-task": {"type": "csv", "delimiter": ",", "header": false, "submitTimeColumn": 5, "endTimeColumn": 6,
+ *                        "cpusColumn": 7, "cpusScale": 0.01}
+ * */
+public class WorkloadTrace {
+    private final String path;
+    private final String format;
+    private final String type;
+    private final char delimiter;
+    private final boolean header;
+    private final int submitTimeColumn;
+    private final int runTimeColumn;
+    private final int endTimeColumn;
+    private final int cpusColumn;
+    private final double timeScale;
+    private final double cpusScale;
+    private final double referenceMips;
+    private final double lookaheadSeconds;
+    private final long maxJobs;
+    private final long fileSize;
+    private final long outputSize;
+
+    private WorkloadTrace(String path, String format, JsonObject json) {
+        this.path = path;
+        this.format = format;
+        this.type = json.has("type") ? json.get("type").getAsString() : "swf";
+        if (!type.equals("swf") && !type.equals("csv")) {
+            throw new RuntimeException("Workload format " + format + ": unknown type " + type + " (swf or csv)");
+        }
+        String delimiterText = json.has("delimiter") ? json.get("delimiter").getAsString() : ",";
+        if (delimiterText.length() != 1) {
+            throw new RuntimeException("Workload format " + format + ": delimiter must be a single character");
+        }
+        this.delimiter = delimiterText.charAt(0);
+        this.header = json.has("header") && json.get("header").getAsBoolean();
+        this.submitTimeColumn = intOr(json, "submitTimeColumn", 0);
+        this.runTimeColumn = intOr(json, "runTimeColumn", -1);
+        this.endTimeColumn = intOr(json, "endTimeColumn", -1);
+        this.cpusColumn = intOr(json, "cpusColumn", -1);
+        if (type.equals("csv") && runTimeColumn < 0 && endTimeColumn < 0) {
+            throw new RuntimeException("Workload format " + format + ": runTimeColumn or endTimeColumn is required");
+        }
+        this.timeScale = doubleOr(json, "timeScale", 1);
+        this.cpusScale = doubleOr(json, "cpusScale", 1);
+        this.referenceMips = doubleOr(json, "referenceMips", 0);
+        this.lookaheadSeconds = doubleOr(json, "lookaheadSeconds", 60);
+        this.maxJobs = json.has("maxJobs") ? json.get("maxJobs").getAsLong() : 0;
+        this.fileSize = json.has("fileSize") ? json.get("fileSize").getAsLong() : 300;
+        this.outputSize = json.has("outputSize") ? json.get("outputSize").getAsLong() : 300;
+    }
+
+    static WorkloadTrace fromJson(String path, String format, JsonObject json) {
+        return new WorkloadTrace(path, format, json);
+    }
+
+    private static int intOr(JsonObject json, String key, int defaultValue) {
+        return json.has(key) ? json.get(key).getAsInt() : defaultValue;
+    }
+
+    private static double doubleOr(JsonObject json, String key, double defaultValue) {
+        return json.has(key) ? json.get(key).getAsDouble() : defaultValue;
+    }
+
+    public String getPath() { return path; }
+    public String getFormat() { return format; }
+    public boolean isSwf() { return type.equals("swf"); }
+    public char getDelimiter() { return delimiter; }
+    public boolean hasHeader() { return header; }
+    public int getSubmitTimeColumn() { return submitTimeColumn; }
+    public int getRunTimeColumn() { return runTimeColumn; }
+    public int getEndTimeColumn() { return endTimeColumn; }
+    public int getCpusColumn() { return cpusColumn; }
+    public double getTimeScale() { return timeScale; }
+    public double getCpusScale() { return cpusScale; }
+    public double getReferenceMips() { return referenceMips; }
+    //jobs are handed to the broker this far ahead of their arrival
+    public double getLookaheadSeconds() { return lookaheadSeconds; }
+    //0 = whole trace
+    public long getMaxJobs() { return maxJobs; }
+    public long getFileSize() { return fileSize; }
+    public long getOutputSize() { return outputSize; }
+}
@@ -0,0 +1,77 @@
+package org.bsc.cloudsimulations.daemon;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/*
+ * Submits jobs to a running simulation daemon (Main --submit <jobs.json> [--port <port>])
+ * The file holds one job object or an array of them (see DaemonJob); they are sent one after another on one connection
+ * Metrics rows are printed to standard output as the daemon streams them, with a single header,
+ * so the output can be redirected into a CSV file; the daemon's done/error lines go to standard error
+ * */
+public final class DaemonClient {
+    private DaemonClient() {
+    }
+
+    //returns the number of jobs that failed
+    public static int submit(int port, Reader jobsJson, PrintStream rows, PrintStream messages) {
+        JsonElement parsed = JsonParser.parseReader(jobsJson);
+        List<JsonElement> jobs = new ArrayList<>();
+        if (parsed.isJsonArray()) {
+            parsed.getAsJsonArray().forEach(jobs::add);
+        } else {
+            jobs.add(parsed);
+        }
+
+        int failed = 0;
+        boolean headerPrinted = false;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            for (JsonElement job : jobs) {
+                out.write(job.toString()); //compact form, one line
+                out.write('\n');
+                out.flush();
+
+                boolean firstLine = true;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.startsWith(SimulationDaemon.DONE) || line.startsWith(SimulationDaemon.ERROR)) {
+                        messages.println(line);
+                        if (line.startsWith(SimulationDaemon.ERROR)) {
+                            failed++;
+                        }
+                        break;
+                    }
+                    //every answer starts with the header, only the first one is kept
+                    if (!firstLine || !headerPrinted) {
+                        rows.println(line);
+                        headerPrinted = true;
+                    }
+                    firstLine = false;
+                }
+                if (line == null) {
+                    throw new IOException("Daemon closed the connection");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot talk to the simulation daemon on 127.0.0.1:" + port, e);
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,69 @@
+package org.bsc.cloudsimulations.daemon;
+
+import org.bsc.cloudsimulations.configurations.PolicyAndSchedulerShortCodes;
+
+import com.google.gson.JsonObject;
+
+/*
+ * One experiment request sent to the simulation daemon: a policy combination of a system and a run count (runs 1..runs,
+ * seeded as in a batch, so the rows match the ones of Main for the same configuration)
+ * Policies in short codes, as at the prompts:
+ * {"system": "heterogeneous", "vmAllocationPolicy": "BF", "vmScheduler": "SS", "cloudletScheduler": "TS", "runs": 20}
+ * Optional: "cloudletMapper" (short code, S by default) and "topologyScale" (default, large or xlarge)
+ * */
+public class DaemonJob {
+    private final String system;
+    private final String vmAllocationPolicy;
+    private final String vmScheduler;
+    private final String cloudletScheduler;
+    private final String cloudletMapper;
+    private final String topologyScale;
+    private final int runs;
+
+    private DaemonJob(JsonObject json) {
+        system = stringOr(json, "system", "heterogeneous");
+        vmAllocationPolicy = stringOr(json, "vmAllocationPolicy", "").toUpperCase();
+        vmScheduler = stringOr(json, "vmScheduler", "").toUpperCase();
+        cloudletScheduler = stringOr(json, "cloudletScheduler", "").toUpperCase();
+        cloudletMapper = stringOr(json, "cloudletMapper", "S").toUpperCase();
+        topologyScale = stringOr(json, "topologyScale", "default");
+        runs = json.has("runs") ? json.get("runs").getAsInt() : 1;
+
+        require(system.matches("homogeneous|heterogeneous"), "system must be homogeneous or heterogeneous");
+        require(PolicyAndSchedulerShortCodes.VM_ALLOCATION_POLICIES.containsKey(vmAllocationPolicy), "unknown vmAllocationPolicy " + vmAllocationPolicy);
+        require(PolicyAndSchedulerShortCodes.VM_SCHEDULERS.containsKey(vmScheduler), "unknown vmScheduler " + vmScheduler);
+        require(PolicyAndSchedulerShortCodes.CLOUDLET_SCHEDULERS.containsKey(cloudletScheduler), "unknown cloudletScheduler " + cloudletScheduler);
+        require(PolicyAndSchedulerShortCodes.CLOUDLET_MAPPERS.containsKey(cloudletMapper), "unknown cloudletMapper " + cloudletMapper);
+        require(topologyScale.matches("default|large|xlarge"), "topologyScale must be default, large or xlarge");
+        require(runs > 0, "runs must be positive");
+    }
+
+    public static DaemonJob fromJson(JsonObject json) {
+        return new DaemonJob(json);
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException("Invalid job: " + message);
+        }
+    }
+
+    private static String stringOr(JsonObject json, String key, String defaultValue) {
+        return json.has(key) && !json.get(key).isJsonNull() ? json.get(key).getAsString() : defaultValue;
+    }
+
+    public boolean isHomogeneous() { return system.equals("homogeneous"); }
+    public String getSystem() { return system; }
+    public String getVmAllocationPolicy() { return vmAllocationPolicy; }
+    public String getVmScheduler() { return vmScheduler; }
+    public String getCloudletScheduler() { return cloudletScheduler; }
+    public String getCloudletMapper() { return cloudletMapper; }
+    public String getTopologyScale() { return topologyScale; }
+    public int getRuns() { return runs; }
+
+    @Override
+    public String toString() {
+        return system + " [" + vmAllocationPolicy + "-" + vmScheduler + "-" + cloudletScheduler + "]"
+                + (cloudletMapper.equals("S") ? "" : " (" + cloudletMapper + " mapping)") + ", " + topologyScale + ", " + runs + " runs";
+    }
+}
@@ -0,0 +1,175 @@
+package org.bsc.cloudsimulations.daemon;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.bsc.cloudsimulations.execution.ParallelRunExecutor;
+import org.bsc.cloudsimulations.execution.RunTask;
+import org.bsc.cloudsimulations.results.CsvFileWriter;
+import org.bsc.cloudsimulations.results.StreamResultSink;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/*
+ * Long-lived simulation server: keeps one warm JVM (classes loaded, JIT compiled) and one worker pool for every job,
+ * so scripted experiments no longer pay JVM startup and a cold JIT per invocation
+ * Listens on localhost only ("daemon" in config.json: {"port": 9465, "workers": 0 for all cores, "shutdownToken": ""}),
+ * one thread per client
+ * Protocol, UTF-8 lines:
+ * - the client sends one DaemonJob as a JSON object per line, or {"command": "shutdown", "token": "..."} to stop the daemon;
+ *   any local process can connect, so shutdown is refused unless the config sets a non-empty shutdownToken and the command
+ *   carries the same token
+ * - the daemon answers each job with the metrics header and then the metrics rows as CSV, in run order as runs finish,
+ *   and ends the answer with "# done <runs> runs in <ms> ms", or "# error <message>" if the job is invalid or a run fails
+ * Jobs of several clients share the worker pool (also with one worker, so clients never run simulations on their own
+ * threads), the runs of each job are drained in their own order; when a run fails, the job's remaining runs are cancelled
+ * */
+public class SimulationDaemon implements AutoCloseable {
+    public static final String DONE = "# done";
+    public static final String ERROR = "# error";
+    public static final int DEFAULT_PORT = 9465;
+
+    private final ServerSocket server;
+    private final ParallelRunExecutor executor;
+    //runs 1..n of a job, by run id
+    private final Function<DaemonJob, IntFunction<RunTask>> jobRuns;
+    private final ExecutorService clients = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "daemon-client");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger jobs = new AtomicInteger();
+    //null when clients may not shut the daemon down
+    private final String shutdownToken;
+
+    public SimulationDaemon(int port, int workers, String shutdownToken, Function<DaemonJob, IntFunction<RunTask>> jobRuns)
+            throws IOException {
+        this.server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.executor = new ParallelRunExecutor(workers, true);
+        this.shutdownToken = shutdownToken == null || shutdownToken.isEmpty() ? null : shutdownToken;
+        this.jobRuns = jobRuns;
+    }
+
+    //"daemon": {"port": ..., "workers": ..., "shutdownToken": ...} of config.json, defaults when missing
+    public static SimulationDaemon fromConfig(ConfigLoader configLoader, Function<DaemonJob, IntFunction<RunTask>> jobRuns) throws IOException {
+        JsonObject settings = configLoader.getSettings("daemon");
+        int port = settings != null && settings.has("port") ? settings.get("port").getAsInt() : DEFAULT_PORT;
+        int workers = settings != null && settings.has("workers") ? settings.get("workers").getAsInt() : 0;
+        String shutdownToken = settings != null && settings.has("shutdownToken") ? settings.get("shutdownToken").getAsString() : null;
+        return new SimulationDaemon(port, workers > 0 ? workers : Runtime.getRuntime().availableProcessors(), shutdownToken, jobRuns);
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    //accepts clients until shut down by a client or closed
+    public void serve() {
+        System.out.println("Simulation daemon listening on 127.0.0.1:" + getPort() + " with " + executor.getWorkers() + " workers");
+        while (!server.isClosed()) {
+            try {
+                Socket client = server.accept();
+                clients.execute(() -> handle(client));
+            } catch (SocketException e) {
+                break; //closed by a shutdown command
+            } catch (IOException e) {
+                System.err.println("Cannot accept client: " + e.getMessage());
+            }
+        }
+        System.out.println("Simulation daemon stopped after " + jobs.get() + " jobs");
+    }
+
+    private void handle(Socket client) {
+        try (Socket socket = client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             CsvFileWriter out = new CsvFileWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)))) {
+            StreamResultSink sink = new StreamResultSink(out);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                DaemonJob job;
+                try {
+                    JsonObject request = JsonParser.parseString(line).getAsJsonObject();
+                    if (request.has("command")) {
+                        if (!request.get("command").getAsString().equals("shutdown")) {
+                            throw new IllegalArgumentException("Unknown command: " + request.get("command").getAsString());
+                        }
+                        if (shutdownToken == null) {
+                            throw new IllegalArgumentException("Shutdown is disabled, set daemon.shutdownToken in the config to allow it");
+                        }
+                        if (!request.has("token") || !shutdownToken.equals(request.get("token").getAsString())) {
+                            throw new IllegalArgumentException("Wrong shutdown token");
+                        }
+                        reply(out, DONE + " shutting down");
+                        close();
+                        return;
+                    }
+                    job = DaemonJob.fromJson(request);
+                } catch (RuntimeException e) {
+                    reply(out, ERROR + " " + e.getMessage());
+                    continue;
+                }
+                run(job, sink, out);
+            }
+        } catch (IOException e) {
+            System.err.println("Client connection failed: " + e.getMessage());
+        }
+    }
+
+    private void run(DaemonJob job, StreamResultSink sink, CsvFileWriter out) throws IOException {
+        int jobId = jobs.incrementAndGet();
+        System.out.println("Job " + jobId + ": " + job);
+        long start = System.nanoTime();
+        try {
+            IntFunction<RunTask> runs = jobRuns.apply(job);
+            List<RunTask> tasks = new ArrayList<>(job.getRuns());
+            for (int runId = 1; runId <= job.getRuns(); runId++) {
+                tasks.add(runs.apply(runId));
+            }
+            sink.writeHeader();
+            executor.runAll(tasks, sink);
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            reply(out, ERROR + " " + e.getMessage() + (cause != e ? ": " + cause : ""));
+            return;
+        }
+        reply(out, DONE + " " + job.getRuns() + " runs in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    //protocol lines are written as they are, not as CSV fields
+    private static void reply(CsvFileWriter out, String message) throws IOException {
+        out.writeLine(message);
+        out.flush();
+    }
+
+    //stops accepting clients and shuts the pool down; queued runs still finish, jobs of other clients still submitting get an error
+    @Override
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            //closing anyway
+        }
+        clients.shutdown();
+        executor.close();
+    }
+}
@@ -0,0 +1,232 @@
+package org.bsc.cloudsimulations.execution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.bsc.cloudsimulations.results.CloudletHistogramRecord;
+import org.bsc.cloudsimulations.results.CloudletRecordBatch;
+import org.bsc.cloudsimulations.results.MetricsRecord;
+import org.bsc.cloudsimulations.results.ResultSink;
+import org.bsc.cloudsimulations.results.UtilizationSeriesRecord;
+import org.bsc.cloudsimulations.statistics.OnlineStatistics;
+
+import com.google.gson.JsonObject;
+
+/*
+ * Runs every combination only until its makespan and throughput have converged, instead of a fixed number of runs
+ * A combination has converged once the 95% CI half-width of both metrics is at most a fraction of their mean ("adaptiveRuns" in config.json)
+ * - every combination first gets minRuns runs (a CI needs a few observations to mean anything)
+ * - then runs are handed out in rounds, one at a time to the combination with the widest relative half-width;
+ *   its width is projected to shrink by sqrt(n / (n + 1)) per run, so a round spreads over the noisiest combinations
+ * - it stops once every combination converged or the run budget (runs per combination x combinations) is spent
+ * Rounds have a fixed size and run ids are handed out in order, so the decisions, and the runs, don't depend on the worker count
+ * */
+public class AdaptiveRunScheduler {
+    private final int minRuns;
+    private final double relativeHalfWidth;
+    private final int roundSize;
+    private final long budget;
+    private final List<Combination> combinations = new ArrayList<>();
+    private long scheduledRuns;
+
+    public AdaptiveRunScheduler(int minRuns, double relativeHalfWidth, int roundSize, long budget) {
+        if (minRuns < 2 || relativeHalfWidth <= 0 || roundSize < 1) {
+            throw new IllegalArgumentException("Adaptive runs need minRuns >= 2, a positive relativeHalfWidth and roundSize >= 1");
+        }
+        this.minRuns = minRuns;
+        this.relativeHalfWidth = relativeHalfWidth;
+        this.roundSize = roundSize;
+        this.budget = budget;
+    }
+
+    public static AdaptiveRunScheduler fromConfig(ConfigLoader configLoader, long budget) {
+        JsonObject settings = configLoader.getSettings("adaptiveRuns");
+        int minRuns = settings != null && settings.has("minRuns") ? settings.get("minRuns").getAsInt() : 5;
+        double relativeHalfWidth = settings != null && settings.has("relativeHalfWidth") ? settings.get("relativeHalfWidth").getAsDouble() : 0.05;
+        int roundSize = settings != null && settings.has("roundSize") ? settings.get("roundSize").getAsInt() : 16;
+        return new AdaptiveRunScheduler(minRuns, relativeHalfWidth, roundSize, budget);
+    }
+
+    //runs of one combination, the function creates the run of the given run id (1, 2, ...)
+    public void addCombination(String label, IntFunction<RunTask> runs) {
+        combinations.add(new Combination(label, runs));
+    }
+
+    public long getScheduledRuns() {
+        return scheduledRuns;
+    }
+
+    public void runAll(ParallelRunExecutor executor, ResultSink sink, BatchProgress progress) {
+        //pilot runs, combination by combination like a fixed batch
+        int[] pilot = new int[combinations.size()];
+        long remaining = budget;
+        for (int i = 0; i < pilot.length; i++) {
+            pilot[i] = (int) Math.min(minRuns, Math.max(remaining, 0));
+            remaining -= pilot[i];
+        }
+        List<RunTask> round = createRound(pilot);
+        while (!round.isEmpty()) {
+            progress.addPlannedRuns(round.size());
+            List<RunTask> tracked = new ArrayList<>(round.size());
+            for (RunTask task : round) {
+                tracked.add(progress.track(task));
+            }
+            executor.runAll(tracked, sink);
+            round = createRound(nextRound());
+        }
+        printReport();
+    }
+
+    //extra runs of each combination for the next round, given to the widest projected half-widths first
+    private int[] nextRound() {
+        int[] runs = new int[combinations.size()];
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(
+                (a, b) -> a.score != b.score ? Double.compare(b.score, a.score) : Integer.compare(a.index, b.index));
+        for (int i = 0; i < combinations.size(); i++) {
+            double score = combinations.get(i).score(relativeHalfWidth);
+            if (score > 1) {
+                candidates.add(new Candidate(i, score));
+            }
+        }
+        int assigned = 0;
+        while (assigned < roundSize && scheduledRuns + assigned < budget && !candidates.isEmpty()) {
+            Candidate candidate = candidates.poll();
+            Combination combination = combinations.get(candidate.index);
+            long runsSoFar = Math.max(combination.getCompletedRuns(), 1) + runs[candidate.index];
+            runs[candidate.index]++;
+            assigned++;
+            candidate.score *= Math.sqrt((double) runsSoFar / (runsSoFar + 1));
+            if (candidate.score > 1) {
+                candidates.add(candidate);
+            }
+        }
+        return runs;
+    }
+
+    private List<RunTask> createRound(int[] runs) {
+        List<RunTask> round = new ArrayList<>();
+        for (int i = 0; i < runs.length; i++) {
+            Combination combination = combinations.get(i);
+            for (int r = 0; r < runs[i]; r++) {
+                round.add(combination.nextRun());
+                scheduledRuns++;
+            }
+        }
+        return round;
+    }
+
+    private void printReport() {
+        System.out.println("Adaptive runs (target: 95% CI half-width <= " + relativeHalfWidth * 100 + "% of the mean), "
+                + scheduledRuns + " of " + budget + " budgeted runs used:");
+        System.out.printf("%-40s %-6s %-22s %-22s %-10s%n", "Combination", "Runs", "Makespan", "Throughput", "Status");
+        for (Combination combination : combinations) {
+            System.out.printf("%-40s %-6d %-22s %-22s %-10s%n", combination.label, combination.getCompletedRuns(),
+                    formatRelativeHalfWidth(combination.statistics(combination.makespans)),
+                    formatRelativeHalfWidth(combination.statistics(combination.throughputs)),
+                    combination.score(relativeHalfWidth) <= 1 ? "converged" : "budget");
+        }
+    }
+
+    private static String formatRelativeHalfWidth(OnlineStatistics statistics) {
+        return String.format("%.2f +/- %.1f%%", statistics.getMean(), 100 * relativeHalfWidthOf(statistics));
+    }
+
+    //half-width relative to the mean, infinite while there is no interval yet
+    private static double relativeHalfWidthOf(OnlineStatistics statistics) {
+        double halfWidth = statistics.getConfidenceHalfWidth();
+        if (Double.isNaN(halfWidth)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if (halfWidth == 0) {
+            return 0;
+        }
+        return halfWidth / Math.abs(statistics.getMean());
+    }
+
+    private static class Candidate {
+        private final int index;
+        private double score;
+
+        Candidate(int index, double score) {
+            this.index = index;
+            this.score = score;
+        }
+    }
+
+    //one policy combination: its run factory and the two stopping metrics of every finished run
+    //values are stored by run id and fed to the statistics in that order, so the scores (and the decisions taken on them)
+    //don't depend on the order in which the workers finished; they are written by the runs themselves, so access is synchronized
+    private static class Combination {
+        private final String label;
+        private final IntFunction<RunTask> runs;
+        private double[] makespans = new double[16];
+        private double[] throughputs = new double[16];
+        private int nextRunId = 1;
+        private long completedRuns;
+
+        Combination(String label, IntFunction<RunTask> runs) {
+            this.label = label;
+            this.runs = runs;
+        }
+
+        RunTask nextRun() {
+            final int runId = nextRunId++;
+            RunTask task = runs.apply(runId);
+            return sink -> task.run(new ResultSink() {
+                @Override
+                public void writeCloudlets(CloudletRecordBatch batch) {
+                    sink.writeCloudlets(batch);
+                }
+
+                @Override
+                public void writeMetrics(MetricsRecord record) {
+                    add(runId, record);
+                    sink.writeMetrics(record);
+                }
+
+                @Override
+                public void writeHistograms(CloudletHistogramRecord record) {
+                    sink.writeHistograms(record);
+                }
+
+                @Override
+                public void writeUtilization(UtilizationSeriesRecord record) {
+                    sink.writeUtilization(record);
+                }
+            });
+        }
+
+        private synchronized void add(int runId, MetricsRecord record) {
+            if (runId > makespans.length) {
+                int capacity = Math.max(makespans.length * 2, runId);
+                makespans = Arrays.copyOf(makespans, capacity);
+                throughputs = Arrays.copyOf(throughputs, capacity);
+            }
+            makespans[runId - 1] = record.getMakespan();
+            throughputs[runId - 1] = record.getThroughput();
+            completedRuns++;
+        }
+
+        //runs are only scored between rounds, when every run id up to nextRunId has finished
+        synchronized OnlineStatistics statistics(double[] values) {
+            OnlineStatistics statistics = new OnlineStatistics();
+            for (int i = 0; i < nextRunId - 1; i++) {
+                statistics.add(values[i]);
+            }
+            return statistics;
+        }
+
+        synchronized long getCompletedRuns() {
+            return completedRuns;
+        }
+
+        //widest half-width of the two metrics in units of the target, <= 1 once converged
+        synchronized double score(double relativeHalfWidth) {
+            return Math.max(relativeHalfWidthOf(statistics(makespans)), relativeHalfWidthOf(statistics(throughputs))) / relativeHalfWidth;
+        }
+    }
+}
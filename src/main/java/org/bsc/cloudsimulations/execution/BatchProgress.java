@@ -0,0 +1,73 @@
+package org.bsc.cloudsimulations.execution;
+
+import org.bsc.cloudsimulations.statistics.P2QuantileEstimator;
+
+/*
+ * Live progress of a batch: planned, in-flight, completed and failed runs, and the wall time of the finished ones
+ * Tasks are wrapped with track(), so it works the same with one or many workers (and for replayed cached runs)
+ * Wall time quantiles are P-square estimates, memory does not grow with the number of runs
+ * Read concurrently by the metrics endpoint, every access is synchronized
+ * */
+public class BatchProgress {
+    private final long startNanos = System.nanoTime();
+    private final P2QuantileEstimator wallTimeP50 = new P2QuantileEstimator(0.5);
+    private final P2QuantileEstimator wallTimeP99 = new P2QuantileEstimator(0.99);
+    private long plannedRuns;
+    private long inFlightRuns;
+    private long completedRuns;
+    private long failedRuns;
+    private double wallTimeSumSeconds;
+
+    public synchronized void addPlannedRuns(long runs) {
+        plannedRuns += runs;
+    }
+
+    //wraps a task so its start, end and wall time are counted
+    public RunTask track(RunTask task) {
+        return sink -> {
+            started();
+            long start = System.nanoTime();
+            boolean completed = false;
+            try {
+                task.run(sink);
+                completed = true;
+            } finally {
+                finished((System.nanoTime() - start) / 1e9, completed);
+            }
+        };
+    }
+
+    private synchronized void started() {
+        inFlightRuns++;
+    }
+
+    private synchronized void finished(double wallTimeSeconds, boolean completed) {
+        inFlightRuns--;
+        if (!completed) {
+            failedRuns++;
+            return;
+        }
+        completedRuns++;
+        wallTimeSumSeconds += wallTimeSeconds;
+        wallTimeP50.add(wallTimeSeconds);
+        wallTimeP99.add(wallTimeSeconds);
+    }
+
+    public synchronized long getPlannedRuns() { return plannedRuns; }
+    public synchronized long getInFlightRuns() { return inFlightRuns; }
+    public synchronized long getCompletedRuns() { return completedRuns; }
+    public synchronized long getFailedRuns() { return failedRuns; }
+    public synchronized double getWallTimeSumSeconds() { return wallTimeSumSeconds; }
+    public synchronized double getWallTimeP50Seconds() { return wallTimeP50.getQuantile(); }
+    public synchronized double getWallTimeP99Seconds() { return wallTimeP99.getQuantile(); }
+
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startNanos) / 1e9;
+    }
+
+    //average rate since the batch started
+    public synchronized double getRunsPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? completedRuns / elapsed : 0;
+    }
+}
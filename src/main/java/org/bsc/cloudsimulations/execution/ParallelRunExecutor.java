@@ -0,0 +1,94 @@
+package org.bsc.cloudsimulations.execution;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.bsc.cloudsimulations.results.BufferedResultSink;
+import org.bsc.cloudsimulations.results.ResultSink;
+
+/*
+ * Executes independent simulation runs on a pool of worker threads
+ * With a single worker the runs are executed one after another in the calling thread (previous behaviour)
+ * With more workers each run writes into its own BufferedResultSink, and the buffers are drained
+ * into the real sink strictly in task order, so the output matches a sequential batch
+ * At most 'window' runs are kept in flight/buffered at once, which bounds the memory held by finished runs
+ * When a run fails, the runs still in flight are cancelled before the failure is rethrown
+ * A pooled executor uses its pool even with a single worker, so callers on several threads share the workers
+ * instead of each running its tasks in its own thread
+ * */
+public class ParallelRunExecutor implements AutoCloseable {
+    private final int workers;
+    private final int window;
+    private final ForkJoinPool pool;
+
+    public ParallelRunExecutor(int workers) {
+        this(workers, false);
+    }
+
+    public ParallelRunExecutor(int workers, boolean pooled) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Number of workers must be positive: " + workers);
+        }
+        this.workers = workers;
+        this.window = workers * 2;
+        this.pool = workers > 1 || pooled ? new ForkJoinPool(workers) : null;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void runAll(List<RunTask> tasks, ResultSink sink) {
+        if (pool == null) {
+            for (RunTask task : tasks) {
+                task.run(sink);
+            }
+            return;
+        }
+
+        Deque<Future<BufferedResultSink>> inFlight = new ArrayDeque<>(window);
+        try {
+            for (RunTask task : tasks) {
+                if (inFlight.size() == window) {
+                    awaitAndDrain(inFlight.poll(), sink);
+                }
+                inFlight.add(pool.submit(() -> {
+                    BufferedResultSink buffer = new BufferedResultSink();
+                    task.run(buffer);
+                    return buffer;
+                }));
+            }
+            while (!inFlight.isEmpty()) {
+                awaitAndDrain(inFlight.poll(), sink);
+            }
+        } catch (RuntimeException e) {
+            //runs not started yet are dropped, started ones finish into buffers nobody drains
+            for (Future<BufferedResultSink> future : inFlight) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+    }
+
+    private void awaitAndDrain(Future<BufferedResultSink> future, ResultSink sink) {
+        try {
+            future.get().drainTo(sink);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a simulation run", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Simulation run failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
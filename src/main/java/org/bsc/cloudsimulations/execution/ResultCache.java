@@ -0,0 +1,212 @@
+package org.bsc.cloudsimulations.execution;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.bsc.cloudsimulations.results.BufferedResultSink;
+
+import com.google.gson.JsonObject;
+
+/*
+ * On-disk cache of finished runs
+ * A run is keyed by a SHA-256 hash of its resolved configuration section (classes + topology profile), the run id and its seed;
+ * as runs are seeded deterministically, the same key always produces the same records
+ * A hit replays the stored records into the sink instead of simulating; a miss simulates, stores the records, then forwards them
+ * Replayed metrics rows leave their host-side cost columns (setup/simulation time, events, allocation, GC) blank,
+ * since they measured the run that was cached rather than anything done by this batch
+ * The directory is bounded in size: when a store pushes it over the limit, the least recently used entries are deleted
+ * (hits refresh an entry's modification time)
+ * Cache failures never fail a run, the run is simply simulated again
+ * */
+public class ResultCache {
+    //bump when the stored records change shape or meaning, so older entries are no longer matched
+    private static final String FORMAT_VERSION = "4";
+    private static final String ENTRY_SUFFIX = ".run";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicLong sizeBytes = new AtomicLong();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final Object evictionLock = new Object();
+
+    public ResultCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            sizeBytes.set(listEntries().stream().mapToLong(ResultCache::sizeOf).sum());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open result cache directory: " + directory, e);
+        }
+    }
+
+    //"resultCache": {"directory": ..., "maxSizeMB": ...} of config.json, defaults when missing
+    public static ResultCache fromConfig(ConfigLoader configLoader) {
+        JsonObject settings = configLoader.getSettings("resultCache");
+        String directory = settings != null && settings.has("directory") ? settings.get("directory").getAsString() : "result-cache";
+        long maxSizeMB = settings != null && settings.has("maxSizeMB") ? settings.get("maxSizeMB").getAsLong() : 512;
+        return new ResultCache(Path.of(directory), maxSizeMB * 1024 * 1024);
+    }
+
+    public String keyFor(ConfigLoader runConfig, String section, int runId) {
+        JsonObject resolved = runConfig.resolveSection(section);
+        String material = FORMAT_VERSION + '\n' + section + '\n' + runId + '\n'
+                + runConfig.getRunSeed(section, runId) + '\n' + resolved;
+        if (resolved.has("workloadTrace")) {
+            //the trace is identified by its path, size and modification time, hashing its content would cost a full read
+            Path trace = Path.of(resolved.get("workloadTrace").getAsString());
+            try {
+                material += '\n' + trace.toAbsolutePath().toString() + '\n' + Files.size(trace) + '\n' + Files.getLastModifiedTime(trace).toMillis();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read workload trace: " + trace, e);
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(material.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e); //every JDK provides it
+        }
+    }
+
+    //the task, replayed from the cache when its key is present
+    public RunTask cached(String key, RunTask task) {
+        return sink -> {
+            BufferedResultSink stored = load(key);
+            if (stored != null) {
+                hits.incrementAndGet();
+                stored.markCached();
+                stored.drainTo(sink);
+                return;
+            }
+            misses.incrementAndGet();
+            BufferedResultSink recorded = new BufferedResultSink();
+            task.run(recorded);
+            store(key, recorded);
+            recorded.drainTo(sink);
+        };
+    }
+
+    private BufferedResultSink load(String key) {
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            BufferedResultSink records = BufferedResultSink.readFrom(in);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return records;
+        } catch (IOException e) {
+            //damaged or concurrently evicted entry, simulate again (the store will overwrite it)
+            return null;
+        }
+    }
+
+    private void store(String key, BufferedResultSink records) {
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        Path temporary = directory.resolve(key + ENTRY_SUFFIX + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                records.writeTo(out);
+            }
+            long previous = Files.exists(entry) ? sizeOf(entry) : 0;
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (sizeBytes.addAndGet(sizeOf(entry) - previous) > maxBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                //nothing else to clean up
+            }
+        }
+    }
+
+    //deletes least recently used entries until the cache is back under its limit
+    private void evict() throws IOException {
+        synchronized (evictionLock) {
+            if (sizeBytes.get() <= maxBytes) {
+                return;
+            }
+            List<Path> entries = listEntries();
+            entries.sort(Comparator.comparingLong(ResultCache::lastModified));
+            for (Path entry : entries) {
+                if (sizeBytes.get() <= maxBytes) {
+                    break;
+                }
+                long size = sizeOf(entry);
+                if (Files.deleteIfExists(entry)) {
+                    sizeBytes.addAndGet(-size);
+                }
+            }
+        }
+    }
+
+    //removes every stored run
+    public void invalidate() {
+        synchronized (evictionLock) {
+            try {
+                for (Path entry : listEntries()) {
+                    Files.deleteIfExists(entry);
+                }
+                sizeBytes.set(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot invalidate result cache: " + directory, e);
+            }
+        }
+    }
+
+    private List<Path> listEntries() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> entries = new ArrayList<>();
+            files.filter(path -> path.getFileName().toString().endsWith(ENTRY_SUFFIX)).forEach(entries::add);
+            return entries;
+        }
+    }
+
+    private static long sizeOf(Path entry) {
+        try {
+            return Files.size(entry);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public Path getDirectory() { return directory; }
+    public int getHits() { return hits.get(); }
+    public int getMisses() { return misses.get(); }
+    public long getSizeBytes() { return sizeBytes.get(); }
+}
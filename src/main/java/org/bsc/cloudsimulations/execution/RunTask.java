@@ -0,0 +1,13 @@
+package org.bsc.cloudsimulations.execution;
+
+import org.bsc.cloudsimulations.results.ResultSink;
+
+/*
+ * A single, self-contained simulation run
+ * The body builds and runs its own simulation and writes its rows to the sink it is given
+ * Every task must only use its own state (own ConfigLoader copy, own CloudSimPlus instance)
+ * */
+@FunctionalInterface
+public interface RunTask {
+    void run(ResultSink sink);
+}
@@ -0,0 +1,71 @@
+package org.bsc.cloudsimulations.execution;
+
+/*
+ * Slice i of n of the run space of an experiment ("--shard i/n", 1-based)
+ * The run space is the list of (combination, run id) pairs in run order; shard i takes the i-th of n contiguous,
+ * near-equal blocks of it, so the shards are disjoint, cover every run once and only depend on i, n and the manifest
+ * Contiguous blocks keep the merge a plain concatenation in shard order, giving the tables of an unsharded batch
+ * */
+public final class Shard {
+    public static final Shard ALL = new Shard(1, 1);
+
+    private final int index;
+    private final int count;
+
+    public Shard(int index, int count) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Invalid shard " + index + "/" + count + ", expected 1 <= i <= n");
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    //"i/n"
+    public static Shard parse(String value) {
+        int slash = value.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Invalid shard " + value + ", expected i/n");
+        }
+        try {
+            return new Shard(Integer.parseInt(value.substring(0, slash).trim()), Integer.parseInt(value.substring(slash + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid shard " + value + ", expected i/n", e);
+        }
+    }
+
+    //first task of the shard out of totalTasks (inclusive)
+    public int from(int totalTasks) {
+        return (int) ((long) totalTasks * (index - 1) / count);
+    }
+
+    //end of the shard's tasks (exclusive)
+    public int to(int totalTasks) {
+        return (int) ((long) totalTasks * index / count);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isAll() {
+        return count == 1;
+    }
+
+    //output directory of the shard, below the experiment's output directory
+    public String getDirectoryName() {
+        return directoryName(index, count);
+    }
+
+    public static String directoryName(int index, int count) {
+        return "shard-" + index + "-of-" + count;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,160 @@
+package org.bsc.cloudsimulations.monitoring;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+import org.bsc.cloudsimulations.execution.BatchProgress;
+import org.bsc.cloudsimulations.results.StreamingAggregator;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/*
+ * Prometheus text-format metrics of a running batch, served on localhost by the JDK's built-in HTTP server
+ * Enabled with "metricsEndpoint" in config.json ({"enabled": true, "port": 9464}), scrape http://127.0.0.1:<port>/metrics
+ * - run counters: planned, in flight, completed, failed, runs/sec since the start of the batch
+ * - run wall time summary (p50/p99 P-square estimates, sum and count)
+ * - JVM heap used/committed/max
+ * - runs and running mean makespan of every policy combination (from the StreamingAggregator, so only drained runs count)
+ * The page is rendered on each scrape, nothing is kept between scrapes
+ * */
+public class MetricsEndpoint implements AutoCloseable {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+    private final BatchProgress progress;
+    private final StreamingAggregator aggregator;
+
+    public MetricsEndpoint(int port, BatchProgress progress, StreamingAggregator aggregator) throws IOException {
+        this.progress = progress;
+        this.aggregator = aggregator;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    //endpoint configured in config.json, null when it is missing or disabled
+    public static MetricsEndpoint fromConfig(ConfigLoader configLoader, BatchProgress progress, StreamingAggregator aggregator) {
+        JsonObject settings = configLoader.getSettings("metricsEndpoint");
+        if (settings == null || !settings.has("enabled") || !settings.get("enabled").getAsBoolean()) {
+            return null;
+        }
+        int port = settings.has("port") ? settings.get("port").getAsInt() : 9464;
+        try {
+            return new MetricsEndpoint(port, progress, aggregator);
+        } catch (IOException e) {
+            //monitoring is optional, the batch runs without it
+            System.err.println("Cannot start metrics endpoint on port " + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    String render() {
+        StringBuilder page = new StringBuilder(4096);
+        gauge(page, "cloudsim_runs_planned", "Runs scheduled in this batch", progress.getPlannedRuns());
+        gauge(page, "cloudsim_runs_in_flight", "Runs currently executing", progress.getInFlightRuns());
+        counter(page, "cloudsim_runs_completed_total", "Runs finished successfully", progress.getCompletedRuns());
+        counter(page, "cloudsim_runs_failed_total", "Runs that ended with an exception", progress.getFailedRuns());
+        gauge(page, "cloudsim_runs_per_second", "Completed runs per second since the batch started", progress.getRunsPerSecond());
+        gauge(page, "cloudsim_batch_elapsed_seconds", "Wall time since the batch started", progress.getElapsedSeconds());
+
+        header(page, "cloudsim_run_wall_time_seconds", "Wall time of a run", "summary");
+        sample(page, "cloudsim_run_wall_time_seconds{quantile=\"0.5\"}", progress.getWallTimeP50Seconds());
+        sample(page, "cloudsim_run_wall_time_seconds{quantile=\"0.99\"}", progress.getWallTimeP99Seconds());
+        sample(page, "cloudsim_run_wall_time_seconds_sum", progress.getWallTimeSumSeconds());
+        sample(page, "cloudsim_run_wall_time_seconds_count", progress.getCompletedRuns());
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        gauge(page, "cloudsim_jvm_heap_used_bytes", "Heap in use", heap.getUsed());
+        gauge(page, "cloudsim_jvm_heap_committed_bytes", "Heap committed by the JVM", heap.getCommitted());
+        gauge(page, "cloudsim_jvm_heap_max_bytes", "Maximum heap (-1 if undefined)", heap.getMax());
+
+        StringBuilder runs = new StringBuilder();
+        StringBuilder makespan = new StringBuilder();
+        StringBuilder energy = new StringBuilder();
+        aggregator.forEachCombination(combination -> {
+            String labels = "{metrics_file=\"" + escape(combination.getMetricsFilePath())
+                    + "\",vm_allocation_policy=\"" + escape(combination.getVmAllocationPolicy())
+                    + "\",vm_scheduler=\"" + escape(combination.getVmScheduler())
+                    + "\",cloudlet_scheduler=\"" + escape(combination.getCloudletScheduler()) + "\"}";
+            sample(runs, "cloudsim_combination_runs" + labels, combination.getRuns());
+            sample(makespan, "cloudsim_combination_makespan_mean_seconds" + labels, combination.getMakespan().getMean());
+            sample(energy, "cloudsim_combination_energy_mean_wh" + labels, combination.getEnergy().getMean());
+        });
+        header(page, "cloudsim_combination_runs", "Runs aggregated for the policy combination", "gauge");
+        page.append(runs);
+        header(page, "cloudsim_combination_makespan_mean_seconds", "Running mean simulated makespan of the policy combination", "gauge");
+        page.append(makespan);
+        header(page, "cloudsim_combination_energy_mean_wh", "Running mean host energy per run of the policy combination", "gauge");
+        page.append(energy);
+        return page.toString();
+    }
+
+    private static void gauge(StringBuilder page, String name, String help, double value) {
+        header(page, name, help, "gauge");
+        sample(page, name, value);
+    }
+
+    private static void counter(StringBuilder page, String name, String help, double value) {
+        header(page, name, help, "counter");
+        sample(page, name, value);
+    }
+
+    private static void header(StringBuilder page, String name, String help, String type) {
+        page.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        page.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder page, String series, double value) {
+        page.append(series).append(' ');
+        if (Double.isNaN(value)) {
+            page.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            page.append(value > 0 ? "+Inf" : "-Inf");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            page.append((long) value);
+        } else {
+            page.append(value);
+        }
+        page.append('\n');
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
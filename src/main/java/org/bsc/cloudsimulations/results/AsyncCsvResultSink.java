@@ -0,0 +1,193 @@
+package org.bsc.cloudsimulations.results;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Asynchronous CSV sink with a single writer thread
+ * Runs only put their records on a bounded queue (blocking when the writer falls behind),
+ * the writer thread drains the queue in batches into one long-lived, buffered CsvFileWriter per output file
+ * Files are flushed whenever the queue runs empty, and closed on close() or JVM shutdown
+ * Since only the writer thread touches the files, concurrent runs never contend for them
+ * A record that fails to write is reported and skipped; should the writer thread still die, runs handing it records
+ * fail instead of blocking on a queue nobody drains
+ * */
+public class AsyncCsvResultSink implements ResultSink, AutoCloseable {
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int MAX_BATCH_SIZE = 256;
+    //how long a run waits on a full queue before checking that the writer thread is still there
+    private static final long WRITER_CHECK_MILLIS = 100;
+    private static final Object END_OF_STREAM = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final Thread writerThread;
+    private final Thread shutdownHook;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    //open files, only accessed by the writer thread
+    private final Map<String, CsvFileWriter> writers = new HashMap<>();
+
+    public AsyncCsvResultSink() {
+        this(DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public AsyncCsvResultSink(int queueCapacity) {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        writerThread = new Thread(this::drainLoop, "csv-result-writer");
+        writerThread.start();
+        //makes sure buffered rows reach the disk even if the batch is interrupted (e.g. Ctrl+C)
+        shutdownHook = new Thread(this::close, "csv-result-writer-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    @Override
+    public void writeCloudlets(CloudletRecordBatch batch) {
+        enqueue(batch);
+    }
+
+    @Override
+    public void writeMetrics(MetricsRecord record) {
+        enqueue(record);
+    }
+
+    @Override
+    public void writeHistograms(CloudletHistogramRecord record) {
+        enqueue(record);
+    }
+
+    @Override
+    public void writeUtilization(UtilizationSeriesRecord record) {
+        enqueue(record);
+    }
+
+    private void enqueue(Object record) {
+        if (closed.get()) {
+            throw new IllegalStateException("Result sink is already closed");
+        }
+        try {
+            do {
+                checkWriter();
+            } while (!queue.offer(record, WRITER_CHECK_MILLIS, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while handing results to the writer thread", e);
+        }
+    }
+
+    private void checkWriter() {
+        if (!writerThread.isAlive()) {
+            throw new IllegalStateException("CSV writer thread has stopped, results can no longer be written");
+        }
+    }
+
+    private void drainLoop() {
+        List<Object> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        try {
+            boolean endOfStream = false;
+            while (!endOfStream) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                for (Object record : batch) {
+                    if (record == END_OF_STREAM) {
+                        endOfStream = true;
+                    } else {
+                        write(record);
+                    }
+                }
+                batch.clear();
+                if (queue.isEmpty()) {
+                    flushAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void write(Object record) {
+        try {
+            if (record instanceof CloudletRecordBatch) {
+                CloudletRecordBatch batch = (CloudletRecordBatch) record;
+                CsvRecordFormat.writeCloudlets(writerFor(batch.getFilePath(), CloudletRecordBatch.HEADER), batch);
+            } else if (record instanceof UtilizationSeriesRecord) {
+                //a file of its own per run, written at once instead of being kept open
+                UtilizationSeriesRecord utilization = (UtilizationSeriesRecord) record;
+                try (CsvFileWriter writer = new CsvFileWriter(utilization.getFilePath(), false)) {
+                    writer.writeRow(UtilizationSeriesRecord.HEADER);
+                    CsvRecordFormat.writeUtilization(writer, utilization);
+                }
+            } else if (record instanceof CloudletHistogramRecord) {
+                CloudletHistogramRecord histograms = (CloudletHistogramRecord) record;
+                CsvRecordFormat.writeHistograms(writerFor(histograms.getFilePath(), CloudletHistogramRecord.HEADER), histograms);
+            } else {
+                MetricsRecord metrics = (MetricsRecord) record;
+                CsvRecordFormat.writeMetrics(writerFor(metrics.getFilePath(), MetricsRecord.HEADER), metrics);
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    //opens the file on first use and writes its header (once per file per sink, as before)
+    private CsvFileWriter writerFor(String filePath, String[] header) throws IOException {
+        CsvFileWriter writer = writers.get(filePath);
+        if (writer == null) {
+            writer = new CsvFileWriter(filePath, true);
+            writer.writeRow(header);
+            writers.put(filePath, writer);
+        }
+        return writer;
+    }
+
+    private void flushAll() {
+        for (CsvFileWriter writer : writers.values()) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void closeAll() {
+        for (CsvFileWriter writer : writers.values()) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        writers.clear();
+    }
+
+    //waits until every queued record is written and all files are closed
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (writerThread.isAlive() && !queue.offer(END_OF_STREAM, WRITER_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                //queue full, the writer is still draining it
+            }
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                //JVM is already shutting down, the hook will find the sink closed
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package org.bsc.cloudsimulations.results;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Keeps the records of a single run in memory instead of writing them right away
+ * Used by the parallel executor: runs finish in any order, but their buffers are drained in run order
+ * so the output files are identical to the ones of a sequential batch
+ * The records can also be saved in a compact binary form and read back (result cache)
+ * */
+public class BufferedResultSink implements ResultSink {
+    //CloudletRecordBatch, MetricsRecord, CloudletHistogramRecord or UtilizationSeriesRecord, in the order they were written
+    private final List<Object> records = new ArrayList<>();
+    private static final byte CLOUDLET_BATCH = 1;
+    private static final byte METRICS = 2;
+    private static final byte HISTOGRAMS = 3;
+    private static final byte UTILIZATION = 4;
+
+    @Override
+    public void writeCloudlets(CloudletRecordBatch batch) {
+        records.add(batch);
+    }
+
+    @Override
+    public void writeMetrics(MetricsRecord record) {
+        records.add(record);
+    }
+
+    @Override
+    public void writeHistograms(CloudletHistogramRecord record) {
+        records.add(record);
+    }
+
+    @Override
+    public void writeUtilization(UtilizationSeriesRecord record) {
+        records.add(record);
+    }
+
+    //forwards everything buffered so far to the target sink, in the order it was written
+    public void drainTo(ResultSink target) {
+        for (Object record : records) {
+            if (record instanceof CloudletRecordBatch) {
+                target.writeCloudlets((CloudletRecordBatch) record);
+            } else if (record instanceof CloudletHistogramRecord) {
+                target.writeHistograms((CloudletHistogramRecord) record);
+            } else if (record instanceof UtilizationSeriesRecord) {
+                target.writeUtilization((UtilizationSeriesRecord) record);
+            } else {
+                target.writeMetrics((MetricsRecord) record);
+            }
+        }
+        records.clear();
+    }
+
+    //marks the buffered metrics as replayed from the result cache, their host-side cost columns are then left blank
+    public void markCached() {
+        for (Object record : records) {
+            if (record instanceof MetricsRecord) {
+                ((MetricsRecord) record).markCached();
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return records.isEmpty();
+    }
+
+    //record count, then every record tagged with its type; strings as modified UTF-8
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(records.size());
+        for (Object record : records) {
+            if (record instanceof CloudletRecordBatch) {
+                CloudletRecordBatch batch = (CloudletRecordBatch) record;
+                out.writeByte(CLOUDLET_BATCH);
+                out.writeUTF(batch.getFilePath());
+                out.writeInt(batch.getRunId());
+                out.writeUTF(batch.getVmAllocationPolicy());
+                out.writeUTF(batch.getVmScheduler());
+                out.writeUTF(batch.getCloudletScheduler());
+                out.writeInt(batch.size());
+                for (int row = 0; row < batch.size(); row++) {
+                    out.writeLong(batch.getCloudletId(row));
+                    out.writeLong(batch.getHostId(row));
+                    out.writeLong(batch.getHostPes(row));
+                    out.writeLong(batch.getVmId(row));
+                    out.writeLong(batch.getVmPes(row));
+                    out.writeUTF(batch.getStatus(row));
+                    out.writeDouble(batch.getExecTime(row));
+                    out.writeDouble(batch.getStartTime(row));
+                    out.writeDouble(batch.getFinishTime(row));
+                    out.writeDouble(batch.getStartWaitTime(row));
+                    out.writeDouble(batch.getExpectedFinishTime(row));
+                }
+            } else if (record instanceof CloudletHistogramRecord) {
+                CloudletHistogramRecord histograms = (CloudletHistogramRecord) record;
+                out.writeByte(HISTOGRAMS);
+                out.writeUTF(histograms.getFilePath());
+                out.writeInt(histograms.getRunId());
+                out.writeUTF(histograms.getVmAllocationPolicy());
+                out.writeUTF(histograms.getVmScheduler());
+                out.writeUTF(histograms.getCloudletScheduler());
+                for (int metric = 0; metric < CloudletHistogramRecord.METRICS.length; metric++) {
+                    out.writeLong(histograms.getCount(metric));
+                    out.writeDouble(histograms.getSum(metric));
+                    out.writeDouble(histograms.getMin(metric));
+                    out.writeDouble(histograms.getMax(metric));
+                    for (int bucket = 0; bucket < histograms.getBucketCount(); bucket++) {
+                        out.writeLong(histograms.getBucket(metric, bucket));
+                    }
+                }
+            } else if (record instanceof UtilizationSeriesRecord) {
+                UtilizationSeriesRecord utilization = (UtilizationSeriesRecord) record;
+                out.writeByte(UTILIZATION);
+                out.writeUTF(utilization.getFilePath());
+                out.writeInt(utilization.getRunId());
+                out.writeInt(utilization.getHostCount());
+                out.writeInt(utilization.getEntityCount());
+                out.writeInt(utilization.getSampleCount());
+                for (int entity = 0; entity < utilization.getEntityCount(); entity++) {
+                    out.writeLong(utilization.getEntityId(entity));
+                }
+                for (int sample = 0; sample < utilization.getSampleCount(); sample++) {
+                    out.writeDouble(utilization.getTime(sample));
+                    for (int entity = 0; entity < utilization.getEntityCount(); entity++) {
+                        out.writeFloat(utilization.getCpu(sample, entity));
+                        out.writeFloat(utilization.getRam(sample, entity));
+                        out.writeFloat(utilization.getBw(sample, entity));
+                    }
+                }
+            } else {
+                MetricsRecord metrics = (MetricsRecord) record;
+                out.writeByte(METRICS);
+                out.writeUTF(metrics.getFilePath());
+                out.writeInt(metrics.getRunId());
+                out.writeUTF(metrics.getVmAllocationPolicy());
+                out.writeUTF(metrics.getVmScheduler());
+                out.writeUTF(metrics.getCloudletScheduler());
+                out.writeDouble(metrics.getMakespan());
+                out.writeDouble(metrics.getThroughput());
+                out.writeDouble(metrics.getHostLoadStdDev());
+                out.writeDouble(metrics.getVmLoadStdDev());
+                out.writeInt(metrics.getOversubscribedCount());
+                out.writeDouble(metrics.getAvgPercentageIncrease());
+                out.writeInt(metrics.getTotalCompletedTasks());
+                out.writeDouble(metrics.getMeanResponseTime());
+                out.writeDouble(metrics.getSteadyStateThroughput());
+                out.writeDouble(metrics.getSteadyStateMeanResponseTime());
+                out.writeDouble(metrics.getEnergyWh());
+                out.writeDouble(metrics.getEnergyPerTaskWh());
+                out.writeDouble(metrics.getIdleHostTime());
+                out.writeDouble(metrics.getSetupTimeMs());
+                out.writeDouble(metrics.getSimulationTimeMs());
+                out.writeDouble(metrics.getPostProcessingTimeMs());
+                out.writeLong(metrics.getSimulationEvents());
+                out.writeLong(metrics.getAllocatedBytes());
+                out.writeLong(metrics.getGcPauseMs());
+            }
+        }
+    }
+
+    public static BufferedResultSink readFrom(DataInputStream in) throws IOException {
+        BufferedResultSink sink = new BufferedResultSink();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            byte type = in.readByte();
+            if (type == CLOUDLET_BATCH) {
+                String filePath = in.readUTF();
+                int runId = in.readInt();
+                String vmAllocationPolicy = in.readUTF();
+                String vmScheduler = in.readUTF();
+                String cloudletScheduler = in.readUTF();
+                int size = in.readInt();
+                CloudletRecordBatch batch = new CloudletRecordBatch(filePath, runId, vmAllocationPolicy, vmScheduler, cloudletScheduler, size);
+                for (int row = 0; row < size; row++) {
+                    batch.add(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readUTF(),
+                            in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+                }
+                sink.records.add(batch);
+            } else if (type == METRICS) {
+                sink.records.add(new MetricsRecord(in.readUTF(), in.readInt(), in.readUTF(), in.readUTF(), in.readUTF(),
+                        in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                        in.readInt(), in.readDouble(), in.readInt(),
+                        in.readDouble(), in.readDouble(), in.readDouble(),
+                        in.readDouble(), in.readDouble(), in.readDouble(),
+                        in.readDouble(), in.readDouble(), in.readDouble(),
+                        in.readLong(), in.readLong(), in.readLong()));
+            } else if (type == HISTOGRAMS) {
+                CloudletHistogramRecord histograms = new CloudletHistogramRecord(in.readUTF(), in.readInt(), in.readUTF(), in.readUTF(), in.readUTF());
+                long[] buckets = new long[histograms.getBucketCount()];
+                for (int metric = 0; metric < CloudletHistogramRecord.METRICS.length; metric++) {
+                    long values = in.readLong();
+                    double sum = in.readDouble();
+                    double min = in.readDouble();
+                    double max = in.readDouble();
+                    for (int bucket = 0; bucket < buckets.length; bucket++) {
+                        buckets[bucket] = in.readLong();
+                    }
+                    histograms.setMetric(metric, values, sum, min, max, buckets);
+                }
+                sink.records.add(histograms);
+            } else if (type == UTILIZATION) {
+                String filePath = in.readUTF();
+                int runId = in.readInt();
+                int hostCount = in.readInt();
+                long[] entityIds = new long[in.readInt()];
+                double[] times = new double[in.readInt()];
+                float[] cpu = new float[times.length * entityIds.length];
+                float[] ram = new float[cpu.length];
+                float[] bw = new float[cpu.length];
+                for (int entity = 0; entity < entityIds.length; entity++) {
+                    entityIds[entity] = in.readLong();
+                }
+                for (int sample = 0, index = 0; sample < times.length; sample++) {
+                    times[sample] = in.readDouble();
+                    for (int entity = 0; entity < entityIds.length; entity++, index++) {
+                        cpu[index] = in.readFloat();
+                        ram[index] = in.readFloat();
+                        bw[index] = in.readFloat();
+                    }
+                }
+                sink.records.add(new UtilizationSeriesRecord(filePath, runId, hostCount, entityIds, times, cpu, ram, bw));
+            } else {
+                throw new IOException("Unknown record type: " + type);
+            }
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,123 @@
+package org.bsc.cloudsimulations.results;
+
+import java.util.Arrays;
+
+/*
+ * Per-run distributions of ExecTime, StartWaitTime and slowdown ((StartWaitTime + ExecTime) / ExecTime) of the finished cloudlets
+ * (the *_Histograms.csv table), written instead of, or next to a sample of, the detailed rows
+ * Buckets are fixed for every run and combination (1-2-5 steps from 0.01 to 1e6, plus one bucket below and one above),
+ * so histograms of different runs can be added bucket by bucket; counts are kept in primitive arrays
+ * */
+public class CloudletHistogramRecord {
+    public static final String[] METRICS = {"ExecTime", "StartWaitTime", "Slowdown"};
+    public static final int EXEC_TIME = 0;
+    public static final int START_WAIT_TIME = 1;
+    public static final int SLOWDOWN = 2;
+
+    //exclusive upper bounds of every bucket but the last one
+    public static final double[] BUCKET_UPPER_BOUNDS = bucketUpperBounds();
+    public static final String[] HEADER = header();
+
+    private final String filePath;
+    private final int runId;
+    private final String vmAllocationPolicy;
+    private final String vmScheduler;
+    private final String cloudletScheduler;
+
+    private final long[][] buckets = new long[METRICS.length][BUCKET_UPPER_BOUNDS.length + 1];
+    private final long[] counts = new long[METRICS.length];
+    private final double[] sums = new double[METRICS.length];
+    private final double[] mins = new double[METRICS.length];
+    private final double[] maxs = new double[METRICS.length];
+
+    public CloudletHistogramRecord(String filePath, int runId, String vmAllocationPolicy, String vmScheduler, String cloudletScheduler) {
+        this.filePath = filePath;
+        this.runId = runId;
+        this.vmAllocationPolicy = vmAllocationPolicy;
+        this.vmScheduler = vmScheduler;
+        this.cloudletScheduler = cloudletScheduler;
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+    }
+
+    private static double[] bucketUpperBounds() {
+        double[] steps = {1, 2, 5};
+        double[] bounds = new double[25];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = steps[i % 3] * Math.pow(10, i / 3 - 2);
+        }
+        return bounds;
+    }
+
+    private static String[] header() {
+        String[] fixed = {"Run ID", "Vm Allocation Policy", "Vm Scheduler", "Cloudlet Scheduler", "Metric", "Count", "Mean", "Min", "Max"};
+        String[] header = Arrays.copyOf(fixed, fixed.length + BUCKET_UPPER_BOUNDS.length + 1);
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS.length; i++) {
+            header[fixed.length + i] = "<" + formatBound(BUCKET_UPPER_BOUNDS[i]);
+        }
+        header[header.length - 1] = ">=" + formatBound(BUCKET_UPPER_BOUNDS[BUCKET_UPPER_BOUNDS.length - 1]);
+        return header;
+    }
+
+    private static String formatBound(double bound) {
+        return bound >= 1 ? String.valueOf((long) bound) : String.valueOf(bound);
+    }
+
+    //bucket of a value, by binary search over the bounds
+    public static int bucketOf(double value) {
+        int index = Arrays.binarySearch(BUCKET_UPPER_BOUNDS, value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    //one finished cloudlet; slowdown is left out when its execution time is not positive
+    public void add(double execTime, double startWaitTime) {
+        add(EXEC_TIME, execTime);
+        add(START_WAIT_TIME, startWaitTime);
+        if (execTime > 0) {
+            add(SLOWDOWN, (startWaitTime + execTime) / execTime);
+        }
+    }
+
+    private void add(int metric, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        buckets[metric][bucketOf(value)]++;
+        counts[metric]++;
+        sums[metric] += value;
+        mins[metric] = Math.min(mins[metric], value);
+        maxs[metric] = Math.max(maxs[metric], value);
+    }
+
+    //same histograms under another file path
+    public CloudletHistogramRecord withFilePath(String filePath) {
+        CloudletHistogramRecord record = new CloudletHistogramRecord(filePath, runId, vmAllocationPolicy, vmScheduler, cloudletScheduler);
+        for (int metric = 0; metric < METRICS.length; metric++) {
+            record.setMetric(metric, counts[metric], sums[metric], mins[metric], maxs[metric], buckets[metric]);
+        }
+        return record;
+    }
+
+    //restores one metric as it was stored (result buffers read back)
+    public void setMetric(int metric, long count, double sum, double min, double max, long[] bucketCounts) {
+        counts[metric] = count;
+        sums[metric] = sum;
+        mins[metric] = min;
+        maxs[metric] = max;
+        System.arraycopy(bucketCounts, 0, buckets[metric], 0, buckets[metric].length);
+    }
+
+    public String getFilePath() { return filePath; }
+    public int getRunId() { return runId; }
+    public String getVmAllocationPolicy() { return vmAllocationPolicy; }
+    public String getVmScheduler() { return vmScheduler; }
+    public String getCloudletScheduler() { return cloudletScheduler; }
+    public int getBucketCount() { return BUCKET_UPPER_BOUNDS.length + 1; }
+
+    public long getCount(int metric) { return counts[metric]; }
+    public double getSum(int metric) { return sums[metric]; }
+    public double getMean(int metric) { return counts[metric] == 0 ? 0 : sums[metric] / counts[metric]; }
+    public double getMin(int metric) { return counts[metric] == 0 ? 0 : mins[metric]; }
+    public double getMax(int metric) { return counts[metric] == 0 ? 0 : maxs[metric]; }
+    public long getBucket(int metric, int bucket) { return buckets[metric][bucket]; }
+}
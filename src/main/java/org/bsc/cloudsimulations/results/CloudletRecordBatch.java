@@ -0,0 +1,163 @@
+package org.bsc.cloudsimulations.results;
+
+import java.util.Arrays;
+
+/*
+ * Detailed rows of all finished cloudlets of a single run (the *_Detailed.csv table)
+ * Stored column-wise in primitive arrays, one batch per run instead of one String[] per cloudlet
+ * Policy short codes are the same for every row of a run, so they are kept only once
+ * */
+public class CloudletRecordBatch {
+    public static final String[] HEADER = {
+        "Run ID", "Vm Allocation Policy", "Vm Scheduler", "Cloudlet Scheduler",
+        "Cloudlet ID", "Host Id", "Host PEs", "VM ID", "VM PEs",
+        "Status", "ExecTime", "StartTime", "FinishTime", "StartWaitTime", "ExpectedFinishTime"
+    };
+
+    private final String filePath;
+    private final int runId;
+    private final String vmAllocationPolicy;
+    private final String vmScheduler;
+    private final String cloudletScheduler;
+
+    private int size;
+    private long[] cloudletIds;
+    private long[] hostIds;
+    private long[] hostPes;
+    private long[] vmIds;
+    private long[] vmPes;
+    private String[] statuses;
+    private double[] execTimes;
+    private double[] startTimes;
+    private double[] finishTimes;
+    private double[] startWaitTimes;
+    private double[] expectedFinishTimes;
+
+    public CloudletRecordBatch(String filePath, int runId, String vmAllocationPolicy, String vmScheduler,
+            String cloudletScheduler, int expectedSize) {
+        this.filePath = filePath;
+        this.runId = runId;
+        this.vmAllocationPolicy = vmAllocationPolicy;
+        this.vmScheduler = vmScheduler;
+        this.cloudletScheduler = cloudletScheduler;
+
+        int capacity = Math.max(expectedSize, 1);
+        cloudletIds = new long[capacity];
+        hostIds = new long[capacity];
+        hostPes = new long[capacity];
+        vmIds = new long[capacity];
+        vmPes = new long[capacity];
+        statuses = new String[capacity];
+        execTimes = new double[capacity];
+        startTimes = new double[capacity];
+        finishTimes = new double[capacity];
+        startWaitTimes = new double[capacity];
+        expectedFinishTimes = new double[capacity];
+    }
+
+    //same rows (arrays shared, not copied) under another file path
+    private CloudletRecordBatch(CloudletRecordBatch rows, String filePath) {
+        this.filePath = filePath;
+        this.runId = rows.runId;
+        this.vmAllocationPolicy = rows.vmAllocationPolicy;
+        this.vmScheduler = rows.vmScheduler;
+        this.cloudletScheduler = rows.cloudletScheduler;
+        this.size = rows.size;
+        this.cloudletIds = rows.cloudletIds;
+        this.hostIds = rows.hostIds;
+        this.hostPes = rows.hostPes;
+        this.vmIds = rows.vmIds;
+        this.vmPes = rows.vmPes;
+        this.statuses = rows.statuses;
+        this.execTimes = rows.execTimes;
+        this.startTimes = rows.startTimes;
+        this.finishTimes = rows.finishTimes;
+        this.startWaitTimes = rows.startWaitTimes;
+        this.expectedFinishTimes = rows.expectedFinishTimes;
+    }
+
+    //the batch must not be added to afterwards, both views share its arrays
+    public CloudletRecordBatch withFilePath(String filePath) {
+        return new CloudletRecordBatch(this, filePath);
+    }
+
+    public void add(long cloudletId, long hostId, long hostPesNumber, long vmId, long vmPesNumber, String status,
+            double execTime, double startTime, double finishTime, double startWaitTime, double expectedFinishTime) {
+        if (size == cloudletIds.length) {
+            grow();
+        }
+        cloudletIds[size] = cloudletId;
+        hostIds[size] = hostId;
+        hostPes[size] = hostPesNumber;
+        vmIds[size] = vmId;
+        vmPes[size] = vmPesNumber;
+        statuses[size] = status;
+        execTimes[size] = execTime;
+        startTimes[size] = startTime;
+        finishTimes[size] = finishTime;
+        startWaitTimes[size] = startWaitTime;
+        expectedFinishTimes[size] = expectedFinishTime;
+        size++;
+    }
+
+    //appends a row of another batch (filtered and sampled tables)
+    public void add(CloudletRecordBatch source, int sourceRow) {
+        if (size == cloudletIds.length) {
+            grow();
+        }
+        size++;
+        set(size - 1, source, sourceRow);
+    }
+
+    //overwrites a row with a row of another batch
+    public void set(int row, CloudletRecordBatch source, int sourceRow) {
+        if (row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        cloudletIds[row] = source.cloudletIds[sourceRow];
+        hostIds[row] = source.hostIds[sourceRow];
+        hostPes[row] = source.hostPes[sourceRow];
+        vmIds[row] = source.vmIds[sourceRow];
+        vmPes[row] = source.vmPes[sourceRow];
+        statuses[row] = source.statuses[sourceRow];
+        execTimes[row] = source.execTimes[sourceRow];
+        startTimes[row] = source.startTimes[sourceRow];
+        finishTimes[row] = source.finishTimes[sourceRow];
+        startWaitTimes[row] = source.startWaitTimes[sourceRow];
+        expectedFinishTimes[row] = source.expectedFinishTimes[sourceRow];
+    }
+
+    private void grow() {
+        int capacity = cloudletIds.length * 2;
+        cloudletIds = Arrays.copyOf(cloudletIds, capacity);
+        hostIds = Arrays.copyOf(hostIds, capacity);
+        hostPes = Arrays.copyOf(hostPes, capacity);
+        vmIds = Arrays.copyOf(vmIds, capacity);
+        vmPes = Arrays.copyOf(vmPes, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        execTimes = Arrays.copyOf(execTimes, capacity);
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        finishTimes = Arrays.copyOf(finishTimes, capacity);
+        startWaitTimes = Arrays.copyOf(startWaitTimes, capacity);
+        expectedFinishTimes = Arrays.copyOf(expectedFinishTimes, capacity);
+    }
+
+    public String getFilePath() { return filePath; }
+    public int getRunId() { return runId; }
+    public String getVmAllocationPolicy() { return vmAllocationPolicy; }
+    public String getVmScheduler() { return vmScheduler; }
+    public String getCloudletScheduler() { return cloudletScheduler; }
+    public int size() { return size; }
+
+    public long getCloudletId(int row) { return cloudletIds[row]; }
+    public long getHostId(int row) { return hostIds[row]; }
+    public long getHostPes(int row) { return hostPes[row]; }
+    public long getVmId(int row) { return vmIds[row]; }
+    public long getVmPes(int row) { return vmPes[row]; }
+    public String getStatus(int row) { return statuses[row]; }
+    public double getExecTime(int row) { return execTimes[row]; }
+    public double getStartTime(int row) { return startTimes[row]; }
+    public double getFinishTime(int row) { return finishTimes[row]; }
+    public double getStartWaitTime(int row) { return startWaitTimes[row]; }
+    public double getExpectedFinishTime(int row) { return expectedFinishTimes[row]; }
+}
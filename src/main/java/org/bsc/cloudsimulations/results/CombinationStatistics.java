@@ -0,0 +1,96 @@
+package org.bsc.cloudsimulations.results;
+
+import org.bsc.cloudsimulations.statistics.OnlineStatistics;
+
+/*
+ * Cross-run statistics of every aggregate metric for one policy combination of one system
+ * (identified by the metrics file it is written to plus the three policy short codes)
+ * */
+public class CombinationStatistics {
+    //metrics columns that are aggregated, in the order of the metrics CSV
+    public static final String[] METRIC_NAMES = {
+        "Makespan", "Throughput", "HostLoadStdDev", "VMLoadStdDev", "OversubscribedCount",
+        "AvgPercentageIncreaseInCloudletExecTime", "TotalCompletedTasks",
+        "MeanResponseTime", "SteadyStateThroughput", "SteadyStateMeanResponseTime",
+        "EnergyWh", "EnergyPerTaskWh", "IdleHostTime",
+        "SetupTimeMs", "SimulationTimeMs", "PostProcessingTimeMs", "SimulationEvents", "AllocatedBytes", "GcPauseMs"
+    };
+    public static final int MAKESPAN = 0;
+    public static final int THROUGHPUT = 1;
+    public static final int ENERGY = 10;
+
+    private final String metricsFilePath;
+    private final String vmAllocationPolicy;
+    private final String vmScheduler;
+    private final String cloudletScheduler;
+    private final OnlineStatistics[] metrics = new OnlineStatistics[METRIC_NAMES.length];
+
+    CombinationStatistics(String metricsFilePath, String vmAllocationPolicy, String vmScheduler, String cloudletScheduler) {
+        this.metricsFilePath = metricsFilePath;
+        this.vmAllocationPolicy = vmAllocationPolicy;
+        this.vmScheduler = vmScheduler;
+        this.cloudletScheduler = cloudletScheduler;
+        for (int i = 0; i < metrics.length; i++) {
+            metrics[i] = new OnlineStatistics();
+        }
+    }
+
+    static String keyOf(String metricsFilePath, String vmAllocationPolicy, String vmScheduler, String cloudletScheduler) {
+        return metricsFilePath + '|' + vmAllocationPolicy + '|' + vmScheduler + '|' + cloudletScheduler;
+    }
+
+    void add(MetricsRecord record) {
+        metrics[0].add(record.getMakespan());
+        metrics[1].add(record.getThroughput());
+        metrics[2].add(record.getHostLoadStdDev());
+        metrics[3].add(record.getVmLoadStdDev());
+        metrics[4].add(record.getOversubscribedCount());
+        metrics[5].add(record.getAvgPercentageIncrease());
+        metrics[6].add(record.getTotalCompletedTasks());
+        metrics[7].add(record.getMeanResponseTime());
+        metrics[8].add(record.getSteadyStateThroughput());
+        metrics[9].add(record.getSteadyStateMeanResponseTime());
+        metrics[10].add(record.getEnergyWh());
+        metrics[11].add(record.getEnergyPerTaskWh());
+        metrics[12].add(record.getIdleHostTime());
+        if (record.isCached()) {
+            return; //the host-side cost only counts runs simulated in this batch
+        }
+        metrics[13].add(record.getSetupTimeMs());
+        metrics[14].add(record.getSimulationTimeMs());
+        metrics[15].add(record.getPostProcessingTimeMs());
+        metrics[16].add(record.getSimulationEvents());
+        metrics[17].add(record.getAllocatedBytes());
+        metrics[18].add(record.getGcPauseMs());
+    }
+
+    public String getMetricsFilePath() { return metricsFilePath; }
+    public String getVmAllocationPolicy() { return vmAllocationPolicy; }
+    public String getVmScheduler() { return vmScheduler; }
+    public String getCloudletScheduler() { return cloudletScheduler; }
+
+    //short label of the combination, e.g. BF-SS-TS
+    public String getLabel() {
+        return vmAllocationPolicy + "-" + vmScheduler + "-" + cloudletScheduler;
+    }
+
+    public long getRuns() {
+        return metrics[MAKESPAN].getCount();
+    }
+
+    public OnlineStatistics getMetric(int index) {
+        return metrics[index];
+    }
+
+    public OnlineStatistics getMakespan() {
+        return metrics[MAKESPAN];
+    }
+
+    public OnlineStatistics getThroughput() {
+        return metrics[THROUGHPUT];
+    }
+
+    public OnlineStatistics getEnergy() {
+        return metrics[ENERGY];
+    }
+}
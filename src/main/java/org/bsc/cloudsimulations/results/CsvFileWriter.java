@@ -0,0 +1,177 @@
+package org.bsc.cloudsimulations.results;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Long-lived, buffered writer for one CSV file
+ * Produces the same layout as opencsv's CSVWriter defaults (every field quoted, ',' separator, '\n' line end)
+ * Fields are copied straight into a reusable char buffer, numbers are formatted digit by digit,
+ * so writing a row does not allocate (unlike String.valueOf / String.format per cell)
+ * */
+public class CsvFileWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    //longest field we ever have to place in one go: a 19 digit long, sign, point and decimals, plus quotes
+    private static final int MAX_NUMBER_CHARS = 48;
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    //above this, half-units are no longer exact doubles; such values are rare enough to go through String.format
+    private static final double MAX_FAST_SCALED = 1e15;
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final char[] digits = new char[20];
+    private int position;
+    private boolean firstField = true;
+
+    public CsvFileWriter(String filePath, boolean append) throws IOException {
+        out = new OutputStreamWriter(new FileOutputStream(filePath, append), StandardCharsets.UTF_8);
+    }
+
+    //rows written to any character stream (e.g. a socket), closing the CsvFileWriter closes the stream
+    public CsvFileWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void writeRow(String[] fields) throws IOException {
+        for (String field : fields) {
+            field(field);
+        }
+        endRow();
+    }
+
+    public CsvFileWriter field(String value) throws IOException {
+        separator();
+        put('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                put('"'); //quotes inside a field are doubled
+            }
+            put(c);
+        }
+        put('"');
+        return this;
+    }
+
+    public CsvFileWriter field(long value) throws IOException {
+        separator();
+        ensureCapacity(MAX_NUMBER_CHARS);
+        buffer[position++] = '"';
+        appendLong(value);
+        buffer[position++] = '"';
+        return this;
+    }
+
+    //same text as String.format("%." + decimals + "f", value) with HALF_UP rounding, for 0..6 decimals
+    public CsvFileWriter field(double value, int decimals) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value) || decimals >= POWERS_OF_TEN.length
+                || Math.abs(value) * POWERS_OF_TEN[Math.min(decimals, POWERS_OF_TEN.length - 1)] >= MAX_FAST_SCALED) {
+            return field(String.format("%." + decimals + "f", value));
+        }
+        separator();
+        ensureCapacity(MAX_NUMBER_CHARS);
+        buffer[position++] = '"';
+
+        if (Double.doubleToRawLongBits(value) < 0) { //also keeps the sign of -0.0 like the formatter does
+            buffer[position++] = '-';
+        }
+        long scale = POWERS_OF_TEN[decimals];
+        double magnitude = Math.abs(value);
+        //Formatter rounds HALF_UP the shortest decimal form of the value (Double.toString digits), not its exact binary value
+        //the only place where both differ is the ...5 boundary closest to the value: if that boundary parses to this
+        //very double, the shortest form ends in 5 and rounds up, otherwise the exact comparison decides
+        double boundary = Math.rint(magnitude * scale - 0.5) + 0.5;
+        double boundaryValue = boundary / scale;
+        long rounded = (long) (magnitude >= boundaryValue ? boundary + 0.5 : boundary - 0.5);
+        appendLong(rounded / scale);
+        if (decimals > 0) {
+            buffer[position++] = '.';
+            long fraction = rounded % scale;
+            for (int i = decimals - 1; i >= 0; i--) {
+                buffer[position + i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            position += decimals;
+        }
+        buffer[position++] = '"';
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        put('\n');
+        firstField = true;
+    }
+
+    //a line written as it is, unquoted (comment lines between the rows of a streamed table)
+    public void writeLine(String line) throws IOException {
+        for (int i = 0, length = line.length(); i < length; i++) {
+            put(line.charAt(i));
+        }
+        endRow();
+    }
+
+    public void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void separator() throws IOException {
+        if (!firstField) {
+            put(',');
+        }
+        firstField = false;
+    }
+
+    private void put(char c) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = c;
+    }
+
+    private void ensureCapacity(int chars) throws IOException {
+        if (buffer.length - position < chars) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+
+    private void appendLong(long value) {
+        if (value == Long.MIN_VALUE) { //cannot be negated, never happens for ids and counts
+            String text = Long.toString(value);
+            text.getChars(0, text.length(), buffer, position);
+            position += text.length();
+            return;
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (count > 0) {
+            buffer[position++] = digits[--count];
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.bsc.cloudsimulations.results;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Column layout of the CSV tables, shared by the synchronous and asynchronous CSV sinks
+ * Detailed table times keep 1 decimal, aggregate metrics keep 2 decimals (as before)
+ * Metrics rows can be read back (merging shard outputs), with the precision they were written with
+ * */
+final class CsvRecordFormat {
+    //SetupTimeMs to GcPauseMs of the metrics table
+    private static final int HOST_COST_COLUMNS = 6;
+
+    private CsvRecordFormat() {
+    }
+
+    static void writeCloudlets(CsvFileWriter writer, CloudletRecordBatch batch) throws IOException {
+        for (int row = 0; row < batch.size(); row++) {
+            writer.field(batch.getRunId())
+                .field(batch.getVmAllocationPolicy())
+                .field(batch.getVmScheduler())
+                .field(batch.getCloudletScheduler())
+                .field(batch.getCloudletId(row))
+                .field(batch.getHostId(row))
+                .field(batch.getHostPes(row))
+                .field(batch.getVmId(row))
+                .field(batch.getVmPes(row))
+                .field(batch.getStatus(row))
+                .field(batch.getExecTime(row), 1)
+                .field(batch.getStartTime(row), 1)
+                .field(batch.getFinishTime(row), 1)
+                .field(batch.getStartWaitTime(row), 1)
+                .field(batch.getExpectedFinishTime(row), 1)
+                .endRow();
+        }
+    }
+
+    //one row per metric, the mean/min/max with 2 decimals like the metrics table
+    static void writeHistograms(CsvFileWriter writer, CloudletHistogramRecord record) throws IOException {
+        for (int metric = 0; metric < CloudletHistogramRecord.METRICS.length; metric++) {
+            writer.field(record.getRunId())
+                .field(record.getVmAllocationPolicy())
+                .field(record.getVmScheduler())
+                .field(record.getCloudletScheduler())
+                .field(CloudletHistogramRecord.METRICS[metric])
+                .field(record.getCount(metric))
+                .field(record.getMean(metric), 2)
+                .field(record.getMin(metric), 2)
+                .field(record.getMax(metric), 2);
+            for (int bucket = 0; bucket < record.getBucketCount(); bucket++) {
+                writer.field(record.getBucket(metric, bucket));
+            }
+            writer.endRow();
+        }
+    }
+
+    //one row per sample and entity (H for hosts, V for VMs), usage in percent with 1 decimal
+    static void writeUtilization(CsvFileWriter writer, UtilizationSeriesRecord record) throws IOException {
+        for (int sample = 0; sample < record.getSampleCount(); sample++) {
+            for (int entity = 0; entity < record.getEntityCount(); entity++) {
+                writer.field(record.getTime(sample), 1)
+                    .field(record.isHost(entity) ? "H" : "V")
+                    .field(record.getEntityId(entity))
+                    .field(record.getCpu(sample, entity) * 100.0, 1)
+                    .field(record.getRam(sample, entity) * 100.0, 1)
+                    .field(record.getBw(sample, entity) * 100.0, 1)
+                    .endRow();
+            }
+        }
+    }
+
+    static void writeMetrics(CsvFileWriter writer, MetricsRecord record) throws IOException {
+        writer.field(record.getRunId())
+            .field(record.getVmAllocationPolicy())
+            .field(record.getVmScheduler())
+            .field(record.getCloudletScheduler())
+            .field(record.getMakespan(), 2)
+            .field(record.getThroughput(), 2)
+            .field(record.getHostLoadStdDev(), 2)
+            .field(record.getVmLoadStdDev(), 2)
+            .field(record.getOversubscribedCount())
+            .field(record.getAvgPercentageIncrease(), 2)
+            .field(record.getTotalCompletedTasks())
+            .field(record.getMeanResponseTime(), 2)
+            .field(record.getSteadyStateThroughput(), 2)
+            .field(record.getSteadyStateMeanResponseTime(), 2)
+            .field(record.getEnergyWh(), 2)
+            .field(record.getEnergyPerTaskWh(), 2)
+            .field(record.getIdleHostTime(), 2);
+        if (record.isCached()) {
+            //nothing was simulated for a cached run, its host-side cost columns stay blank
+            for (int i = 0; i < HOST_COST_COLUMNS; i++) {
+                writer.field("");
+            }
+        } else {
+            writer.field(record.getSetupTimeMs(), 2)
+                .field(record.getSimulationTimeMs(), 2)
+                .field(record.getPostProcessingTimeMs(), 2)
+                .field(record.getSimulationEvents())
+                .field(record.getAllocatedBytes())
+                .field(record.getGcPauseMs());
+        }
+        writer.endRow();
+    }
+
+    //fields of one row as written by CsvFileWriter (every field quoted, inner quotes doubled, no line breaks inside fields)
+    static List<String> parseRow(String line) {
+        List<String> fields = new ArrayList<>(MetricsRecord.HEADER.length);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    //a row with blank host-side cost columns was replayed from the result cache and is read back as such
+    static MetricsRecord readMetrics(String filePath, List<String> fields) {
+        if (fields.size() != MetricsRecord.HEADER.length) {
+            throw new IllegalArgumentException("Metrics row of " + filePath + " has " + fields.size()
+                    + " fields instead of " + MetricsRecord.HEADER.length);
+        }
+        boolean cached = fields.get(17).isEmpty();
+        MetricsRecord record = new MetricsRecord(filePath, Integer.parseInt(fields.get(0)), fields.get(1), fields.get(2), fields.get(3),
+                Double.parseDouble(fields.get(4)), Double.parseDouble(fields.get(5)),
+                Double.parseDouble(fields.get(6)), Double.parseDouble(fields.get(7)),
+                Integer.parseInt(fields.get(8)), Double.parseDouble(fields.get(9)), Integer.parseInt(fields.get(10)),
+                Double.parseDouble(fields.get(11)), Double.parseDouble(fields.get(12)), Double.parseDouble(fields.get(13)),
+                Double.parseDouble(fields.get(14)), Double.parseDouble(fields.get(15)), Double.parseDouble(fields.get(16)),
+                cached ? 0 : Double.parseDouble(fields.get(17)), cached ? 0 : Double.parseDouble(fields.get(18)),
+                cached ? 0 : Double.parseDouble(fields.get(19)), cached ? 0 : Long.parseLong(fields.get(20)),
+                cached ? 0 : Long.parseLong(fields.get(21)), cached ? 0 : Long.parseLong(fields.get(22)));
+        if (cached) {
+            record.markCached();
+        }
+        return record;
+    }
+}
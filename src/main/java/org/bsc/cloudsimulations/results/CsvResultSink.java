@@ -0,0 +1,73 @@
+package org.bsc.cloudsimulations.results;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Synchronous CSV sink: appends the records to their CSV file in the calling thread
+ * Keeps track of the files which already received their header (once per file per program run)
+ * Writes to the same file are serialized through a per-file lock, so concurrent runs never interleave rows
+ * Opens the file on every write; for large batches prefer AsyncCsvResultSink, which keeps files open
+ * */
+public class CsvResultSink implements ResultSink {
+    private final Map<String, Boolean> headerWrittenFlags = new ConcurrentHashMap<>();
+    private final Map<String, Object> fileLocks = new ConcurrentHashMap<>();
+
+    @Override
+    public void writeCloudlets(CloudletRecordBatch batch) {
+        String filePath = batch.getFilePath();
+        synchronized (fileLocks.computeIfAbsent(filePath, path -> new Object())) {
+            try (CsvFileWriter writer = new CsvFileWriter(filePath, true)) {
+                writeHeaderIfNecessary(writer, filePath, CloudletRecordBatch.HEADER);
+                CsvRecordFormat.writeCloudlets(writer, batch);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void writeMetrics(MetricsRecord record) {
+        String filePath = record.getFilePath();
+        synchronized (fileLocks.computeIfAbsent(filePath, path -> new Object())) {
+            try (CsvFileWriter writer = new CsvFileWriter(filePath, true)) {
+                writeHeaderIfNecessary(writer, filePath, MetricsRecord.HEADER);
+                CsvRecordFormat.writeMetrics(writer, record);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void writeHistograms(CloudletHistogramRecord record) {
+        String filePath = record.getFilePath();
+        synchronized (fileLocks.computeIfAbsent(filePath, path -> new Object())) {
+            try (CsvFileWriter writer = new CsvFileWriter(filePath, true)) {
+                writeHeaderIfNecessary(writer, filePath, CloudletHistogramRecord.HEADER);
+                CsvRecordFormat.writeHistograms(writer, record);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    //a file of its own per run, written at once
+    @Override
+    public void writeUtilization(UtilizationSeriesRecord record) {
+        try (CsvFileWriter writer = new CsvFileWriter(record.getFilePath(), false)) {
+            writer.writeRow(UtilizationSeriesRecord.HEADER);
+            CsvRecordFormat.writeUtilization(writer, record);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    //only called while holding the file lock, so check-then-put is safe here
+    private void writeHeaderIfNecessary(CsvFileWriter writer, String filePath, String[] header) throws IOException {
+        if (headerWrittenFlags.putIfAbsent(filePath, true) == null) {
+            writer.writeRow(header);
+        }
+    }
+}
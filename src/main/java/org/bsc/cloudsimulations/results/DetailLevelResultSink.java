@@ -0,0 +1,174 @@
+package org.bsc.cloudsimulations.results;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.bsc.cloudsimulations.configurations.ConfigLoader;
+
+import com.google.gson.JsonObject;
+
+/*
+ * Level of detail of the detailed cloudlet table, applied in front of the writers:
+ * - reservoir: a uniform sample of at most reservoirSize rows per run (reservoir sampling, in finish order;
+ *   the sample of a run only depends on its run id and table file name, not on the worker count or output directory,
+ *   so a sharded batch samples the same rows as an unsharded one)
+ * - oversubscribed: only the rows with an expected finish time, i.e. the oversubscribed cloudlets
+ * - summary: no rows at all
+ * At every level, ExecTime, StartWaitTime and slowdown of all finished cloudlets of a run are counted into
+ * fixed-bucket histograms (*_Histograms.csv next to the detailed table), so the distributions are kept
+ * The full table needs no decorator. Runs produce the full rows (and the result cache stores them), so a cached run
+ * can be replayed at any level
+ * A run's records arrive contiguously and end with its metrics row, which is when its sample and histograms are written
+ * */
+public class DetailLevelResultSink implements ResultSink {
+    public static final String LEVELS = "full|reservoir|oversubscribed|summary";
+    private static final long SAMPLE_SEED_SALT = 0x5A3B_1E5DL;
+
+    private final ResultSink delegate;
+    private final String level;
+    private final int reservoirSize;
+
+    //run whose rows are being counted (and sampled), null between runs
+    private String pendingPath;
+    private int pendingRunId;
+    private CloudletRecordBatch reservoir;
+    //position of every reservoir row in the run's finish order, to write the sample in that order
+    private int[] reservoirPositions;
+    private int seen;
+    private Random random;
+    private CloudletHistogramRecord histograms;
+
+    public DetailLevelResultSink(ResultSink delegate, String level, int reservoirSize) {
+        if (!level.matches(LEVELS) || level.equals("full")) {
+            throw new IllegalArgumentException("Unknown detail level: " + level + " (" + LEVELS + ", full needs no decorator)");
+        }
+        if (reservoirSize <= 0) {
+            throw new IllegalArgumentException("Reservoir size must be positive: " + reservoirSize);
+        }
+        this.delegate = delegate;
+        this.level = level;
+        this.reservoirSize = reservoirSize;
+    }
+
+    //the delegate itself for the full table; "detailLevels": {"reservoirSize": ...} of config.json, 1000 rows per run if missing
+    public static ResultSink fromConfig(ConfigLoader configLoader, String level, ResultSink delegate) {
+        if (level.equals("full")) {
+            return delegate;
+        }
+        JsonObject settings = configLoader.getSettings("detailLevels");
+        int reservoirSize = settings != null && settings.has("reservoirSize") ? settings.get("reservoirSize").getAsInt() : 1000;
+        return new DetailLevelResultSink(delegate, level, reservoirSize);
+    }
+
+    @Override
+    public synchronized void writeCloudlets(CloudletRecordBatch batch) {
+        if (pendingPath != null && (pendingRunId != batch.getRunId() || !pendingPath.equals(batch.getFilePath()))) {
+            flush(); //previous run ended without its metrics row
+        }
+        if (pendingPath == null) {
+            start(batch);
+        }
+        for (int row = 0; row < batch.size(); row++) {
+            histograms.add(batch.getExecTime(row), batch.getStartWaitTime(row));
+        }
+        if (level.equals("oversubscribed")) {
+            CloudletRecordBatch oversubscribed = emptyLike(batch, 0);
+            for (int row = 0; row < batch.size(); row++) {
+                if (!Double.isNaN(batch.getExpectedFinishTime(row))) {
+                    oversubscribed.add(batch, row);
+                }
+            }
+            if (oversubscribed.size() > 0) {
+                delegate.writeCloudlets(oversubscribed);
+            }
+        } else if (level.equals("reservoir")) {
+            sample(batch);
+        }
+    }
+
+    @Override
+    public synchronized void writeMetrics(MetricsRecord record) {
+        if (pendingPath != null) {
+            flush();
+        }
+        delegate.writeMetrics(record);
+    }
+
+    @Override
+    public synchronized void writeHistograms(CloudletHistogramRecord record) {
+        delegate.writeHistograms(record);
+    }
+
+    @Override
+    public synchronized void writeUtilization(UtilizationSeriesRecord record) {
+        delegate.writeUtilization(record);
+    }
+
+    private void start(CloudletRecordBatch batch) {
+        pendingPath = batch.getFilePath();
+        pendingRunId = batch.getRunId();
+        histograms = new CloudletHistogramRecord(histogramsPathFor(pendingPath), pendingRunId,
+                batch.getVmAllocationPolicy(), batch.getVmScheduler(), batch.getCloudletScheduler());
+        if (level.equals("reservoir")) {
+            reservoir = emptyLike(batch, reservoirSize);
+            reservoirPositions = new int[reservoirSize];
+            seen = 0;
+            String table = Path.of(pendingPath).getFileName().toString();
+            random = new Random(pendingRunId * 0x9E3779B97F4A7C15L ^ table.hashCode() ^ SAMPLE_SEED_SALT);
+        }
+    }
+
+    //Algorithm R: the first reservoirSize rows fill the reservoir, row k (0-based) then replaces a random one with probability reservoirSize / (k + 1)
+    private void sample(CloudletRecordBatch batch) {
+        for (int row = 0; row < batch.size(); row++, seen++) {
+            if (reservoir.size() < reservoirSize) {
+                reservoirPositions[reservoir.size()] = seen;
+                reservoir.add(batch, row);
+            } else {
+                int slot = random.nextInt(seen + 1);
+                if (slot < reservoirSize) {
+                    reservoirPositions[slot] = seen;
+                    reservoir.set(slot, batch, row);
+                }
+            }
+        }
+    }
+
+    private void flush() {
+        if (reservoir != null) {
+            int size = reservoir.size();
+            //sorts the slots by position, packed into one long per slot (position in the high bits)
+            long[] order = new long[size];
+            for (int slot = 0; slot < size; slot++) {
+                order[slot] = ((long) reservoirPositions[slot] << 32) | slot;
+            }
+            Arrays.sort(order);
+            CloudletRecordBatch sample = emptyLike(reservoir, size);
+            for (long entry : order) {
+                sample.add(reservoir, (int) entry);
+            }
+            delegate.writeCloudlets(sample);
+        }
+        delegate.writeHistograms(histograms);
+        pendingPath = null;
+        reservoir = null;
+        reservoirPositions = null;
+        random = null;
+        histograms = null;
+    }
+
+    private static CloudletRecordBatch emptyLike(CloudletRecordBatch batch, int expectedSize) {
+        return new CloudletRecordBatch(batch.getFilePath(), batch.getRunId(), batch.getVmAllocationPolicy(),
+                batch.getVmScheduler(), batch.getCloudletScheduler(), expectedSize);
+    }
+
+    //Showcase_Heterogeneous_Detailed.csv -> Showcase_Heterogeneous_Histograms.csv
+    public static String histogramsPathFor(String detailedPath) {
+        int tableName = detailedPath.lastIndexOf('_');
+        if (tableName < 0) {
+            tableName = detailedPath.endsWith(".csv") ? detailedPath.length() - 4 : detailedPath.length();
+        }
+        return detailedPath.substring(0, tableName) + "_Histograms.csv";
+    }
+}
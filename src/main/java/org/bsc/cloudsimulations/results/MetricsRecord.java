@@ -0,0 +1,120 @@
+package org.bsc.cloudsimulations.results;
+
+/*
+ * Aggregate metrics of a single run (one row of the *_Metrics.csv file)
+ * Values are kept as primitives, formatting happens in the sink
+ * */
+public class MetricsRecord {
+    public static final String[] HEADER = {
+        "Run ID", "Vm Allocation Policy", "Vm Scheduler", "Cloudlet Scheduler",
+        "Makespan", "Throughput", "HostLoadStdDev", "VMLoadStdDev", "OversubscribedCount",
+        "AvgPercentageIncreaseInCloudletExecTime", "TotalCompletedTasks",
+        "MeanResponseTime", "SteadyStateThroughput", "SteadyStateMeanResponseTime",
+        "EnergyWh", "EnergyPerTaskWh", "IdleHostTime",
+        "SetupTimeMs", "SimulationTimeMs", "PostProcessingTimeMs", "SimulationEvents", "AllocatedBytes", "GcPauseMs"
+    };
+
+    private final String filePath;
+    private final int runId;
+    private final String vmAllocationPolicy;
+    private final String vmScheduler;
+    private final String cloudletScheduler;
+    private final double makespan;
+    private final double throughput;
+    private final double hostLoadStdDev;
+    private final double vmLoadStdDev;
+    private final int oversubscribedCount;
+    private final double avgPercentageIncrease;
+    private final int totalCompletedTasks;
+    private final double meanResponseTime;
+    private final double steadyStateThroughput;
+    private final double steadyStateMeanResponseTime;
+    //energy of all hosts over the run (see EnergyMeter), per completed task, and the host-seconds hosts spent idle
+    private final double energyWh;
+    private final double energyPerTaskWh;
+    private final double idleHostTime;
+    //host-side cost of the run (see RunInstrumentation)
+    private final double setupTimeMs;
+    private final double simulationTimeMs;
+    private final double postProcessingTimeMs;
+    private final long simulationEvents;
+    private final long allocatedBytes;
+    private final long gcPauseMs;
+    //replayed from the result cache, the host-side cost above is the one of the run that was cached
+    private boolean cached;
+
+    public MetricsRecord(String filePath, int runId, String vmAllocationPolicy, String vmScheduler, String cloudletScheduler,
+            double makespan, double throughput, double hostLoadStdDev, double vmLoadStdDev,
+            int oversubscribedCount, double avgPercentageIncrease, int totalCompletedTasks,
+            double meanResponseTime, double steadyStateThroughput, double steadyStateMeanResponseTime,
+            double energyWh, double energyPerTaskWh, double idleHostTime,
+            double setupTimeMs, double simulationTimeMs, double postProcessingTimeMs,
+            long simulationEvents, long allocatedBytes, long gcPauseMs) {
+        this.filePath = filePath;
+        this.runId = runId;
+        this.vmAllocationPolicy = vmAllocationPolicy;
+        this.vmScheduler = vmScheduler;
+        this.cloudletScheduler = cloudletScheduler;
+        this.makespan = makespan;
+        this.throughput = throughput;
+        this.hostLoadStdDev = hostLoadStdDev;
+        this.vmLoadStdDev = vmLoadStdDev;
+        this.oversubscribedCount = oversubscribedCount;
+        this.avgPercentageIncrease = avgPercentageIncrease;
+        this.totalCompletedTasks = totalCompletedTasks;
+        this.meanResponseTime = meanResponseTime;
+        this.steadyStateThroughput = steadyStateThroughput;
+        this.steadyStateMeanResponseTime = steadyStateMeanResponseTime;
+        this.energyWh = energyWh;
+        this.energyPerTaskWh = energyPerTaskWh;
+        this.idleHostTime = idleHostTime;
+        this.setupTimeMs = setupTimeMs;
+        this.simulationTimeMs = simulationTimeMs;
+        this.postProcessingTimeMs = postProcessingTimeMs;
+        this.simulationEvents = simulationEvents;
+        this.allocatedBytes = allocatedBytes;
+        this.gcPauseMs = gcPauseMs;
+    }
+
+    //same values under another file path
+    public MetricsRecord withFilePath(String filePath) {
+        MetricsRecord copy = new MetricsRecord(filePath, runId, vmAllocationPolicy, vmScheduler, cloudletScheduler,
+                makespan, throughput, hostLoadStdDev, vmLoadStdDev, oversubscribedCount, avgPercentageIncrease, totalCompletedTasks,
+                meanResponseTime, steadyStateThroughput, steadyStateMeanResponseTime,
+                energyWh, energyPerTaskWh, idleHostTime,
+                setupTimeMs, simulationTimeMs, postProcessingTimeMs, simulationEvents, allocatedBytes, gcPauseMs);
+        copy.cached = cached;
+        return copy;
+    }
+
+    public String getFilePath() { return filePath; }
+    public int getRunId() { return runId; }
+    public String getVmAllocationPolicy() { return vmAllocationPolicy; }
+    public String getVmScheduler() { return vmScheduler; }
+    public String getCloudletScheduler() { return cloudletScheduler; }
+    public double getMakespan() { return makespan; }
+    public double getThroughput() { return throughput; }
+    public double getHostLoadStdDev() { return hostLoadStdDev; }
+    public double getVmLoadStdDev() { return vmLoadStdDev; }
+    public int getOversubscribedCount() { return oversubscribedCount; }
+    public double getAvgPercentageIncrease() { return avgPercentageIncrease; }
+    public int getTotalCompletedTasks() { return totalCompletedTasks; }
+    public double getMeanResponseTime() { return meanResponseTime; }
+    public double getSteadyStateThroughput() { return steadyStateThroughput; }
+    public double getSteadyStateMeanResponseTime() { return steadyStateMeanResponseTime; }
+    public double getEnergyWh() { return energyWh; }
+    public double getEnergyPerTaskWh() { return energyPerTaskWh; }
+    public double getIdleHostTime() { return idleHostTime; }
+    public double getSetupTimeMs() { return setupTimeMs; }
+    public double getSimulationTimeMs() { return simulationTimeMs; }
+    public double getPostProcessingTimeMs() { return postProcessingTimeMs; }
+    public long getSimulationEvents() { return simulationEvents; }
+    //-1 when the JVM doesn't measure thread allocation
+    public long getAllocatedBytes() { return allocatedBytes; }
+    public long getGcPauseMs() { return gcPauseMs; }
+    public boolean isCached() { return cached; }
+
+    void markCached() {
+        cached = true;
+    }
+}
@@ -0,0 +1,42 @@
+package org.bsc.cloudsimulations.results;
+
+import java.nio.file.Path;
+
+/*
+ * Moves every record into an output directory before forwarding it (the file name stays the same)
+ * Used by headless shards, so several shards can share a working directory without writing to the same files
+ * Sits in front of the aggregator, so summaries end up next to the relocated metrics files
+ * */
+public class RelocatingResultSink implements ResultSink {
+    private final ResultSink delegate;
+    private final Path directory;
+
+    public RelocatingResultSink(ResultSink delegate, Path directory) {
+        this.delegate = delegate;
+        this.directory = directory;
+    }
+
+    @Override
+    public void writeCloudlets(CloudletRecordBatch batch) {
+        delegate.writeCloudlets(batch.withFilePath(relocate(batch.getFilePath())));
+    }
+
+    @Override
+    public void writeMetrics(MetricsRecord record) {
+        delegate.writeMetrics(record.withFilePath(relocate(record.getFilePath())));
+    }
+
+    @Override
+    public void writeHistograms(CloudletHistogramRecord record) {
+        delegate.writeHistograms(record.withFilePath(relocate(record.getFilePath())));
+    }
+
+    @Override
+    public void writeUtilization(UtilizationSeriesRecord record) {
+        delegate.writeUtilization(record.withFilePath(relocate(record.getFilePath())));
+    }
+
+    private String relocate(String filePath) {
+        return directory.resolve(Path.of(filePath).getFileName()).toString();
+    }
+}
@@ -0,0 +1,21 @@
+package org.bsc.cloudsimulations.results;
+
+/*
+ * Destination for the records produced by a simulation run
+ * Runs never open output files themselves, they hand structured records to a sink
+ * This lets several runs execute concurrently without racing on the same output file
+ * The file a record belongs to travels with the record, headers are handled by the sink
+ * */
+public interface ResultSink {
+    //detailed rows of all finished cloudlets of one run
+    void writeCloudlets(CloudletRecordBatch batch);
+
+    //aggregate metrics row of one run
+    void writeMetrics(MetricsRecord record);
+
+    //distributions of the finished cloudlets of one run (detail levels below the full table)
+    void writeHistograms(CloudletHistogramRecord record);
+
+    //host and VM utilization over the simulated time of one run (utilization sampler enabled)
+    void writeUtilization(UtilizationSeriesRecord record);
+}
@@ -0,0 +1,187 @@
+package org.bsc.cloudsimulations.results;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.bsc.cloudsimulations.results.columnar.ColumnarCloudletReader;
+import org.bsc.cloudsimulations.results.columnar.ColumnarCloudletWriter;
+
+/*
+ * Combines the outputs of the shards of a headless batch (shard-<i>-of-<n> directories) into the output directory
+ * - CSV tables are concatenated in shard order with a single header; shards hold contiguous blocks of the run space,
+ *   so the merged tables have the rows of an unsharded batch, in the same order
+ * - binary columnar tables (*.col) are rebuilt block by block into one file
+ * - summaries are not concatenated: they are computed again over the merged metrics rows (read back with
+ *   the 2 decimals of the CSV) and written next to the merged metrics files
+ * Merged files replace earlier merge results, the shard directories are left untouched
+ * */
+public final class ShardMerger {
+    private static final Pattern SHARD_DIRECTORY = Pattern.compile("shard-(\\d+)-of-(\\d+)");
+
+    private ShardMerger() {
+    }
+
+    public static void merge(Path outputDirectory, UnaryOperator<String> baselinePathOf) {
+        List<Path> shards = findShards(outputDirectory);
+        Set<String> fileNames = new TreeSet<>();
+        for (Path shard : shards) {
+            try (Stream<Path> files = Files.list(shard)) {
+                files.map(file -> file.getFileName().toString())
+                    .filter(name -> (name.endsWith(".csv") && !name.endsWith("_Summary.csv")) || name.endsWith(".col"))
+                    .forEach(fileNames::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot list shard directory: " + shard, e);
+            }
+        }
+        if (fileNames.isEmpty()) {
+            throw new IllegalStateException("No result files found in the shard directories of " + outputDirectory);
+        }
+
+        try (StreamingAggregator aggregator = new StreamingAggregator(new DiscardingSink())) {
+            aggregator.setBaselinePaths(baselinePathOf);
+            for (String fileName : fileNames) {
+                Path target = outputDirectory.resolve(fileName);
+                if (fileName.endsWith(".col")) {
+                    mergeColumnar(shards, fileName, target);
+                } else {
+                    mergeCsv(shards, fileName, target);
+                    if (fileName.endsWith("_Metrics.csv")) {
+                        readMetrics(target, aggregator);
+                    }
+                }
+                System.out.println("Merged " + shards.size() + " shards into " + target);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to merge the shards of " + outputDirectory, e);
+        }
+    }
+
+    //shard directories 1..n in order, all of them must be present
+    private static List<Path> findShards(Path outputDirectory) {
+        TreeMap<Integer, Path> shards = new TreeMap<>();
+        int count = -1;
+        try (Stream<Path> entries = Files.list(outputDirectory)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                Matcher matcher = SHARD_DIRECTORY.matcher(entry.getFileName().toString());
+                if (!Files.isDirectory(entry) || !matcher.matches()) {
+                    continue;
+                }
+                int shardCount = Integer.parseInt(matcher.group(2));
+                if (count >= 0 && shardCount != count) {
+                    throw new IllegalStateException("Shards of different shard counts (" + count + " and " + shardCount + ") in " + outputDirectory);
+                }
+                count = shardCount;
+                shards.put(Integer.parseInt(matcher.group(1)), entry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list output directory: " + outputDirectory, e);
+        }
+        if (count < 0) {
+            throw new IllegalStateException("No shard directories (shard-<i>-of-<n>) found in " + outputDirectory);
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            if (!shards.containsKey(i)) {
+                missing.add(i);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing shards " + missing + " of " + count + " in " + outputDirectory);
+        }
+        return new ArrayList<>(shards.values());
+    }
+
+    private static void mergeCsv(List<Path> shards, String fileName, Path target) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            boolean headerWritten = false;
+            for (Path shard : shards) {
+                Path source = shard.resolve(fileName);
+                if (!Files.exists(source)) {
+                    continue;
+                }
+                try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+                    String header = reader.readLine();
+                    if (header == null) {
+                        continue;
+                    }
+                    if (!headerWritten) {
+                        writer.write(header);
+                        writer.write('\n');
+                        headerWritten = true;
+                    }
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        writer.write(line);
+                        writer.write('\n');
+                    }
+                }
+            }
+        }
+    }
+
+    private static void mergeColumnar(List<Path> shards, String fileName, Path target) throws IOException {
+        Files.deleteIfExists(target); //the writer would append to it
+        try (ColumnarCloudletWriter writer = new ColumnarCloudletWriter(target.toString())) {
+            for (Path shard : shards) {
+                Path source = shard.resolve(fileName);
+                if (!Files.exists(source)) {
+                    continue;
+                }
+                try (ColumnarCloudletReader reader = new ColumnarCloudletReader(source.toString())) {
+                    reader.forEachBatch(target.toString(), batch -> {
+                        try {
+                            writer.append(batch);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    private static void readMetrics(Path metricsFile, ResultSink sink) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(metricsFile, StandardCharsets.UTF_8)) {
+            reader.readLine(); //header
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    sink.writeMetrics(CsvRecordFormat.readMetrics(metricsFile.toString(), CsvRecordFormat.parseRow(line)));
+                }
+            }
+        }
+    }
+
+    //the aggregator only has to see the metrics, the merged tables are already written
+    private static class DiscardingSink implements ResultSink {
+        @Override
+        public void writeCloudlets(CloudletRecordBatch batch) {
+        }
+
+        @Override
+        public void writeMetrics(MetricsRecord record) {
+        }
+
+        @Override
+        public void writeHistograms(CloudletHistogramRecord record) {
+        }
+
+        @Override
+        public void writeUtilization(UtilizationSeriesRecord record) {
+        }
+    }
+}
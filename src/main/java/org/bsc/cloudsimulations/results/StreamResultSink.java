@@ -0,0 +1,50 @@
+package org.bsc.cloudsimulations.results;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/*
+ * Sends the metrics rows of the runs as CSV to a stream (a client connection of the simulation daemon)
+ * Every row is flushed as soon as it is written, so the client sees each run when it is drained
+ * Detailed rows, histograms and utilization series stay on the daemon side, they are dropped
+ * The stream is not closed here, the connection outlives a job
+ * */
+public class StreamResultSink implements ResultSink {
+    private final CsvFileWriter writer;
+
+    public StreamResultSink(CsvFileWriter writer) {
+        this.writer = writer;
+    }
+
+    public synchronized void writeHeader() {
+        try {
+            writer.writeRow(MetricsRecord.HEADER);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write to the client", e);
+        }
+    }
+
+    @Override
+    public void writeCloudlets(CloudletRecordBatch batch) {
+    }
+
+    @Override
+    public synchronized void writeMetrics(MetricsRecord record) {
+        try {
+            CsvRecordFormat.writeMetrics(writer, record);
+            writer.flush();
+        } catch (IOException e) {
+            //the client went away, the rest of the job is abandoned
+            throw new UncheckedIOException("Cannot write to the client", e);
+        }
+    }
+
+    @Override
+    public void writeHistograms(CloudletHistogramRecord record) {
+    }
+
+    @Override
+    public void writeUtilization(UtilizationSeriesRecord record) {
+    }
+}
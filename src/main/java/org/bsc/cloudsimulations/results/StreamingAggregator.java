@@ -0,0 +1,185 @@
+package org.bsc.cloudsimulations.results;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import org.bsc.cloudsimulations.statistics.OnlineStatistics;
+
+/*
+ * Aggregates the metrics rows across runs while the batch is running, so no second pass over the CSV is needed
+ * Every record is forwarded unchanged to the delegate sink; metrics records additionally update the
+ * OnlineStatistics (Welford mean/variance, min/max, P-square quantiles, 95% CI) of their policy combination
+ * Memory only depends on the number of combinations, not on the number of runs
+ * On close the summary is printed and written to *_Summary.csv next to each metrics file
+ * With baseline paths set, combinations whose metrics file has a baseline file are also compared with the same
+ * combination there (makespan gain, e.g. a cloudlet mapping over the broker's default one)
+ * */
+public class StreamingAggregator implements ResultSink, AutoCloseable {
+    public static final String[] SUMMARY_HEADER = {
+        "Vm Allocation Policy", "Vm Scheduler", "Cloudlet Scheduler", "Metric", "Runs",
+        "Mean", "StdDev", "Min", "Max", "P50", "P95", "CI95Low", "CI95High"
+    };
+
+    private final ResultSink delegate;
+    //insertion order keeps the summary in run order
+    private final Map<String, CombinationStatistics> combinations = new LinkedHashMap<>();
+    //metrics file of the baseline of a metrics file (the file itself when it has none), null for no comparison
+    private UnaryOperator<String> baselinePathOf;
+
+    public StreamingAggregator(ResultSink delegate) {
+        this.delegate = delegate;
+    }
+
+    public synchronized void setBaselinePaths(UnaryOperator<String> baselinePathOf) {
+        this.baselinePathOf = baselinePathOf;
+    }
+
+    @Override
+    public void writeCloudlets(CloudletRecordBatch batch) {
+        delegate.writeCloudlets(batch);
+    }
+
+    @Override
+    public void writeHistograms(CloudletHistogramRecord record) {
+        delegate.writeHistograms(record);
+    }
+
+    @Override
+    public void writeUtilization(UtilizationSeriesRecord record) {
+        delegate.writeUtilization(record);
+    }
+
+    @Override
+    public void writeMetrics(MetricsRecord record) {
+        synchronized (this) {
+            combinations.computeIfAbsent(
+                    CombinationStatistics.keyOf(record.getFilePath(), record.getVmAllocationPolicy(), record.getVmScheduler(), record.getCloudletScheduler()),
+                    key -> new CombinationStatistics(record.getFilePath(), record.getVmAllocationPolicy(), record.getVmScheduler(), record.getCloudletScheduler()))
+                .add(record);
+        }
+        delegate.writeMetrics(record);
+    }
+
+    //statistics of one combination, null if no run of it has finished yet
+    public synchronized CombinationStatistics getStatistics(String metricsFilePath, String vmAllocationPolicy,
+            String vmScheduler, String cloudletScheduler) {
+        return combinations.get(CombinationStatistics.keyOf(metricsFilePath, vmAllocationPolicy, vmScheduler, cloudletScheduler));
+    }
+
+    public synchronized List<CombinationStatistics> getCombinations() {
+        return new ArrayList<>(combinations.values());
+    }
+
+    //visits every combination while holding the lock, so statistics can be read while runs are still being added
+    public synchronized void forEachCombination(Consumer<CombinationStatistics> action) {
+        combinations.values().forEach(action);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (combinations.isEmpty()) {
+            return;
+        }
+        printSummary();
+        writeSummaryFiles();
+    }
+
+    private void printSummary() {
+        System.out.println("Summary over runs (mean +/- 95% CI half-width):");
+        System.out.printf("%-38s %-16s %-6s %-22s %-20s %-14s %-22s%n", "MetricsFile", "Combination", "Runs", "Makespan", "Throughput",
+                "HostLoadStdDev", "EnergyWh");
+        for (CombinationStatistics combination : combinations.values()) {
+            System.out.printf("%-38s %-16s %-6d %-22s %-20s %-14.2f %-22s%n",
+                    combination.getMetricsFilePath(), combination.getLabel(), combination.getRuns(),
+                    formatMeanAndHalfWidth(combination.getMakespan()), formatMeanAndHalfWidth(combination.getThroughput()),
+                    combination.getMetric(2).getMean(), formatMeanAndHalfWidth(combination.getEnergy()));
+        }
+        if (baselinePathOf != null) {
+            printMakespanGains();
+        }
+    }
+
+    //runs with the same id see the same inputs under every combination, so the means are compared on equal workloads
+    private void printMakespanGains() {
+        boolean headerPrinted = false;
+        for (CombinationStatistics combination : combinations.values()) {
+            String baselinePath = baselinePathOf.apply(combination.getMetricsFilePath());
+            if (baselinePath.equals(combination.getMetricsFilePath())) {
+                continue;
+            }
+            CombinationStatistics baseline = combinations.get(CombinationStatistics.keyOf(baselinePath,
+                    combination.getVmAllocationPolicy(), combination.getVmScheduler(), combination.getCloudletScheduler()));
+            if (baseline == null || baseline.getMakespan().getMean() == 0) {
+                continue;
+            }
+            if (!headerPrinted) {
+                System.out.println("Makespan gain over the baseline (positive: shorter makespan):");
+                System.out.printf("%-38s %-16s %-22s %-22s %-10s%n", "MetricsFile", "Combination", "Makespan", "BaselineMakespan", "Gain");
+                headerPrinted = true;
+            }
+            double baselineMean = baseline.getMakespan().getMean();
+            System.out.printf("%-38s %-16s %-22s %-22s %+.2f%%%n",
+                    combination.getMetricsFilePath(), combination.getLabel(),
+                    formatMeanAndHalfWidth(combination.getMakespan()), formatMeanAndHalfWidth(baseline.getMakespan()),
+                    100 * (baselineMean - combination.getMakespan().getMean()) / baselineMean);
+        }
+    }
+
+    private static String formatMeanAndHalfWidth(OnlineStatistics statistics) {
+        return String.format("%.2f +/- %.2f", statistics.getMean(), statistics.getConfidenceHalfWidth());
+    }
+
+    //one summary file per metrics file, overwritten on every batch
+    private void writeSummaryFiles() {
+        Set<String> metricsFiles = new LinkedHashSet<>();
+        for (CombinationStatistics combination : combinations.values()) {
+            metricsFiles.add(combination.getMetricsFilePath());
+        }
+        for (String metricsFile : metricsFiles) {
+            try (CsvFileWriter writer = new CsvFileWriter(summaryPathFor(metricsFile), false)) {
+                writer.writeRow(SUMMARY_HEADER);
+                for (CombinationStatistics combination : combinations.values()) {
+                    if (combination.getMetricsFilePath().equals(metricsFile)) {
+                        writeCombination(writer, combination);
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static void writeCombination(CsvFileWriter writer, CombinationStatistics combination) throws IOException {
+        for (int i = 0; i < CombinationStatistics.METRIC_NAMES.length; i++) {
+            OnlineStatistics statistics = combination.getMetric(i);
+            double halfWidth = statistics.getConfidenceHalfWidth();
+            writer.field(combination.getVmAllocationPolicy())
+                .field(combination.getVmScheduler())
+                .field(combination.getCloudletScheduler())
+                .field(CombinationStatistics.METRIC_NAMES[i])
+                .field(statistics.getCount())
+                .field(statistics.getMean(), 4)
+                .field(statistics.getStandardDeviation(), 4)
+                .field(statistics.getMin(), 4)
+                .field(statistics.getMax(), 4)
+                .field(statistics.getMedian(), 4)
+                .field(statistics.getP95(), 4)
+                .field(statistics.getMean() - halfWidth, 4)
+                .field(statistics.getMean() + halfWidth, 4)
+                .endRow();
+        }
+    }
+
+    static String summaryPathFor(String metricsFilePath) {
+        return metricsFilePath.endsWith("_Metrics.csv")
+                ? metricsFilePath.substring(0, metricsFilePath.length() - "_Metrics.csv".length()) + "_Summary.csv"
+                : metricsFilePath + "_Summary.csv";
+    }
+}
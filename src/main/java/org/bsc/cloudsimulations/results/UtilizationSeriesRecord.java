@@ -0,0 +1,58 @@
+package org.bsc.cloudsimulations.results;
+
+/*
+ * Host and VM utilization sampled over the simulated time of one run (the *_Utilization.csv file of the run)
+ * Entities are the hosts and then the VMs, sampled at the same times; CPU, RAM and BW usage are fractions in [0, 1]
+ * kept in primitive arrays, sample by sample: value of entity e at sample s at index s * entityCount + e
+ * One file per run, since a table over every run of a combination would grow with runs x samples x entities
+ * */
+public class UtilizationSeriesRecord {
+    public static final String[] HEADER = {"Time", "Entity", "Id", "CpuPct", "RamPct", "BwPct"};
+
+    private final String filePath;
+    private final int runId;
+    private final int hostCount;
+    private final long[] entityIds;
+    private final double[] times;
+    private final float[] cpu;
+    private final float[] ram;
+    private final float[] bw;
+
+    public UtilizationSeriesRecord(String filePath, int runId, int hostCount, long[] entityIds,
+            double[] times, float[] cpu, float[] ram, float[] bw) {
+        this.filePath = filePath;
+        this.runId = runId;
+        this.hostCount = hostCount;
+        this.entityIds = entityIds;
+        this.times = times;
+        this.cpu = cpu;
+        this.ram = ram;
+        this.bw = bw;
+    }
+
+    //"<metrics table prefix>_<policies>_Run<id>_Utilization.csv", next to the metrics table of the run
+    public static String pathFor(String metricsPath, String policies, int runId) {
+        int tableName = metricsPath.lastIndexOf('_');
+        if (tableName < 0) {
+            tableName = metricsPath.endsWith(".csv") ? metricsPath.length() - 4 : metricsPath.length();
+        }
+        return metricsPath.substring(0, tableName) + "_" + policies + "_Run" + runId + "_Utilization.csv";
+    }
+
+    //same samples under another file path (the arrays are shared, records are never modified)
+    public UtilizationSeriesRecord withFilePath(String filePath) {
+        return new UtilizationSeriesRecord(filePath, runId, hostCount, entityIds, times, cpu, ram, bw);
+    }
+
+    public String getFilePath() { return filePath; }
+    public int getRunId() { return runId; }
+    public int getHostCount() { return hostCount; }
+    public int getEntityCount() { return entityIds.length; }
+    public int getSampleCount() { return times.length; }
+    public boolean isHost(int entity) { return entity < hostCount; }
+    public long getEntityId(int entity) { return entityIds[entity]; }
+    public double getTime(int sample) { return times[sample]; }
+    public float getCpu(int sample, int entity) { return cpu[sample * entityIds.length + entity]; }
+    public float getRam(int sample, int entity) { return ram[sample * entityIds.length + entity]; }
+    public float getBw(int sample, int entity) { return bw[sample * entityIds.length + entity]; }
+}
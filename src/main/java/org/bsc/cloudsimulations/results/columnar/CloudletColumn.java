@@ -0,0 +1,94 @@
+package org.bsc.cloudsimulations.results.columnar;
+
+/*
+ * Columns of the binary detailed cloudlet table, in the same order as the CSV header
+ * Run-level columns (run id and the dictionary-encoded policy short codes) are stored once per block header,
+ * every other column is a fixed-width primitive array inside the block (width in bytes)
+ * */
+public enum CloudletColumn {
+    RUN_ID("Run ID", Type.RUN_LEVEL),
+    VM_ALLOCATION_POLICY("Vm Allocation Policy", Type.RUN_LEVEL),
+    VM_SCHEDULER("Vm Scheduler", Type.RUN_LEVEL),
+    CLOUDLET_SCHEDULER("Cloudlet Scheduler", Type.RUN_LEVEL),
+    CLOUDLET_ID("Cloudlet ID", Type.LONG),
+    HOST_ID("Host Id", Type.LONG),
+    HOST_PES("Host PEs", Type.INT),
+    VM_ID("VM ID", Type.LONG),
+    VM_PES("VM PEs", Type.INT),
+    STATUS("Status", Type.DICTIONARY),
+    EXEC_TIME("ExecTime", Type.DOUBLE),
+    START_TIME("StartTime", Type.DOUBLE),
+    FINISH_TIME("FinishTime", Type.DOUBLE),
+    START_WAIT_TIME("StartWaitTime", Type.DOUBLE),
+    EXPECTED_FINISH_TIME("ExpectedFinishTime", Type.DOUBLE);
+
+    //storage of a column, with its width in bytes per row
+    public enum Type {
+        RUN_LEVEL(0), LONG(Long.BYTES), INT(Integer.BYTES), DICTIONARY(Short.BYTES), DOUBLE(Double.BYTES);
+
+        private final int width;
+
+        Type(int width) {
+            this.width = width;
+        }
+
+        public int width() {
+            return width;
+        }
+    }
+
+    //bytes taken by one row of all per-row columns together
+    static final int ROW_BYTES;
+
+    static {
+        int rowBytes = 0;
+        for (CloudletColumn column : values()) {
+            rowBytes += column.width;
+        }
+        ROW_BYTES = rowBytes;
+    }
+
+    private final String header;
+    private final Type type;
+    private final int width;
+
+    CloudletColumn(String header, Type type) {
+        this.header = header;
+        this.type = type;
+        this.width = type.width;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isRunLevel() {
+        return type == Type.RUN_LEVEL;
+    }
+
+    //byte offset of this column's array inside a block holding the given number of rows (after the block header)
+    long offsetInBlock(int rowCount) {
+        long offset = ColumnarFormat.BLOCK_HEADER_BYTES;
+        for (CloudletColumn column : values()) {
+            if (column == this) {
+                return offset;
+            }
+            offset += (long) column.width * rowCount;
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    //accepts the CSV header names ("FinishTime", "Vm Allocation Policy", ...) as well as the enum names
+    public static CloudletColumn fromName(String name) {
+        for (CloudletColumn column : values()) {
+            if (column.header.equalsIgnoreCase(name) || column.name().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column: " + name);
+    }
+}
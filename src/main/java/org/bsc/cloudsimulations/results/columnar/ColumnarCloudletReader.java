@@ -0,0 +1,196 @@
+package org.bsc.cloudsimulations.results.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.LongConsumer;
+
+import org.bsc.cloudsimulations.results.CloudletRecordBatch;
+
+/*
+ * Reads a binary columnar detailed table written by ColumnarCloudletWriter
+ * A scan only touches the block headers and the mapped array of the requested column:
+ * the filter is checked against the run-level values in the block header, non-matching blocks are skipped
+ * entirely, and the other columns of matching blocks are never read or decoded
+ *
+ * Usage from the command line:
+ * ColumnarCloudletReader <file.col> <column> [<filter column> <filter value>]
+ * e.g. Showcase_Heterogeneous_Detailed.col FinishTime "Vm Allocation Policy" BF
+ * */
+public class ColumnarCloudletReader implements Closeable {
+    private final FileChannel channel;
+    private final List<String> dictionary;
+    private final long[] blockOffsets;
+
+    public ColumnarCloudletReader(String filePath) throws IOException {
+        channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+        try {
+            ColumnarFooter footer = ColumnarFooter.read(channel, filePath);
+            dictionary = Collections.unmodifiableList(footer.getDictionary());
+            blockOffsets = footer.getBlockOffsets();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public List<String> getDictionary() {
+        return dictionary;
+    }
+
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    //feeds every value of a DOUBLE column to the consumer, optionally only for blocks matching the filter
+    public void scanDoubles(CloudletColumn column, CloudletColumn filterColumn, String filterValue, DoubleConsumer consumer) throws IOException {
+        requireType(column, CloudletColumn.Type.DOUBLE);
+        for (long blockOffset : blockOffsets) {
+            int rows = matchingBlockRows(blockOffset, filterColumn, filterValue);
+            if (rows > 0) {
+                MappedByteBuffer values = mapColumn(blockOffset, rows, column);
+                for (int row = 0; row < rows; row++) {
+                    consumer.accept(values.getDouble(row * Double.BYTES));
+                }
+            }
+        }
+    }
+
+    //feeds every value of a LONG or INT column to the consumer, optionally only for blocks matching the filter
+    public void scanLongs(CloudletColumn column, CloudletColumn filterColumn, String filterValue, LongConsumer consumer) throws IOException {
+        if (column.getType() != CloudletColumn.Type.INT) {
+            requireType(column, CloudletColumn.Type.LONG);
+        }
+        for (long blockOffset : blockOffsets) {
+            int rows = matchingBlockRows(blockOffset, filterColumn, filterValue);
+            if (rows > 0) {
+                MappedByteBuffer values = mapColumn(blockOffset, rows, column);
+                for (int row = 0; row < rows; row++) {
+                    consumer.accept(column.getType() == CloudletColumn.Type.INT
+                            ? values.getInt(row * Integer.BYTES)
+                            : values.getLong(row * Long.BYTES));
+                }
+            }
+        }
+    }
+
+    //rebuilds every block as a CloudletRecordBatch of the given file path, in file order (used to merge shard outputs)
+    public void forEachBatch(String filePath, Consumer<CloudletRecordBatch> consumer) throws IOException {
+        for (long blockOffset : blockOffsets) {
+            ByteBuffer header = ColumnarFooter.readAt(channel, blockOffset, ColumnarFormat.BLOCK_HEADER_BYTES);
+            int rows = header.getInt();
+            int runId = header.getInt();
+            CloudletRecordBatch batch = new CloudletRecordBatch(filePath, runId,
+                    dictionary.get(header.getInt()), dictionary.get(header.getInt()), dictionary.get(header.getInt()), rows);
+            MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, blockOffset,
+                    ColumnarFormat.BLOCK_HEADER_BYTES + (long) rows * CloudletColumn.ROW_BYTES);
+            block.order(ColumnarFormat.BYTE_ORDER);
+            int[] offsets = columnOffsets(rows);
+            for (int row = 0; row < rows; row++) {
+                batch.add(block.getLong(offsets[CloudletColumn.CLOUDLET_ID.ordinal()] + row * Long.BYTES),
+                        block.getLong(offsets[CloudletColumn.HOST_ID.ordinal()] + row * Long.BYTES),
+                        block.getInt(offsets[CloudletColumn.HOST_PES.ordinal()] + row * Integer.BYTES),
+                        block.getLong(offsets[CloudletColumn.VM_ID.ordinal()] + row * Long.BYTES),
+                        block.getInt(offsets[CloudletColumn.VM_PES.ordinal()] + row * Integer.BYTES),
+                        dictionary.get(block.getShort(offsets[CloudletColumn.STATUS.ordinal()] + row * Short.BYTES)),
+                        block.getDouble(offsets[CloudletColumn.EXEC_TIME.ordinal()] + row * Double.BYTES),
+                        block.getDouble(offsets[CloudletColumn.START_TIME.ordinal()] + row * Double.BYTES),
+                        block.getDouble(offsets[CloudletColumn.FINISH_TIME.ordinal()] + row * Double.BYTES),
+                        block.getDouble(offsets[CloudletColumn.START_WAIT_TIME.ordinal()] + row * Double.BYTES),
+                        block.getDouble(offsets[CloudletColumn.EXPECTED_FINISH_TIME.ordinal()] + row * Double.BYTES));
+            }
+            consumer.accept(batch);
+        }
+    }
+
+    //start of every column's array inside a mapped block of the given row count (blocks stay below 2 GB)
+    private static int[] columnOffsets(int rows) {
+        CloudletColumn[] columns = CloudletColumn.values();
+        int[] offsets = new int[columns.length];
+        for (CloudletColumn column : columns) {
+            offsets[column.ordinal()] = (int) column.offsetInBlock(rows);
+        }
+        return offsets;
+    }
+
+    //row count of the block, or 0 if the block does not pass the run-level filter
+    private int matchingBlockRows(long blockOffset, CloudletColumn filterColumn, String filterValue) throws IOException {
+        ByteBuffer header = ColumnarFooter.readAt(channel, blockOffset, ColumnarFormat.BLOCK_HEADER_BYTES);
+        int rows = header.getInt();
+        if (filterColumn == null) {
+            return rows;
+        }
+        int runId = header.getInt();
+        int allocationPolicy = header.getInt();
+        int vmScheduler = header.getInt();
+        int cloudletScheduler = header.getInt();
+        switch (filterColumn) {
+            case RUN_ID:
+                return String.valueOf(runId).equals(filterValue) ? rows : 0;
+            case VM_ALLOCATION_POLICY:
+                return dictionary.get(allocationPolicy).equals(filterValue) ? rows : 0;
+            case VM_SCHEDULER:
+                return dictionary.get(vmScheduler).equals(filterValue) ? rows : 0;
+            case CLOUDLET_SCHEDULER:
+                return dictionary.get(cloudletScheduler).equals(filterValue) ? rows : 0;
+            default:
+                throw new IllegalArgumentException("Only run-level columns can be used as filter: " + filterColumn.getHeader());
+        }
+    }
+
+    private MappedByteBuffer mapColumn(long blockOffset, int rows, CloudletColumn column) throws IOException {
+        long offset = blockOffset + column.offsetInBlock(rows);
+        MappedByteBuffer values = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) rows * column.getType().width());
+        values.order(ColumnarFormat.BYTE_ORDER);
+        return values;
+    }
+
+    private static void requireType(CloudletColumn column, CloudletColumn.Type type) {
+        if (column.getType() != type) {
+            throw new IllegalArgumentException("Column " + column.getHeader() + " is not of type " + type);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 4) {
+            System.err.println("Usage: ColumnarCloudletReader <file.col> <column> [<filter column> <filter value>]");
+            System.exit(1);
+        }
+        CloudletColumn column = CloudletColumn.fromName(args[1]);
+        CloudletColumn filterColumn = args.length == 4 ? CloudletColumn.fromName(args[2]) : null;
+        String filterValue = args.length == 4 ? args[3] : null;
+
+        try (ColumnarCloudletReader reader = new ColumnarCloudletReader(args[0])) {
+            double[] stats = {0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY}; //count, sum, min, max
+            if (column.getType() == CloudletColumn.Type.DOUBLE) {
+                reader.scanDoubles(column, filterColumn, filterValue, value -> accumulate(stats, value));
+            } else {
+                reader.scanLongs(column, filterColumn, filterValue, value -> accumulate(stats, value));
+            }
+            System.out.printf("%s%s: count=%d mean=%.2f min=%.2f max=%.2f%n", column.getHeader(),
+                    filterColumn == null ? "" : " where " + filterColumn.getHeader() + " = " + filterValue,
+                    (long) stats[0], stats[0] == 0 ? Double.NaN : stats[1] / stats[0],
+                    stats[0] == 0 ? Double.NaN : stats[2], stats[0] == 0 ? Double.NaN : stats[3]);
+        }
+    }
+
+    private static void accumulate(double[] stats, double value) {
+        stats[0]++;
+        stats[1] += value;
+        stats[2] = Math.min(stats[2], value);
+        stats[3] = Math.max(stats[3], value);
+    }
+}
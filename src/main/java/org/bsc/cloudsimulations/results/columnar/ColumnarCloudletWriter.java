@@ -0,0 +1,150 @@
+package org.bsc.cloudsimulations.results.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bsc.cloudsimulations.results.CloudletRecordBatch;
+
+/*
+ * Appends CloudletRecordBatches to a binary columnar file (layout described in ColumnarFormat)
+ * Every block is written through a memory-mapped region of exactly the block's size,
+ * so no intermediate byte arrays or strings are created per row
+ * Opening an existing file loads its dictionary and block index and continues after its trailer,
+ * the old footer stays valid until close() has written the new one
+ * */
+public class ColumnarCloudletWriter implements Closeable {
+    private final FileChannel channel;
+    private final Map<String, Integer> dictionaryIds = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+    private final List<Long> blockOffsets = new ArrayList<>();
+    private long position;
+
+    public ColumnarCloudletWriter(String filePath) throws IOException {
+        channel = FileChannel.open(Path.of(filePath),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(ColumnarFormat.FILE_HEADER_BYTES).order(ColumnarFormat.BYTE_ORDER);
+                header.putInt(ColumnarFormat.MAGIC).putInt(ColumnarFormat.VERSION).putLong(0).flip();
+                writeFully(header, 0);
+                position = ColumnarFormat.FILE_HEADER_BYTES;
+            } else {
+                ColumnarFooter footer = ColumnarFooter.read(channel, filePath);
+                for (String entry : footer.getDictionary()) {
+                    dictionaryIds.put(entry, dictionary.size());
+                    dictionary.add(entry);
+                }
+                for (long offset : footer.getBlockOffsets()) {
+                    blockOffsets.add(offset);
+                }
+                //anything after the trailer was left by an append that never closed, it is overwritten
+                position = footer.getEndOffset();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public void append(CloudletRecordBatch batch) throws IOException {
+        for (int from = 0; from < batch.size(); from += ColumnarFormat.MAX_ROWS_PER_BLOCK) {
+            writeBlock(batch, from, Math.min(batch.size(), from + ColumnarFormat.MAX_ROWS_PER_BLOCK));
+        }
+    }
+
+    private void writeBlock(CloudletRecordBatch batch, int from, int to) throws IOException {
+        int rows = to - from;
+        long blockBytes = ColumnarFormat.BLOCK_HEADER_BYTES + (long) rows * CloudletColumn.ROW_BYTES;
+        MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_WRITE, position, blockBytes);
+        block.order(ColumnarFormat.BYTE_ORDER);
+
+        block.putInt(rows)
+            .putInt(batch.getRunId())
+            .putInt(idOf(batch.getVmAllocationPolicy()))
+            .putInt(idOf(batch.getVmScheduler()))
+            .putInt(idOf(batch.getCloudletScheduler()))
+            .putInt(0);
+
+        //one array per column, in CloudletColumn order
+        for (int row = from; row < to; row++) block.putLong(batch.getCloudletId(row));
+        for (int row = from; row < to; row++) block.putLong(batch.getHostId(row));
+        for (int row = from; row < to; row++) block.putInt((int) batch.getHostPes(row));
+        for (int row = from; row < to; row++) block.putLong(batch.getVmId(row));
+        for (int row = from; row < to; row++) block.putInt((int) batch.getVmPes(row));
+        for (int row = from; row < to; row++) block.putShort((short) idOf(batch.getStatus(row)));
+        for (int row = from; row < to; row++) block.putDouble(batch.getExecTime(row));
+        for (int row = from; row < to; row++) block.putDouble(batch.getStartTime(row));
+        for (int row = from; row < to; row++) block.putDouble(batch.getFinishTime(row));
+        for (int row = from; row < to; row++) block.putDouble(batch.getStartWaitTime(row));
+        for (int row = from; row < to; row++) block.putDouble(batch.getExpectedFinishTime(row));
+
+        blockOffsets.add(position);
+        position += blockBytes;
+    }
+
+    private int idOf(String value) {
+        Integer id = dictionaryIds.get(value);
+        if (id == null) {
+            if (dictionary.size() > Short.MAX_VALUE) {
+                throw new IllegalStateException("Dictionary of the columnar file is full");
+            }
+            id = dictionary.size();
+            dictionaryIds.put(value, id);
+            dictionary.add(value);
+        }
+        return id;
+    }
+
+    //writes dictionary, block index and trailer after the last block, forces them to disk and only then
+    //points the file header at the new trailer
+    @Override
+    public void close() throws IOException {
+        try {
+            int footerBytes = Integer.BYTES * 2 + Long.BYTES * blockOffsets.size() + ColumnarFormat.TRAILER_BYTES;
+            List<byte[]> encoded = new ArrayList<>(dictionary.size());
+            for (String entry : dictionary) {
+                byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                footerBytes += Integer.BYTES + bytes.length;
+            }
+
+            ByteBuffer footer = ByteBuffer.allocate(footerBytes).order(ColumnarFormat.BYTE_ORDER);
+            footer.putInt(encoded.size());
+            for (byte[] bytes : encoded) {
+                footer.putInt(bytes.length).put(bytes);
+            }
+            footer.putInt(blockOffsets.size());
+            for (long offset : blockOffsets) {
+                footer.putLong(offset);
+            }
+            footer.putLong(position).putInt(ColumnarFormat.MAGIC).flip();
+            writeFully(footer, position);
+            channel.force(true);
+
+            long trailerOffset = position + footerBytes - ColumnarFormat.TRAILER_BYTES;
+            ByteBuffer pointer = ByteBuffer.allocate(Long.BYTES).order(ColumnarFormat.BYTE_ORDER);
+            pointer.putLong(trailerOffset).flip();
+            writeFully(pointer, ColumnarFormat.FILE_HEADER_BYTES - Long.BYTES);
+            channel.force(true);
+            channel.truncate(trailerOffset + ColumnarFormat.TRAILER_BYTES);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long at) throws IOException {
+        while (buffer.hasRemaining()) {
+            at += channel.write(buffer, at);
+        }
+    }
+}
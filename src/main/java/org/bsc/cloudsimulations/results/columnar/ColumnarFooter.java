@@ -0,0 +1,72 @@
+package org.bsc.cloudsimulations.results.columnar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Dictionary and block index of a columnar file, read from the footer of the trailer the file header points at
+ * */
+final class ColumnarFooter {
+    private final long endOffset;
+    private final List<String> dictionary;
+    private final long[] blockOffsets;
+
+    private ColumnarFooter(long endOffset, List<String> dictionary, long[] blockOffsets) {
+        this.endOffset = endOffset;
+        this.dictionary = dictionary;
+        this.blockOffsets = blockOffsets;
+    }
+
+    static ColumnarFooter read(FileChannel channel, String filePath) throws IOException {
+        long size = channel.size();
+        if (size < ColumnarFormat.FILE_HEADER_BYTES + ColumnarFormat.TRAILER_BYTES) {
+            throw new IOException("Not a columnar cloudlet file (too short): " + filePath);
+        }
+        ByteBuffer header = readAt(channel, 0, ColumnarFormat.FILE_HEADER_BYTES);
+        if (header.getInt() != ColumnarFormat.MAGIC || header.getInt() != ColumnarFormat.VERSION) {
+            throw new IOException("Not a columnar cloudlet file (bad header): " + filePath);
+        }
+        long trailerOffset = header.getLong();
+        if (trailerOffset < ColumnarFormat.FILE_HEADER_BYTES || trailerOffset > size - ColumnarFormat.TRAILER_BYTES) {
+            throw new IOException("Columnar cloudlet file has no valid footer (was it closed?): " + filePath);
+        }
+        ByteBuffer trailer = readAt(channel, trailerOffset, ColumnarFormat.TRAILER_BYTES);
+        long footerOffset = trailer.getLong();
+        if (trailer.getInt() != ColumnarFormat.MAGIC || footerOffset < ColumnarFormat.FILE_HEADER_BYTES || footerOffset > trailerOffset) {
+            throw new IOException("Columnar cloudlet file has no valid footer (was it closed?): " + filePath);
+        }
+
+        ByteBuffer footer = readAt(channel, footerOffset, (int) (trailerOffset - footerOffset));
+        int dictionarySize = footer.getInt();
+        List<String> dictionary = new ArrayList<>(dictionarySize);
+        for (int i = 0; i < dictionarySize; i++) {
+            byte[] bytes = new byte[footer.getInt()];
+            footer.get(bytes);
+            dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        long[] blockOffsets = new long[footer.getInt()];
+        for (int i = 0; i < blockOffsets.length; i++) {
+            blockOffsets[i] = footer.getLong();
+        }
+        return new ColumnarFooter(trailerOffset + ColumnarFormat.TRAILER_BYTES, dictionary, blockOffsets);
+    }
+
+    static ByteBuffer readAt(FileChannel channel, long position, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ColumnarFormat.BYTE_ORDER);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    //first byte after the trailer, where blocks appended later start
+    long getEndOffset() { return endOffset; }
+    List<String> getDictionary() { return dictionary; }
+    long[] getBlockOffsets() { return blockOffsets; }
+}
@@ -0,0 +1,40 @@
+package org.bsc.cloudsimulations.results.columnar;
+
+import java.nio.ByteOrder;
+
+/*
+ * Layout of the binary columnar detailed table (*.col files), little endian throughout
+ *
+ * [file header]  int magic, int version, long trailer offset (0 until the file is first closed)
+ * [block]*       one block per run (large runs are split into several blocks):
+ *                int rowCount, int runId, int allocation policy id, int vm scheduler id, int cloudlet scheduler id, int padding
+ *                followed by one fixed-width array per row-level column, in CloudletColumn order
+ * [footer]       int dictionary size, (int length, UTF-8 bytes) per entry,
+ *                int block count, long offset per block
+ * [trailer]      long footer offset, int magic
+ *
+ * Policy short codes and cloudlet statuses are dictionary-encoded (ids into the footer dictionary)
+ * Every close writes a new footer and trailer after the last block, then points the file header at the new trailer
+ * Appending to an existing file writes its blocks after the old trailer, so until the header is updated the file
+ * still reads as it was before (a crash mid-append only leaves unreferenced bytes behind)
+ * */
+final class ColumnarFormat {
+    static final int MAGIC = 0x43535043; //"CSPC"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 16;
+    static final int BLOCK_HEADER_BYTES = 24;
+    static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+    //keeps every block well below the 2 GB limit of a single mapping
+    static final int MAX_ROWS_PER_BLOCK = 1 << 20;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private ColumnarFormat() {
+    }
+
+    //binary file that sits next to the CSV file of the same table
+    static String binaryPathFor(String csvFilePath) {
+        return csvFilePath.endsWith(".csv")
+                ? csvFilePath.substring(0, csvFilePath.length() - 4) + ".col"
+                : csvFilePath + ".col";
+    }
+}
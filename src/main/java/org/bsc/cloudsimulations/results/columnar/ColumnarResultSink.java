@@ -0,0 +1,72 @@
+package org.bsc.cloudsimulations.results.columnar;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bsc.cloudsimulations.results.CloudletHistogramRecord;
+import org.bsc.cloudsimulations.results.CloudletRecordBatch;
+import org.bsc.cloudsimulations.results.MetricsRecord;
+import org.bsc.cloudsimulations.results.ResultSink;
+import org.bsc.cloudsimulations.results.UtilizationSeriesRecord;
+
+/*
+ * Writes the detailed cloudlet table in the binary columnar format (next to the CSV path, with a .col extension)
+ * Metrics rows are always forwarded to the delegate sink, detailed batches only when keepCsv is set
+ * One ColumnarCloudletWriter per file is kept open until close()
+ * */
+public class ColumnarResultSink implements ResultSink, AutoCloseable {
+    private final ResultSink delegate;
+    private final boolean keepCsv;
+    private final Map<String, ColumnarCloudletWriter> writers = new HashMap<>();
+
+    public ColumnarResultSink(ResultSink delegate, boolean keepCsv) {
+        this.delegate = delegate;
+        this.keepCsv = keepCsv;
+    }
+
+    @Override
+    public synchronized void writeCloudlets(CloudletRecordBatch batch) {
+        try {
+            String filePath = ColumnarFormat.binaryPathFor(batch.getFilePath());
+            ColumnarCloudletWriter writer = writers.get(filePath);
+            if (writer == null) {
+                writer = new ColumnarCloudletWriter(filePath);
+                writers.put(filePath, writer);
+            }
+            writer.append(batch);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (keepCsv) {
+            delegate.writeCloudlets(batch);
+        }
+    }
+
+    @Override
+    public void writeMetrics(MetricsRecord record) {
+        delegate.writeMetrics(record);
+    }
+
+    @Override
+    public void writeHistograms(CloudletHistogramRecord record) {
+        delegate.writeHistograms(record);
+    }
+
+    @Override
+    public void writeUtilization(UtilizationSeriesRecord record) {
+        delegate.writeUtilization(record);
+    }
+
+    @Override
+    public synchronized void close() {
+        for (ColumnarCloudletWriter writer : writers.values()) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        writers.clear();
+    }
+}
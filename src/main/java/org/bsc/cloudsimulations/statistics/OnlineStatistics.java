@@ -0,0 +1,75 @@
+package org.bsc.cloudsimulations.statistics;
+
+/*
+ * Running statistics of one metric, updated one observation at a time in constant memory
+ * Mean and variance use Welford's algorithm (numerically stable, single pass)
+ * Median and 95th percentile come from P-square estimators
+ * The 95% confidence interval of the mean uses Student's t critical values
+ * */
+public class OnlineStatistics {
+    //two-sided 95% critical values of Student's t for 1..30 degrees of freedom
+    private static final double[] T_95 = {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final P2QuantileEstimator median = new P2QuantileEstimator(0.5);
+    private final P2QuantileEstimator p95 = new P2QuantileEstimator(0.95);
+
+    public void add(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return; //e.g. throughput of a run that finished nothing
+        }
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        median.add(value);
+        p95.add(value);
+    }
+
+    public long getCount() { return count; }
+    public double getMean() { return count == 0 ? Double.NaN : mean; }
+    public double getMin() { return count == 0 ? Double.NaN : min; }
+    public double getMax() { return count == 0 ? Double.NaN : max; }
+    public double getMedian() { return median.getQuantile(); }
+    public double getP95() { return p95.getQuantile(); }
+
+    //sample variance (n - 1)
+    public double getVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    //half-width of the 95% confidence interval of the mean, NaN with fewer than two observations
+    public double getConfidenceHalfWidth() {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        return tCritical95(count - 1) * getStandardDeviation() / Math.sqrt(count);
+    }
+
+    private static double tCritical95(long degreesOfFreedom) {
+        if (degreesOfFreedom <= T_95.length) {
+            return T_95[(int) degreesOfFreedom - 1];
+        }
+        if (degreesOfFreedom <= 60) {
+            return 2.000 + (2.042 - 2.000) * (60 - degreesOfFreedom) / 30.0;
+        }
+        if (degreesOfFreedom <= 120) {
+            return 1.980 + (2.000 - 1.980) * (120 - degreesOfFreedom) / 60.0;
+        }
+        return 1.960;
+    }
+}
@@ -0,0 +1,111 @@
+package org.bsc.cloudsimulations.workload;
+
+import java.util.Random;
+
+import org.bsc.cloudsimulations.configurations.ArrivalProfile;
+
+/*
+ * Arrival times of an open-loop workload, drawn one at a time from a seeded generator
+ * Each call to next() returns the following arrival (seconds from the start of the simulation),
+ * so nothing but the process state is kept however many arrivals are drawn
+ * */
+public abstract class ArrivalProcess {
+    protected final Random random;
+    protected double time;
+
+    protected ArrivalProcess(Random random) {
+        this.random = random;
+    }
+
+    public static ArrivalProcess create(ArrivalProfile profile, Random random) {
+        if (profile.getType().equals("mmpp")) {
+            return new Mmpp(profile, random);
+        }
+        if (profile.getType().equals("diurnal")) {
+            return new Diurnal(profile, random);
+        }
+        return new Poisson(profile.getRate(), random);
+    }
+
+    public abstract double next();
+
+    protected double exponential(double rate) {
+        return -Math.log(1 - random.nextDouble()) / rate;
+    }
+
+    //constant rate, exponential inter-arrival times
+    static class Poisson extends ArrivalProcess {
+        private final double rate;
+
+        Poisson(double rate, Random random) {
+            super(random);
+            this.rate = rate;
+        }
+
+        @Override
+        public double next() {
+            time += exponential(rate);
+            return time;
+        }
+    }
+
+    //Poisson arrivals whose rate switches between states, each state lasting an exponential time of the given mean
+    //inter-arrival and dwell times are both memoryless, so an arrival falling after the switch is simply drawn again in the next state
+    static class Mmpp extends ArrivalProcess {
+        private final double[] rates;
+        private final double[] meanDwell;
+        private int state;
+        private double stateEnd;
+
+        Mmpp(ArrivalProfile profile, Random random) {
+            super(random);
+            this.rates = profile.getRates();
+            this.meanDwell = profile.getMeanDwell();
+            this.stateEnd = exponential(1 / meanDwell[0]);
+        }
+
+        @Override
+        public double next() {
+            while (true) {
+                double candidate = rates[state] > 0 ? time + exponential(rates[state]) : Double.POSITIVE_INFINITY;
+                if (candidate <= stateEnd) {
+                    time = candidate;
+                    return time;
+                }
+                time = stateEnd;
+                state = (state + 1) % rates.length;
+                stateEnd = time + exponential(1 / meanDwell[state]);
+            }
+        }
+    }
+
+    //non-homogeneous Poisson process sampled by thinning: candidates at the peak rate, each kept with probability rate(t) / peak
+    static class Diurnal extends ArrivalProcess {
+        private final double baseRate;
+        private final double amplitude;
+        private final double period;
+        private final double peakTime;
+        private final double peakRate;
+
+        Diurnal(ArrivalProfile profile, Random random) {
+            super(random);
+            this.baseRate = profile.getBaseRate();
+            this.amplitude = profile.getAmplitude();
+            this.period = profile.getPeriod();
+            this.peakTime = profile.getPeakTime();
+            this.peakRate = baseRate * (1 + amplitude);
+        }
+
+        private double rateAt(double t) {
+            return baseRate * (1 + amplitude * Math.cos(2 * Math.PI * (t - peakTime) / period));
+        }
+
+        @Override
+        public double next() {
+            do {
+                time += exponential(peakRate);
+            } while (random.nextDouble() * peakRate > rateAt(time));
+            return time;
+        }
+    }
+}
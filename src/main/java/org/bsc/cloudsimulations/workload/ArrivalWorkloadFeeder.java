@@ -0,0 +1,99 @@
+package org.bsc.cloudsimulations.workload;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.bsc.cloudsimulations.configurations.ArrivalProfile;
+import org.bsc.cloudsimulations.configurations.TopologyProfile.CloudletClass;
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+
+/*
+ * Feeds an open-loop workload to the broker while the simulation runs (see WorkloadFeeder)
+ * Arrival times come from the configured arrival process, the class of each cloudlet is drawn from the
+ * cloudlet classes of the topology profile, weighted by their counts
+ * Arrivals don't depend on completions, so queueing shows up as growing wait and response times instead of slower arrivals
+ * */
+public class ArrivalWorkloadFeeder extends WorkloadFeeder {
+    private final ArrivalProcess process;
+    private final Random random;
+    private final Function<CloudletClass, Cloudlet> cloudletFactory;
+    private final double duration;
+    private final double warmup;
+    private final long maxArrivals;
+    private final CloudletClass[] classes;
+    //cumulative class counts, for the weighted draw
+    private final long[] cumulativeCounts;
+
+    private double arrival;
+    private CloudletClass cloudletClass;
+    private long arrivals;
+
+    public ArrivalWorkloadFeeder(CloudSimPlus simulation, DatacenterBroker broker, ArrivalProfile profile,
+            List<CloudletClass> cloudletClasses, Function<CloudletClass, Cloudlet> cloudletFactory, Random random) {
+        super(simulation, broker, profile.getLookaheadSeconds());
+        this.process = ArrivalProcess.create(profile, random);
+        this.random = random;
+        this.cloudletFactory = cloudletFactory;
+        this.duration = profile.getDuration();
+        this.warmup = profile.getWarmup();
+        this.maxArrivals = profile.getMaxArrivals();
+        this.classes = cloudletClasses.toArray(new CloudletClass[0]);
+        this.cumulativeCounts = new long[classes.length];
+        long total = 0;
+        for (int i = 0; i < classes.length; i++) {
+            total += Math.max(classes[i].getCount(), 0);
+            cumulativeCounts[i] = total;
+        }
+        if (total == 0) {
+            throw new RuntimeException("Arrival process " + profile.getName() + " needs at least one cloudlet class with a positive count");
+        }
+    }
+
+    @Override
+    protected boolean readNext() {
+        if (maxArrivals > 0 && arrivals >= maxArrivals) {
+            return false;
+        }
+        arrival = process.next();
+        if (duration > 0 && arrival > duration) {
+            return false;
+        }
+        cloudletClass = drawClass();
+        arrivals++;
+        return true;
+    }
+
+    private CloudletClass drawClass() {
+        long draw = (long) (random.nextDouble() * cumulativeCounts[cumulativeCounts.length - 1]);
+        for (int i = 0; i < cumulativeCounts.length; i++) {
+            if (draw < cumulativeCounts[i]) {
+                return classes[i];
+            }
+        }
+        return classes[classes.length - 1];
+    }
+
+    @Override
+    protected double getArrival() {
+        return arrival;
+    }
+
+    @Override
+    protected Cloudlet createCloudlet() {
+        return cloudletFactory.apply(cloudletClass);
+    }
+
+    //after the warm-up and until arrivals stop (the drain at the end is no steady state either)
+    @Override
+    public double getSteadyStateStart() {
+        return warmup;
+    }
+
+    @Override
+    public double getSteadyStateEnd() {
+        return duration > 0 ? duration : Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,9 @@
+package org.bsc.cloudsimulations.workload;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+
+//creates the cloudlet of a trace job (utilization models, sizes and seeds stay with the system being simulated)
+@FunctionalInterface
+public interface CloudletFactory {
+    Cloudlet create(long length, int pes);
+}
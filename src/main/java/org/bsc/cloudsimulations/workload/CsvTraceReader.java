@@ -0,0 +1,47 @@
+package org.bsc.cloudsimulations.workload;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.bsc.cloudsimulations.configurations.WorkloadTrace;
+
+/*
+ * Cluster trace reader for delimiter-separated task tables (Google / Alibaba style)
+ * Columns are picked by index from the workload format; times are scaled to seconds, CPUs to PEs
+ * A missing CPU column counts as 1 PE; tasks without a positive duration are skipped
+ * */
+public class CsvTraceReader extends TraceReader {
+    private final WorkloadTrace trace;
+    private boolean headerPending;
+
+    public CsvTraceReader(Path path, WorkloadTrace trace) throws IOException {
+        super(path, trace.getDelimiter(), maxColumn(trace) + 1);
+        this.trace = trace;
+        this.headerPending = trace.hasHeader();
+    }
+
+    private static int maxColumn(WorkloadTrace trace) {
+        return Math.max(Math.max(trace.getSubmitTimeColumn(), trace.getCpusColumn()),
+                Math.max(trace.getRunTimeColumn(), trace.getEndTimeColumn()));
+    }
+
+    @Override
+    protected boolean toJob(double[] fields, int count, TraceJob job) {
+        if (headerPending) {
+            headerPending = false;
+            return false;
+        }
+        double submitTime = fields[trace.getSubmitTimeColumn()];
+        double runTime = trace.getRunTimeColumn() >= 0
+                ? fields[trace.getRunTimeColumn()]
+                : fields[trace.getEndTimeColumn()] - submitTime;
+        if (!(submitTime >= 0) || !(runTime > 0)) {
+            return false;
+        }
+        double cpus = trace.getCpusColumn() >= 0 ? fields[trace.getCpusColumn()] * trace.getCpusScale() : 1;
+        job.submitTime = submitTime * trace.getTimeScale();
+        job.runTime = runTime * trace.getTimeScale();
+        job.cpus = cpus > 0 ? cpus : 1;
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package org.bsc.cloudsimulations.workload;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/*
+ * Standard Workload Format (Parallel Workloads Archive) reader
+ * 18 blank-separated fields per job, header/comment lines start with ';', -1 marks unknown values
+ * Used fields: 2 submit time, 4 run time, 5 allocated processors (8 requested processors when unknown)
+ * Jobs without a positive run time or processor count (e.g. cancelled before start) are skipped
+ * */
+public class SwfTraceReader extends TraceReader {
+    private static final int SUBMIT_TIME = 1;
+    private static final int RUN_TIME = 3;
+    private static final int ALLOCATED_PROCESSORS = 4;
+    private static final int REQUESTED_PROCESSORS = 7;
+
+    public SwfTraceReader(Path path) throws IOException {
+        super(path, '\0', REQUESTED_PROCESSORS + 1);
+    }
+
+    @Override
+    protected boolean isComment(byte first) {
+        return first == ';';
+    }
+
+    @Override
+    protected boolean toJob(double[] fields, int count, TraceJob job) {
+        if (count <= ALLOCATED_PROCESSORS) {
+            return false;
+        }
+        double processors = fields[ALLOCATED_PROCESSORS] > 0 ? fields[ALLOCATED_PROCESSORS] : fields[REQUESTED_PROCESSORS];
+        if (!(fields[RUN_TIME] > 0) || !(processors > 0) || !(fields[SUBMIT_TIME] >= 0)) {
+            return false;
+        }
+        job.submitTime = fields[SUBMIT_TIME];
+        job.runTime = fields[RUN_TIME];
+        job.cpus = processors;
+        return true;
+    }
+}
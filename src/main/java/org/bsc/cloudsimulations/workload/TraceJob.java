@@ -0,0 +1,15 @@
+package org.bsc.cloudsimulations.workload;
+
+/*
+ * One job of a workload trace, in seconds and PEs
+ * A single instance is refilled for every trace line, so reading a trace does not allocate per job
+ * */
+public class TraceJob {
+    double submitTime;
+    double runTime;
+    double cpus;
+
+    public double getSubmitTime() { return submitTime; }
+    public double getRunTime() { return runTime; }
+    public double getCpus() { return cpus; }
+}
@@ -0,0 +1,247 @@
+package org.bsc.cloudsimulations.workload;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.bsc.cloudsimulations.configurations.WorkloadTrace;
+
+/*
+ * Streaming reader of a workload trace file
+ * The file is memory-mapped a window at a time (64 MB) and scanned line by line directly in the mapped bytes;
+ * numeric fields are parsed in place into a reusable double[] (NaN for empty/non-numeric fields),
+ * so only the current window is resident and reading does not allocate per line, however long the trace is
+ * Subclasses turn the fields of one line into a TraceJob (or skip the line)
+ * */
+public abstract class TraceReader implements Closeable {
+    private static final long WINDOW_BYTES = 64L << 20;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long fileSize;
+    //0 = fields separated by runs of blanks
+    private final byte delimiter;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+
+    protected final double[] fields;
+    private long lineNumber;
+
+    protected TraceReader(Path path, char delimiter, int maxFields) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.delimiter = (byte) delimiter;
+        this.fields = new double[maxFields];
+        map(0);
+    }
+
+    public static TraceReader open(WorkloadTrace trace) throws IOException {
+        Path path = Path.of(trace.getPath());
+        return trace.isSwf() ? new SwfTraceReader(path) : new CsvTraceReader(path, trace);
+    }
+
+    //fills the job with the next usable line, false at the end of the trace
+    public boolean next(TraceJob job) throws IOException {
+        while (nextLine()) {
+            lineNumber++;
+            if (isComment(window.get(lineStart))) {
+                continue;
+            }
+            int count = split();
+            if (count > 0 && toJob(fields, count, job)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //true for lines to ignore, by their first byte
+    protected boolean isComment(byte first) {
+        return false;
+    }
+
+    protected abstract boolean toJob(double[] fields, int count, TraceJob job);
+
+    protected long getLineNumber() {
+        return lineNumber;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        long length = Math.min(WINDOW_BYTES, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        position = 0;
+    }
+
+    //locates the next line [lineStart, lineEnd) in the window, remapping when a line crosses the window end
+    private boolean nextLine() throws IOException {
+        while (true) {
+            int limit = window.limit();
+            if (position >= limit) {
+                if (windowStart + limit >= fileSize) {
+                    return false;
+                }
+                map(windowStart + limit);
+                continue;
+            }
+            int end = position;
+            while (end < limit && window.get(end) != '\n') {
+                end++;
+            }
+            boolean lastWindow = windowStart + limit >= fileSize;
+            if (end == limit && !lastWindow) {
+                if (position == 0) {
+                    throw new IOException("Line longer than " + WINDOW_BYTES + " bytes in " + path);
+                }
+                map(windowStart + position); //line continues in the next window, map again from its start
+                continue;
+            }
+            lineStart = position;
+            lineEnd = end;
+            if (lineEnd > lineStart && window.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            position = end + 1;
+            if (lineEnd > lineStart) {
+                return true;
+            }
+        }
+    }
+
+    //parses the fields of the current line into 'fields', returns how many were found (at most fields.length)
+    private int split() {
+        int count = 0;
+        int i = lineStart;
+        if (delimiter == 0) {
+            while (count < fields.length) {
+                while (i < lineEnd && isBlank(window.get(i))) {
+                    i++;
+                }
+                if (i >= lineEnd) {
+                    break;
+                }
+                int start = i;
+                while (i < lineEnd && !isBlank(window.get(i))) {
+                    i++;
+                }
+                fields[count++] = parseNumber(start, i);
+            }
+        } else {
+            while (count < fields.length) {
+                int start = i;
+                while (i < lineEnd && window.get(i) != delimiter) {
+                    i++;
+                }
+                fields[count++] = parseNumber(start, i);
+                if (i >= lineEnd) {
+                    break;
+                }
+                i++; //skip the delimiter
+            }
+        }
+        Arrays.fill(fields, count, fields.length, Double.NaN);
+        return count;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    //decimal number (sign, digits, fraction, exponent) straight from the mapped bytes
+    //exact whenever the digits fit in 2^53 and the decimal exponent in 10^22, otherwise left to Double.parseDouble
+    private double parseNumber(int start, int end) {
+        while (start < end && isBlank(window.get(start))) {
+            start++;
+        }
+        while (end > start && isBlank(window.get(end - 1))) {
+            end--;
+        }
+        if (start < end && window.get(start) == '"' && window.get(end - 1) == '"' && end - start >= 2) {
+            start++;
+            end--;
+        }
+        if (start >= end) {
+            return Double.NaN;
+        }
+        int i = start;
+        boolean negative = false;
+        byte b = window.get(i);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        while (i < end && (b = window.get(i)) >= '0' && b <= '9') {
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                exponent++;
+            }
+            anyDigit = true;
+            i++;
+        }
+        if (i < end && window.get(i) == '.') {
+            i++;
+            while (i < end && (b = window.get(i)) >= '0' && b <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    exponent--;
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                }
+                anyDigit = true;
+                i++;
+            }
+        }
+        if (!anyDigit) {
+            return Double.NaN;
+        }
+        if (i < end && ((b = window.get(i)) == 'e' || b == 'E')) {
+            return slowParse(start, end);
+        }
+        if (i != end) {
+            return Double.NaN; //not a number (e.g. a text column)
+        }
+        if (digits > 15 || exponent < -22 || exponent > 22) {
+            return slowParse(start, end);
+        }
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    private double slowParse(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        window.get(start, bytes);
+        try {
+            return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,82 @@
+package org.bsc.cloudsimulations.workload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.bsc.cloudsimulations.configurations.WorkloadTrace;
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+
+/*
+ * Feeds the jobs of a trace to the broker while the simulation runs (see WorkloadFeeder)
+ * Trace times are relative to the first job; only the job being read is held here, the trace itself is never loaded into memory
+ * Jobs are expected in submission order (SWF logs are)
+ * Mapping: length = run time * reference MIPS (MI per PE), PEs = job CPUs rounded up, capped to the largest VM
+ * */
+public class TraceWorkloadFeeder extends WorkloadFeeder {
+    private final TraceReader reader;
+    private final CloudletFactory cloudletFactory;
+    private final double referenceMips;
+    private final int maxPes;
+    private final long maxJobs;
+
+    private final TraceJob job = new TraceJob();
+    private double origin = Double.NaN;
+
+    public TraceWorkloadFeeder(CloudSimPlus simulation, DatacenterBroker broker, WorkloadTrace trace,
+            CloudletFactory cloudletFactory, double referenceMips, int maxPes) {
+        super(simulation, broker, trace.getLookaheadSeconds());
+        this.cloudletFactory = cloudletFactory;
+        this.referenceMips = referenceMips;
+        this.maxPes = Math.max(maxPes, 1);
+        this.maxJobs = trace.getMaxJobs();
+        try {
+            this.reader = TraceReader.open(trace);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open workload trace: " + trace.getPath(), e);
+        }
+    }
+
+    @Override
+    protected boolean readNext() {
+        try {
+            if ((maxJobs > 0 && getSubmittedJobs() >= maxJobs) || !reader.next(job)) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read workload trace", e);
+        }
+        if (Double.isNaN(origin)) {
+            origin = job.getSubmitTime();
+        }
+        return true;
+    }
+
+    @Override
+    protected double getArrival() {
+        return job.getSubmitTime() - origin;
+    }
+
+    @Override
+    protected Cloudlet createCloudlet() {
+        return cloudletFactory.create(lengthOf(job), pesOf(job));
+    }
+
+    private long lengthOf(TraceJob job) {
+        return Math.max((long) Math.ceil(job.getRunTime() * referenceMips), 1);
+    }
+
+    private int pesOf(TraceJob job) {
+        return (int) Math.min(Math.max(Math.ceil(job.getCpus()), 1), maxPes);
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
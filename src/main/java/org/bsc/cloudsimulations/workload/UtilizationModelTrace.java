@@ -0,0 +1,19 @@
+package org.bsc.cloudsimulations.workload;
+
+import org.cloudsimplus.utilizationmodels.UtilizationModelAbstract;
+
+//utilization of one cloudlet read from the shared trace, starting at its own offset (percentage units, as the stochastic model)
+public class UtilizationModelTrace extends UtilizationModelAbstract {
+    private final UtilizationTrace trace;
+    private final int offset;
+
+    public UtilizationModelTrace(UtilizationTrace trace, int offset) {
+        this.trace = trace;
+        this.offset = offset;
+    }
+
+    @Override
+    protected double getUtilizationInternal(double time) {
+        return trace.valueAt(offset, time);
+    }
+}
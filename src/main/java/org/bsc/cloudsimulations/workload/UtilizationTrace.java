@@ -0,0 +1,63 @@
+package org.bsc.cloudsimulations.workload;
+
+import java.util.SplittableRandom;
+
+import com.google.gson.JsonObject;
+
+/*
+ * Precomputed utilization trace shared by the cloudlets of every run of a configuration ("utilizationModel": "trace" in a section)
+ * Uniform values in [0, 1), the distribution UtilizationModelStochastic draws from, generated once from a fixed seed
+ * into a primitive ring buffer; a cloudlet only keeps its offset into the ring (see UtilizationModelTrace),
+ * instead of a random generator and a history map of its own
+ * One value per "resolution" seconds of simulated time, so a cloudlet reads the same value within a step, as the stochastic
+ * model does for a time it has already seen; windows of different cloudlets start at random offsets and overlap once their
+ * combined length exceeds the ring, so "size" should be large against cloudlet durations / resolution
+ * Settings ("utilizationTrace" in config.json, defaults when missing): {"size": 65536, "resolution": 1.0}
+ * "size" is rounded up to a power of two, so a position wraps with a mask
+ * */
+public final class UtilizationTrace {
+    private final double[] values;
+    private final int mask;
+    private final double resolution;
+
+    private UtilizationTrace(int size, double resolution, long seed) {
+        int capacity = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+        this.values = new double[capacity];
+        this.mask = capacity - 1;
+        this.resolution = resolution;
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < capacity; i++) {
+            values[i] = random.nextDouble();
+        }
+    }
+
+    public static UtilizationTrace fromJson(JsonObject settings, long seed) {
+        int size = settings != null && settings.has("size") ? settings.get("size").getAsInt() : 65536;
+        double resolution = settings != null && settings.has("resolution") ? settings.get("resolution").getAsDouble() : 1.0;
+        if (size < 2 || size > (1 << 30)) {
+            throw new RuntimeException("Utilization trace: size must be between 2 and 2^30");
+        }
+        if (!(resolution > 0)) {
+            throw new RuntimeException("Utilization trace: resolution must be positive");
+        }
+        return new UtilizationTrace(size, resolution, seed);
+    }
+
+    //ring position of a seed drawn for a cloudlet
+    public int offsetFor(long seed) {
+        return (int) (seed & mask);
+    }
+
+    //value of the step holding the given time, for the window starting at offset
+    public double valueAt(int offset, double time) {
+        return values[(int) (offset + (long) (time / resolution)) & mask];
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public double getResolution() {
+        return resolution;
+    }
+}
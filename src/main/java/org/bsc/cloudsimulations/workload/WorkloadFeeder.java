@@ -0,0 +1,107 @@
+package org.bsc.cloudsimulations.workload;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.listeners.CloudletVmEventInfo;
+import org.cloudsimplus.listeners.EventListener;
+
+/*
+ * Submits cloudlets to the broker while the simulation runs, instead of a full cloudlet list up front
+ * On every clock tick the jobs arriving within the lookahead window are created and submitted
+ * with the remaining delay until their arrival
+ * The next job is always submitted ahead when nothing else is pending, so the simulation never runs out of events
+ * before the source is exhausted
+ * Only the next job is held here; subclasses say where jobs come from (a trace file, an arrival process)
+ * Jobs are expected in arrival order; a job arriving before the current clock is submitted right away
+ * An optional finish listener is attached to every cloudlet, so finished cloudlets can be recorded and released during the run
+ * */
+public abstract class WorkloadFeeder implements Closeable {
+    private final CloudSimPlus simulation;
+    private final DatacenterBroker broker;
+    private final double lookahead;
+
+    private boolean pending;
+    private boolean exhausted;
+    private double lastSubmittedArrival = -1;
+    private long submittedJobs;
+    private EventListener<CloudletVmEventInfo> onCloudletFinish;
+    private final List<Cloudlet> batch = new ArrayList<>();
+
+    protected WorkloadFeeder(CloudSimPlus simulation, DatacenterBroker broker, double lookahead) {
+        this.simulation = simulation;
+        this.broker = broker;
+        this.lookahead = lookahead;
+    }
+
+    //submits the first jobs and keeps submitting on every clock tick
+    public void start() {
+        submitDue(0);
+        simulation.addOnClockTickListener(info -> submitDue(simulation.clock()));
+    }
+
+    private void submitDue(double now) {
+        while (!exhausted) {
+            if (!pending) {
+                if (!readNext()) {
+                    exhausted = true;
+                    close();
+                    break;
+                }
+                pending = true;
+            }
+            double arrival = getArrival();
+            //beyond the window: only go on when nothing submitted is still to arrive
+            if (arrival > now + lookahead && lastSubmittedArrival > now) {
+                break;
+            }
+            Cloudlet cloudlet = createCloudlet();
+            cloudlet.setSubmissionDelay(Math.max(arrival - now, 0));
+            if (onCloudletFinish != null) {
+                cloudlet.addOnFinishListener(onCloudletFinish);
+            }
+            batch.add(cloudlet);
+            lastSubmittedArrival = Math.max(lastSubmittedArrival, arrival);
+            submittedJobs++;
+            pending = false;
+        }
+        if (!batch.isEmpty()) {
+            broker.submitCloudletList(batch);
+            batch.clear();
+        }
+    }
+
+    //moves to the next job, false when there is none left
+    protected abstract boolean readNext();
+
+    //arrival of the current job, in seconds from the start of the simulation
+    protected abstract double getArrival();
+
+    protected abstract Cloudlet createCloudlet();
+
+    public long getSubmittedJobs() {
+        return submittedJobs;
+    }
+
+    public void setOnCloudletFinish(EventListener<CloudletVmEventInfo> listener) {
+        this.onCloudletFinish = listener;
+    }
+
+    //arrivals within [start, end) are the steady state of the workload, the whole run unless a subclass knows better
+    public double getSteadyStateStart() {
+        return 0;
+    }
+
+    public double getSteadyStateEnd() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    //releases the job source, called once it is exhausted (and again when the run ends)
+    @Override
+    public void close() {
+    }
+}